@@ -127,6 +127,41 @@ def decode_header(data: bytes) -> Optional[dict]:
     }
 
 
+def decode_varint(data: bytes, pos: int) -> (int, int):
+    """解码 varint, 返回 (值, 下一个位置)"""
+    result = 0
+    shift = 0
+    while pos < len(data):
+        b = data[pos]
+        pos += 1
+        result |= (b & 0x7F) << shift
+        if not b & 0x80:
+            return result, pos
+        shift += 7
+    raise ValueError("truncated varint")
+
+
+def decode_chat_timestamp(body: bytes) -> int:
+    """从 ChatPayload 中取出 timestamp (field 7), 不存在时返回 0"""
+    pos = 0
+    try:
+        while pos < len(body):
+            tag, pos = decode_varint(body, pos)
+            field_num, wire_type = tag >> 3, tag & 0x07
+            if wire_type == 0:
+                value, pos = decode_varint(body, pos)
+                if field_num == 7:
+                    return value
+            elif wire_type == 2:
+                length, pos = decode_varint(body, pos)
+                pos += length
+            else:
+                return 0
+    except ValueError:
+        return 0
+    return 0
+
+
 # ============== 统计收集器 ==============
 @dataclass
 class Stats:
@@ -234,6 +269,8 @@ class ChatClient:
         self.pending_requests: Dict[int, float] = {}  # req_id -> send_time
         self.heartbeat_task: Optional[asyncio.Task] = None
         self.receive_task: Optional[asyncio.Task] = None
+        # 按消息体中的发送时间戳统计端到端投递延迟 (服务端转发时不保留 req_id)
+        self.track_delivery = False
     
     async def connect(self) -> bool:
         """建立 TCP 连接"""
@@ -381,6 +418,10 @@ class ChatClient:
                         latency = (receive_time - self.pending_requests[req_id]) * 1000
                         self.stats.add_latency(latency)
                         del self.pending_requests[req_id]
+                    elif self.track_delivery and body:
+                        sent_at = decode_chat_timestamp(body)
+                        if sent_at:
+                            self.stats.add_latency(receive_time * 1000 - sent_at)
                 elif cmd == CmdType.ERROR:
                     self.stats.increment('errors')
                     
@@ -680,6 +721,140 @@ class StressTestScenario(TestScenario):
         print(f"🔥 压力测试完成: 实际发送 {message_count} 条消息")
 
 
+class ChurnScenario(TestScenario):
+    """连接抖动测试场景: 反复 建连 -> 认证 -> 断开, 用于对比 NIO / epoll / io_uring 传输模式"""
+    
+    def __init__(
+        self,
+        host: str,
+        port: int,
+        client_count: int,
+        duration: int,
+        stats: Stats
+    ):
+        super().__init__(host, port, client_count, stats)
+        self.duration = duration
+        self.cycles = 0
+    
+    async def setup(self):
+        # 不保留长连接, 每个 worker 在 run() 中自行建连
+        pass
+    
+    async def run(self):
+        print(f"🔁 开始连接抖动测试: {self.client_count} 个并发 worker, 持续 {self.duration} 秒")
+        deadline = time.time() + self.duration
+        
+        async def churn(worker_id: int):
+            while time.time() < deadline:
+                client = ChatClient(worker_id, self.host, self.port, self.stats)
+                start = time.time()
+                if not await client.connect():
+                    await asyncio.sleep(0.01)
+                    continue
+                try:
+                    client.writer.write(encode_message(
+                        CmdType.AUTH, encode_auth_payload(client.token, f"churn_{worker_id}")))
+                    await client.writer.drain()
+                    # 建连 + 认证帧写出的耗时
+                    self.stats.add_latency((time.time() - start) * 1000)
+                except Exception:
+                    self.stats.increment('errors')
+                finally:
+                    await client.stop()
+                self.cycles += 1
+        
+        start_time = time.time()
+        await asyncio.gather(*[churn(i + 1) for i in range(self.client_count)], return_exceptions=True)
+        elapsed = max(time.time() - start_time, 1e-6)
+        print(f"🔁 连接抖动测试完成: {self.cycles} 次建连/断开, {self.cycles / elapsed:.2f} 次/秒")
+    
+    async def teardown(self):
+        pass
+
+
+class BurstScenario(TestScenario):
+    """突发投递测试场景: 发送方成对地向接收方连续灌入一批消息, 统计投递 P99 与服务端 write 系统调用数
+
+    对比 flush 合并效果时, 分别以 NETTY_FLUSH_CONSOLIDATION_LIMIT=0 / 256 启动服务端后运行;
+    指定 --server-pid 且与服务端同机时读取 /proc/<pid>/io 的 syscw (写类系统调用次数),
+    也可用 strace -c -f -e trace=write,writev,sendmsg -p <pid> 交叉验证。
+    """
+    
+    def __init__(
+        self,
+        host: str,
+        port: int,
+        client_count: int,
+        burst_size: int,
+        duration: int,
+        server_pid: Optional[int],
+        stats: Stats
+    ):
+        super().__init__(host, port, max(2, client_count), stats)
+        self.burst_size = burst_size
+        self.duration = duration
+        self.server_pid = server_pid
+    
+    def _server_write_syscalls(self) -> Optional[int]:
+        if not self.server_pid:
+            return None
+        try:
+            with open(f"/proc/{self.server_pid}/io") as f:
+                for line in f:
+                    if line.startswith("syscw:"):
+                        return int(line.split()[1])
+        except OSError:
+            return None
+        return None
+    
+    async def run(self):
+        authenticated = [c for c in self.clients if c.authenticated]
+        half = len(authenticated) // 2
+        senders, receivers = authenticated[:half], authenticated[half:half * 2]
+        if not senders:
+            print("❌ 没有足够的已认证客户端")
+            return
+        for receiver in receivers:
+            receiver.track_delivery = True
+        
+        print(f"💥 开始突发投递测试: {len(senders)} 对连接, 每批 {self.burst_size} 条, 持续 {self.duration} 秒")
+        received_before = self.stats.messages_received
+        syscalls_before = self._server_write_syscalls()
+        deadline = time.time() + self.duration
+        
+        async def burst(sender: ChatClient, receiver: ChatClient):
+            while time.time() < deadline:
+                # 整批写入后只 drain 一次, 让服务端在同一读周期内收到整批消息
+                now = int(time.time() * 1000)
+                for i in range(self.burst_size):
+                    body = encode_chat_payload(
+                        cmd=CmdType.SINGLE_CHAT,
+                        sender_id=sender.client_id,
+                        target_id=receiver.client_id,
+                        content=f"Burst msg #{i}",
+                        timestamp=now
+                    )
+                    sender.writer.write(encode_message(CmdType.SINGLE_CHAT, body))
+                try:
+                    await sender.writer.drain()
+                    self.stats.increment('messages_sent', self.burst_size)
+                except Exception:
+                    self.stats.increment('errors')
+                    return
+                await asyncio.sleep(1)
+        
+        await asyncio.gather(*[burst(s, r) for s, r in zip(senders, receivers)], return_exceptions=True)
+        # 等待尾部消息投递完成
+        await asyncio.sleep(2)
+        
+        delivered = self.stats.messages_received - received_before
+        syscalls_after = self._server_write_syscalls()
+        print(f"💥 突发投递测试完成: 投递 {delivered} 条消息")
+        if syscalls_before is not None and syscalls_after is not None:
+            syscalls = syscalls_after - syscalls_before
+            print(f"   服务端写系统调用: {syscalls} 次, 平均每条消息 {syscalls / max(delivered, 1):.3f} 次")
+
+
 # ============== 主程序 ==============
 async def run_benchmark(args):
     """运行基准测试"""
@@ -719,6 +894,18 @@ async def run_benchmark(args):
             args.duration, args.qps, stats
         ))
     
+    if args.scenario == 'churn':
+        scenarios.append(ChurnScenario(
+            args.host, args.port, args.clients,
+            args.duration, stats
+        ))
+    
+    if args.scenario == 'burst':
+        scenarios.append(BurstScenario(
+            args.host, args.port, args.clients,
+            args.messages, args.duration, args.server_pid, stats
+        ))
+    
     # 运行所有场景
     for scenario in scenarios:
         print(f"\n{'='*60}")
@@ -760,6 +947,12 @@ def main():
 
   # 压力测试 (目标 5000 QPS)
   python chat_client.py --scenario stress --clients 5000 --duration 30 --qps 5000
+
+  # 连接抖动测试 (分别以 NETTY_TRANSPORT=NIO / EPOLL / IO_URING 启动服务端后对比)
+  python chat_client.py --scenario churn --clients 200 --duration 30
+
+  # 突发投递测试 (每批 200 条, 同机运行时统计服务端 write 系统调用数)
+  python chat_client.py --scenario burst --clients 200 --messages 200 --duration 30 --server-pid 12345
         """
     )
     
@@ -770,9 +963,10 @@ def main():
     parser.add_argument('--groups', type=int, default=5, help='群组数量 (默认: 5)')
     parser.add_argument('--duration', type=int, default=30, help='测试持续时间/秒 (默认: 30)')
     parser.add_argument('--qps', type=int, default=1000, help='目标 QPS (默认: 1000)')
+    parser.add_argument('--server-pid', type=int, default=None, help='服务端进程号, 用于统计写系统调用 (仅 burst)')
     parser.add_argument(
         '--scenario',
-        choices=['all', 'single', 'group', 'heartbeat', 'offline', 'stress'],
+        choices=['all', 'single', 'group', 'heartbeat', 'offline', 'stress', 'churn', 'burst'],
         default='all',
         help='测试场景 (默认: all)'
     )
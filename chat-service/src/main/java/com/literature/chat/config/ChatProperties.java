@@ -0,0 +1,335 @@
+package com.literature.chat.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 聊天业务层配置 (路由、缓存等)
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "chat")
+public class ChatProperties {
+
+    /**
+     * 节点租约与路由绑定
+     */
+    private Presence presence = new Presence();
+
+    /**
+     * 用户路由本地缓存
+     */
+    private RouteCache routeCache = new RouteCache();
+
+    /**
+     * 节点间消息转发 (Kafka)
+     */
+    private Relay relay = new Relay();
+
+    /**
+     * 会话成员进程内缓存
+     */
+    private MemberCache memberCache = new MemberCache();
+
+    /**
+     * 聊天历史写入 MongoDB (write-behind)
+     */
+    private History history = new History();
+
+    /**
+     * Redis 离线队列 (单聊)
+     */
+    private OfflineQueue offlineQueue = new OfflineQueue();
+
+    /**
+     * 重连后的离线同步 (SYNC)
+     */
+    private Sync sync = new Sync();
+
+    /**
+     * 消息ID (Snowflake) 与会话序号
+     */
+    private MessageId messageId = new MessageId();
+
+    /**
+     * 禁言 / 封禁的进程内索引
+     */
+    private Sanction sanction = new Sanction();
+
+    @Data
+    public static class RouteCache {
+
+        /**
+         * 是否开启本地路由缓存，关闭时每次查询直接访问 Redis
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多缓存的用户数
+         */
+        private long maximumSize = 200_000;
+
+        /**
+         * 写入后的过期时间，作为丢失失效事件时的兜底
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 批量查询时单次回源的最大用户数，超过后拆分为多次
+         */
+        private int lookupBatchSize = 500;
+    }
+
+    @Data
+    public static class History {
+
+        /**
+         * 缓冲区容量 (条)，写满后调用方等待，形成反压
+         */
+        private int bufferCapacity = 100_000;
+
+        /**
+         * 单次 insertMany 的最大条数
+         */
+        private int batchSize = 500;
+
+        /**
+         * 攒批最长等待时间，未满一批也会在到期后写入
+         */
+        private Duration flushInterval = Duration.ofMillis(50);
+
+        /**
+         * 并行写入线程数
+         */
+        private int writers = 2;
+
+        /**
+         * 缓冲区满时先等待该时长，仍无空间则记录反压并阻塞直到有空间
+         */
+        private Duration offerTimeout = Duration.ofMillis(100);
+
+        /**
+         * 暂时性错误重试的最大退避间隔 (从 100ms 开始翻倍)
+         */
+        private Duration maxRetryBackoff = Duration.ofSeconds(5);
+
+        /**
+         * 停机时等待缓冲区写完的最长时间
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 历史翻页接口未指定 limit 时的每页条数
+         */
+        private int pageSize = 20;
+
+        /**
+         * 历史翻页接口单页上限
+         */
+        private int maxPageSize = 100;
+
+        /**
+         * 存储布局: MESSAGE 每条消息一个文档 (chat_messages)；BUCKET 同一会话同一时间窗口的消息合并到一个桶文档
+         * (chat_message_buckets)。切换到 BUCKET 前先开启迁移把已有历史搬过去
+         */
+        private Storage storage = Storage.MESSAGE;
+
+        /**
+         * 桶的时间窗口，同一窗口内的消息只会进入该窗口的桶
+         */
+        private Duration bucketWindow = Duration.ofHours(1);
+
+        /**
+         * 单个桶最多容纳的消息条数，写满后同一窗口再开新桶
+         */
+        private int bucketCapacity = 200;
+
+        /**
+         * 是否在启动后把 chat_messages 中的历史搬入桶集合 (可断点续跑，多节点只有一个执行)
+         */
+        private boolean migrationEnabled = false;
+
+        /**
+         * 迁移时每批读取的消息条数
+         */
+        private int migrationBatchSize = 1000;
+
+        /**
+         * 只迁移早于该时长的消息，给仍在 MESSAGE 模式下的节点的写入缓冲留出落库时间
+         */
+        private Duration migrationLag = Duration.ofMinutes(5);
+    }
+
+    public enum Storage {
+        MESSAGE,
+        BUCKET
+    }
+
+    @Data
+    public static class OfflineQueue {
+
+        /**
+         * 每个用户离线队列保留的最近消息条数，超出后丢弃最旧的
+         */
+        private int maxLength = 50;
+
+        /**
+         * 上线补推时单次 LPOP 取出的条数
+         */
+        private int drainBatchSize = 50;
+    }
+
+    @Data
+    public static class Sync {
+
+        /**
+         * 客户端未指定 page_size 时每个会话单页返回的条数
+         */
+        private int defaultPageSize = 100;
+
+        /**
+         * 单页条数上限，客户端请求更大时按此截断
+         */
+        private int maxPageSize = 500;
+
+        /**
+         * 单个 SYNC 请求最多处理的会话游标数，多出的原样返回并标记 has_more
+         */
+        private int maxCursorsPerRequest = 200;
+
+        /**
+         * 认证后至少等待 history.flush-interval 加上这段时间才执行 SYNC 查询，覆盖 write-behind 落库延迟与节点间时钟偏差
+         */
+        private Duration settleMargin = Duration.ofSeconds(1);
+
+        /**
+         * 认证后是否仍主动推送 Redis 离线队列 (兼容尚未发送 SYNC 的旧客户端，会与 SYNC 重复)
+         */
+        private boolean legacyOfflinePush = false;
+    }
+
+    @Data
+    public static class MessageId {
+
+        /**
+         * Snowflake workerId 租期，随节点心跳续约；超过租期未续约成功时停止生成ID
+         */
+        private Duration workerLeaseTtl = Duration.ofSeconds(60);
+
+        /**
+         * 每次从 Redis 领取的序号段大小
+         */
+        private int sequenceBlockSize = 100;
+
+        /**
+         * 本地缓存的号段数上限 (会话数 + 用户数)
+         */
+        private long sequenceCacheSize = 200_000;
+
+        /**
+         * 号段空闲多久后丢弃，未用完的部分成为序号空洞
+         */
+        private Duration sequenceIdleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Sanction {
+
+        /**
+         * 定期从数据库全量重建索引的间隔，作为丢失变更事件时的兜底
+         */
+        private Duration reloadInterval = Duration.ofMinutes(5);
+
+        /**
+         * 禁言到期清理所用时间轮的刻度
+         */
+        private Duration expiryTick = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class MemberCache {
+
+        /**
+         * 是否开启进程内成员缓存，关闭时每次读取 Redis / 数据库
+         */
+        private boolean enabled = true;
+
+        /**
+         * 所有会话合计最多缓存的成员数 (按成员数加权淘汰)
+         */
+        private long maximumMembers = 5_000_000;
+
+        /**
+         * 写入后的过期时间，作为丢失变更事件时的兜底
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Presence {
+
+        /**
+         * 节点名，为空时使用 本机IP:netty端口。实际节点ID为 节点名#进程启动时刻
+         */
+        private String nodeId;
+
+        /**
+         * 节点租约时长，超过该时长未续约的节点上的全部路由失效
+         */
+        private Duration leaseTtl = Duration.ofSeconds(15);
+
+        /**
+         * 续约间隔，应明显小于租约时长
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        /**
+         * 下线用户的路由解绑在本地聚合后批量写入 Redis 的间隔
+         */
+        private Duration removalFlushInterval = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class Relay {
+
+        /**
+         * 节点专属 Topic 前缀，完整名称为 前缀 + 节点ID (非法字符替换为 '_')
+         */
+        private String topicPrefix = "chat-node-";
+
+        /**
+         * 节点 Topic 分区数。记录以节点ID为 key，默认单分区保证节点内顺序
+         */
+        private int partitions = 1;
+
+        /**
+         * 节点 Topic 副本数
+         */
+        private short replicationFactor = 1;
+
+        /**
+         * 从 Nacos 刷新集群成员的间隔，发现节点离开后由存活节点中 ID 最小者回收其 Topic
+         */
+        private Duration membershipRefreshInterval = Duration.ofSeconds(5);
+
+        /**
+         * 批量消费时单次 poll 的最大记录数
+         */
+        private int maxPollRecords = 500;
+
+        /**
+         * 一批消息投递 (或转入离线队列) 的最长等待时间，超时后不提交位点，整批重新投递
+         */
+        private Duration batchTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 灰度期间与旧版本节点互通的广播 Topic (旧版本为 chat-messages)，为空时关闭。
+         * 开启后找不到新版本路由的单聊、以及全部群聊额外以 JSON (带类型头) 广播到该 Topic，
+         * 同时消费旧版本节点发出的消息推给本节点在线用户。全部节点升级后置空
+         */
+        private String legacyTopic;
+    }
+}
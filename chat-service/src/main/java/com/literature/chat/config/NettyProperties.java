@@ -0,0 +1,125 @@
+package com.literature.chat.config;
+
+import com.literature.chat.netty.NettyTransport;
+import com.literature.chat.netty.executor.OrderedTaskExecutor;
+import lombok.Data;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Netty 长连接层配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "netty")
+public class NettyProperties {
+
+    /**
+     * TCP 监听端口
+     */
+    private int port = 9090;
+
+    /**
+     * 传输模式: AUTO (优先 epoll, 否则 NIO) / EPOLL / IO_URING / NIO
+     */
+    private NettyTransport.Mode transport = NettyTransport.Mode.AUTO;
+
+    /**
+     * Acceptor 线程数。大于 1 时依赖 SO_REUSEPORT 在同一端口上多次 bind，仅 native 传输生效
+     */
+    private int acceptorThreads = 1;
+
+    /**
+     * IO 线程数，0 表示使用 Netty 默认值 (CPU * 2)
+     */
+    private int workerThreads = 0;
+
+    /**
+     * TCP_FASTOPEN 队列长度，0 表示关闭，仅 native 传输生效
+     */
+    private int tcpFastOpen = 0;
+
+    /**
+     * epoll 边缘触发模式 (EPOLLET)，关闭时使用水平触发
+     */
+    private boolean edgeTriggered = true;
+
+    /**
+     * flush 合并: 连续多少次 flush 后强制真正 flush 一次，0 表示关闭合并
+     */
+    private int flushConsolidationLimit = 256;
+
+    /**
+     * 不在读周期内的 flush (推送、扇出、离线补推) 是否也合并到当前 EventLoop 周期末尾
+     */
+    private boolean consolidateWhenNoReadInProgress = true;
+
+    /**
+     * 阻塞业务 (Redis、Kafka、离线补推) 的执行层
+     */
+    private BusinessExecutor businessExecutor = new BusinessExecutor();
+
+    /**
+     * 每连接出站队列 (背压)
+     */
+    private Outbound outbound = new Outbound();
+
+    /**
+     * 投递确认 (ACK) 与重传
+     */
+    private Delivery delivery = new Delivery();
+
+    @Data
+    public static class Delivery {
+
+        /**
+         * 每连接未确认消息上限，超过后视为客户端失去响应并断开 (未确认消息转入离线队列)
+         */
+        private int maxInFlight = 256;
+
+        /**
+         * 发出后多久未确认即重传
+         */
+        private Duration ackTimeout = Duration.ofSeconds(5);
+
+        /**
+         * 最大重传次数，仍未确认则断开连接
+         */
+        private int maxRetransmits = 3;
+
+        /**
+         * 重传时间轮的刻度
+         */
+        private Duration timerTick = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Outbound {
+
+        /**
+         * Channel 不可写时每连接最多缓存的消息数，超过后最早的一半溢出到 Redis 离线队列
+         */
+        private int maxQueueSize = 1024;
+
+        /**
+         * Channel 持续不可写超过该时长视为慢消费者并断开连接
+         */
+        private Duration slowConsumerTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class BusinessExecutor {
+
+        /**
+         * AUTO: JDK 21+ 使用虚拟线程，否则使用分片线程池 / VIRTUAL / STRIPED
+         */
+        private OrderedTaskExecutor.Mode mode = OrderedTaskExecutor.Mode.AUTO;
+
+        /**
+         * STRIPED 模式下的分片 (线程) 数
+         */
+        private int stripes = 16;
+    }
+}
@@ -77,6 +77,34 @@ public class ChatAdminController {
     return ApiResponse.success(result, request.getHeader("X-Trace-Id"));
   }
 
+  /**
+   * 添加会话成员
+   * POST /api/admin/chat/sessions/{sessionId}/members
+   */
+  @PostMapping("/sessions/{sessionId}/members")
+  public ApiResponse<Void> addMember(
+      @PathVariable Long sessionId,
+      @RequestParam String userId,
+      HttpServletRequest request) {
+
+    chatSessionService.addMember(sessionId, Long.parseLong(userId));
+    return ApiResponse.success(null, request.getHeader("X-Trace-Id"));
+  }
+
+  /**
+   * 移除会话成员
+   * DELETE /api/admin/chat/sessions/{sessionId}/members/{userId}
+   */
+  @DeleteMapping("/sessions/{sessionId}/members/{userId}")
+  public ApiResponse<Void> removeMember(
+      @PathVariable Long sessionId,
+      @PathVariable Long userId,
+      HttpServletRequest request) {
+
+    chatSessionService.removeMember(sessionId, userId);
+    return ApiResponse.success(null, request.getHeader("X-Trace-Id"));
+  }
+
   /**
    * 禁言用户
    * POST /api/admin/chat/sessions/{sessionId}/mute
@@ -1,11 +1,8 @@
 package com.literature.chat.controller;
 
-import com.literature.chat.entity.ChatMessageDoc;
-import com.literature.chat.repository.ChatMessageMongoRepository;
+import com.literature.chat.dto.ChatHistoryPageDTO;
+import com.literature.chat.service.ChatHistoryQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,16 +14,19 @@ import org.springframework.web.bind.annotation.RestController;
 public class ChatHistoryController {
 
     @Autowired
-    private ChatMessageMongoRepository messageRepository;
+    private ChatHistoryQueryService chatHistoryQueryService;
 
+    /**
+     * 会话历史，时间倒序
+     *
+     * @param before 上一页返回的 nextCursor 或毫秒时间戳 (不接受 seq)，首页不传；格式非法时由 GlobalExceptionHandler 返回 400
+     */
     @GetMapping("/session")
-    public ResponseEntity<Page<ChatMessageDoc>> getSessionHistory(
+    public ResponseEntity<ChatHistoryPageDTO> getSessionHistory(
             @RequestParam Long sessionId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
 
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
-        Page<ChatMessageDoc> history = messageRepository.findBySessionIdOrderByTimestampDesc(sessionId, pageRequest);
-        return ResponseEntity.ok(history);
+        return ResponseEntity.ok(chatHistoryQueryService.page(sessionId, before, limit));
     }
 }
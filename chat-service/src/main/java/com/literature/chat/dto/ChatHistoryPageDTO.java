@@ -0,0 +1,15 @@
+package com.literature.chat.dto;
+
+import com.literature.chat.entity.ChatMessageDoc;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 聊天历史的一页 (时间倒序)
+ */
+@Data
+public class ChatHistoryPageDTO {
+    private List<ChatMessageDoc> messages;
+    private String nextCursor; // 作为下一次请求的 before 传回; 为 null 表示没有更早的消息
+}
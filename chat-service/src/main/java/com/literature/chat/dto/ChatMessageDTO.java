@@ -4,7 +4,8 @@ import lombok.Data;
 
 @Data
 public class ChatMessageDTO {
-    private Long messageId;
+    private Long messageId; // Snowflake
+    private Long seq; // 会话内序号: 群聊按会话, 单聊按接收者
     private Long senderId;
     private Long targetUserId; // For single chat
     private Long sessionId; // For group chat
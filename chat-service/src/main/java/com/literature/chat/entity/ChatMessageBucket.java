@@ -0,0 +1,73 @@
+package com.literature.chat.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * 聊天历史桶文档 (MongoDB, chat.history.storage = BUCKET)
+ * <p>
+ * 一个会话在一个时间窗口内的消息 (最多 bucket-capacity 条) 合并为一个文档: 群聊按会话 (owner = sessionId)，
+ * 单聊按接收者收件箱 (owner = targetUserId)。整个集合只有一个复合索引，消息字段使用短字段名。
+ * 数组内的消息按写入顺序追加，读取时再按 (timestamp, id) 排序。
+ */
+@Data
+@Document(collection = "chat_message_buckets")
+@CompoundIndex(def = "{'owner': 1, 'type': 1, 'windowStart': -1}", name = "idx_owner_window")
+public class ChatMessageBucket {
+
+    @Id
+    private String id;
+
+    /**
+     * 群聊为会话ID，单聊为接收者ID
+     */
+    private Long owner;
+
+    /**
+     * 消息类型: 1-单聊, 2-群聊
+     */
+    private Integer type;
+
+    /**
+     * 时间窗口起点 (毫秒)
+     */
+    private Long windowStart;
+
+    private Integer count;
+
+    private Long firstTimestamp;
+
+    private Long lastTimestamp;
+
+    private List<Entry> messages;
+
+    @Data
+    public static class Entry {
+
+        /**
+         * 写入时分配的 ObjectId (十六进制)，与 MESSAGE 模式下的 _id 一致，用作同步游标和去重
+         */
+        @Field("i")
+        private String id;
+
+        @Field("m")
+        private Long messageId;
+
+        @Field("q")
+        private Long seq;
+
+        @Field("s")
+        private Long senderId;
+
+        @Field("c")
+        private String content;
+
+        @Field("t")
+        private Long timestamp;
+    }
+}
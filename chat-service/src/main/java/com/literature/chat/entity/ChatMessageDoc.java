@@ -3,6 +3,7 @@ package com.literature.chat.entity;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -14,22 +15,38 @@ import java.time.LocalDateTime;
  */
 @Data
 @Document(collection = "chat_messages")
-@CompoundIndex(def = "{'sessionId': 1, 'timestamp': -1}", name = "idx_session_timestamp")
+@CompoundIndexes({
+        // 历史翻页与 SYNC 都按 (timestamp, _id) 键集排序，_id 在索引中才能不做内存排序
+        @CompoundIndex(def = "{'sessionId': 1, 'timestamp': -1, '_id': -1}", name = "idx_session_timestamp_id"),
+        // 重连同步: 按接收者查单聊消息 (type = 1)
+        @CompoundIndex(def = "{'targetUserId': 1, 'type': 1, 'timestamp': 1, '_id': 1}", name = "idx_target_type_timestamp_id")
+})
 public class ChatMessageDoc {
 
     @Id
     private String id;
 
-    @Indexed
+    /**
+     * 消息ID (Snowflake)
+     */
+    private Long messageId;
+
+    /**
+     * 会话内序号 (群聊按会话，单聊按接收者)
+     */
+    private Long seq;
+
+    /**
+     * 由 idx_session_timestamp_id 的前缀覆盖，不再单独建索引
+     */
     private Long sessionId;
 
     @Indexed
     private Long senderId;
 
     /**
-     * 接收者ID (仅单聊有效，群聊为null或0)
+     * 接收者ID (仅单聊有效，群聊为null或0)；由 idx_target_type_timestamp_id 的前缀覆盖
      */
-    @Indexed
     private Long targetUserId;
 
     /**
@@ -49,6 +49,11 @@ public interface ChatBanMapper extends BaseMapper<ChatBan> {
      */
     List<ChatBan> selectActiveBansBySessionId(@Param("sessionId") Long sessionId);
 
+    /**
+     * 查询全部会话中有效的封禁记录 (节点启动时加载禁言 / 封禁索引)
+     */
+    List<ChatBan> selectAllActiveBans();
+
     /**
      * 统计某会话的有效封禁数
      */
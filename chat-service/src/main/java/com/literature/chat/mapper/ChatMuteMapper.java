@@ -22,6 +22,16 @@ public interface ChatMuteMapper extends BaseMapper<ChatMute> {
             @Param("userId") Long userId,
             @Param("now") LocalDateTime now);
 
+    /**
+     * 结束某会话中某用户的全部有效禁言 (截止时间改为 now)
+     *
+     * @return 结束的记录数
+     */
+    int endActiveMutes(
+            @Param("sessionId") Long sessionId,
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now);
+
     /**
      * 检查用户在某会话中是否被禁言
      */
@@ -37,6 +47,11 @@ public interface ChatMuteMapper extends BaseMapper<ChatMute> {
             @Param("sessionId") Long sessionId,
             @Param("now") LocalDateTime now);
 
+    /**
+     * 查询全部会话中有效的禁言记录 (节点启动时加载禁言 / 封禁索引)
+     */
+    List<ChatMute> selectAllActiveMutes(@Param("now") LocalDateTime now);
+
     /**
      * 统计某会话的有效禁言数
      */
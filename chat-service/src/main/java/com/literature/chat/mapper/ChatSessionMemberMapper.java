@@ -23,6 +23,11 @@ public interface ChatSessionMemberMapper extends BaseMapper<ChatSessionMember> {
      */
     List<Long> selectUserIdsBySessionId(@Param("sessionId") Long sessionId);
 
+    /**
+     * 查询用户加入的进行中群会话ID列表
+     */
+    List<Long> selectGroupSessionIdsByUserId(@Param("userId") Long userId);
+
     /**
      * 统计会话成员数
      */
@@ -1,20 +1,49 @@
 package com.literature.chat.mq;
 
+import com.literature.chat.config.ChatProperties;
 import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.executor.OrderedTaskExecutor;
 import com.literature.chat.netty.protocol.ChatPayload;
 import com.literature.chat.netty.protocol.CmdType;
 import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.push.MessageFanout;
+import com.literature.chat.netty.session.GroupChannelIndex;
 import com.literature.chat.netty.session.SessionManager;
+import com.literature.chat.service.OfflineMessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.netty.channel.Channel;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 节点间转发消费者
+ * <p>
+ * 批量消费本节点专属 Topic (见 {@link NodeMembershipService})：一次 poll 的记录按接收方分组
+ * (单聊按目标用户、群聊按会话)，各组提交到 {@link OrderedTaskExecutor} 并行投递，组内保持原有顺序。
+ * 投递阶段只 write，整批完成后每个涉及的 Channel 只 flush 一次。
+ * 监听方法等待全部分组投递或转入离线队列后才返回，位点随后按批提交；失败或超时则整批重投 (至少一次)。
+ */
 @Slf4j
 @Service
 public class ChatMessageConsumer {
@@ -22,69 +51,199 @@ public class ChatMessageConsumer {
     @Autowired
     private SessionManager sessionManager;
 
-    @Value("${netty.port:9090}")
-    private int port;
+    @Autowired
+    private GroupChannelIndex groupChannelIndex;
+
+    @Autowired
+    private MessageFanout messageFanout;
+
+    @Autowired
+    private OfflineMessageService offlineMessageService;
 
-    // Listen to the topic specific to this server instance
-    // Limitation: SpEL for dynamic topic names in @KafkaListener is tricky if
-    // server address changes.
-    // Fixed topic + filtering is easier but less efficient.
-    // Dynamic topic listening requires manual container setup.
-    // For this implementation, let's assume a fixed topic "chat-messages" and all
-    // servers listen,
-    // checking if the target user is local. This works for small clusters.
-    // But the Plan said "sendToServer".
-    // Let's refine: Use "chat-messages" globally. Consumer checks if user is local.
+    @Autowired
+    private OrderedTaskExecutor orderedTaskExecutor;
 
     @Autowired
-    private com.literature.chat.service.ChatSessionService chatSessionService;
+    private ChatProperties chatProperties;
+
+    private final AtomicLong consumerLag = new AtomicLong();
+    private final Counter consumedBytes;
+    private final Counter consumedRecords;
+    private final DistributionSummary batchSize;
+    private final Timer deliveryLatency;
+
+    public ChatMessageConsumer(MeterRegistry meterRegistry) {
+        this.consumedBytes = Counter.builder("chat.relay.consumed.bytes")
+                .description("Serialized bytes consumed from this node's relay topic")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.consumedRecords = meterRegistry.counter("chat.relay.consumed.records");
+        this.batchSize = DistributionSummary.builder("chat.relay.batch.size")
+                .description("Records handled per relay poll")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("chat.relay.delivery.latency")
+                .description("Time from a relay record being produced to its frames being flushed on this node")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chat.relay.consumer.lag", consumerLag, AtomicLong::get)
+                .description("Records behind the end of this node's relay topic after the last batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 只消费本节点专属 Topic。Topic 在节点启动时新建，从最早位点开始读，避免监听器就绪前写入的消息被跳过
+     */
+    @KafkaListener(topics = "#{@nodeMembershipService.localTopic}", groupId = "#{@nodeMembershipService.localTopic}",
+            containerFactory = "relayBatchListenerFactory",
+            properties = {"auto.offset.reset=earliest", "max.poll.records=${chat.relay.max-poll-records:500}"})
+    public void onMessages(List<ConsumerRecord<String, ChatMessageDTO>> records, Consumer<?, ?> consumer)
+            throws InterruptedException {
+        batchSize.record(records.size());
+        List<ChatMessageDTO> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, ChatMessageDTO> record : records) {
+            consumedRecords.increment();
+            consumedBytes.increment(Math.max(0, record.serializedValueSize()) + Math.max(0, record.serializedKeySize()));
+            if (record.value() != null) {
+                messages.add(record.value());
+            }
+        }
+        deliver(messages, true);
+
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, ChatMessageDTO> record : records) {
+            deliveryLatency.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+        }
+        long lag = 0;
+        for (TopicPartition partition : consumer.assignment()) {
+            lag += consumer.currentLag(partition).orElse(0);
+        }
+        consumerLag.set(lag);
+        log.debug("Relayed batch of {} records", records.size());
+    }
+
+    /**
+     * 灰度期间消费旧版本节点的广播 ({@code chat.relay.legacy-topic})，每个节点使用独立的消费组。
+     * 只推给本节点在线的接收方，不转离线队列 (旧版本发送方已自行处理离线)；新版本节点发出的记录已经过
+     * 节点专属 Topic 投递，带 {@link ChatMessageProducer#ORIGIN_HEADER}，跳过
+     */
+    @KafkaListener(topics = "${chat.relay.legacy-topic:chat-messages}",
+            groupId = "#{@nodeMembershipService.localTopic}-legacy",
+            autoStartup = "#{'${chat.relay.legacy-topic:}' != ''}",
+            containerFactory = "relayBatchListenerFactory",
+            properties = {"auto.offset.reset=latest"})
+    public void onLegacyMessages(List<ConsumerRecord<String, ChatMessageDTO>> records) throws InterruptedException {
+        List<ChatMessageDTO> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, ChatMessageDTO> record : records) {
+            if (record.value() != null && record.headers().lastHeader(ChatMessageProducer.ORIGIN_HEADER) == null) {
+                messages.add(record.value());
+            }
+        }
+        deliver(messages, false);
+    }
+
+    /**
+     * 按接收方分组并行投递，全部完成后每个涉及的 Channel flush 一次
+     *
+     * @param offlineFallback 单聊接收方已不在本节点时是否转入离线队列
+     */
+    private void deliver(List<ChatMessageDTO> messages, boolean offlineFallback) throws InterruptedException {
+        Map<Long, List<ChatMessageDTO>> byUser = new LinkedHashMap<>();
+        Map<Long, List<ChatMessageDTO>> bySession = new LinkedHashMap<>();
+        for (ChatMessageDTO message : messages) {
+            if (message.getType() == 2) { // Group Chat
+                bySession.computeIfAbsent(message.getSessionId(), k -> new ArrayList<>()).add(message);
+            } else { // Single Chat
+                byUser.computeIfAbsent(message.getTargetUserId(), k -> new ArrayList<>()).add(message);
+            }
+        }
+
+        Set<Channel> touched = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(byUser.size() + bySession.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (Map.Entry<Long, List<ChatMessageDTO>> entry : byUser.entrySet()) {
+            submit(entry.getKey(), done, failure,
+                    () -> deliverSingle(entry.getKey(), entry.getValue(), touched, offlineFallback));
+        }
+        for (Map.Entry<Long, List<ChatMessageDTO>> entry : bySession.entrySet()) {
+            submit(entry.getKey(), done, failure, () -> deliverGroup(entry.getKey(), entry.getValue(), touched));
+        }
+        if (!done.await(chatProperties.getRelay().getBatchTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Relay batch of " + messages.size() + " records not delivered in time");
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Relay batch delivery failed", failure.get());
+        }
+
+        for (Channel channel : touched) {
+            channel.flush();
+        }
+    }
 
-    @KafkaListener(topics = "chat-messages", groupId = "chat-service-group")
-    public void onMessage(ChatMessageDTO message) {
-        if (message.getType() == 2) { // Group Chat
-            handleGroupMessage(message);
-        } else { // Single Chat
-            handleSingleMessage(message);
+    private void submit(long key, CountDownLatch done, AtomicReference<Throwable> failure, Runnable delivery) {
+        try {
+            orderedTaskExecutor.execute(key, () -> {
+                try {
+                    delivery.run();
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    done.countDown();
+                }
+            });
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            done.countDown();
         }
     }
 
-    private void handleSingleMessage(ChatMessageDTO message) {
-        Long targetUserId = message.getTargetUserId();
-        pushToLocalUser(targetUserId, message);
+    private void deliverSingle(long targetUserId, List<ChatMessageDTO> messages, Set<Channel> touched,
+                               boolean offlineFallback) {
+        Channel[] channels = sessionManager.getChannels(targetUserId);
+        boolean delivered = false;
+        for (ChatMessageDTO message : messages) {
+            NettyMessage nettyMessage = NettyMessage.of(CmdType.SINGLE_CHAT_VALUE, toPayload(message));
+            // 同一条消息推给该用户的每台设备，编解码器不会修改 NettyMessage，可直接共享
+            for (Channel channel : channels) {
+                if (channel.isActive()) {
+                    channel.write(nettyMessage, channel.voidPromise());
+                    touched.add(channel);
+                    delivered = true;
+                }
+            }
+        }
+        if (!delivered && offlineFallback) {
+            // 路由查询之后用户已从本节点断开，转入离线队列等待重连补推
+            offlineMessageService.pushAllToOfflineQueue(targetUserId, messages);
+        }
     }
 
-    private void handleGroupMessage(ChatMessageDTO message) {
-        Long sessionId = message.getSessionId();
-        // Option A: Query DB for members (Heavy for large groups if every server does
-        // it)
-        // Optimization: Cache members in Redis (Planned for Phase 5 or 6).
-        // For now, query DB.
-        java.util.List<Long> memberIds = chatSessionService.getSessionMemberIds(sessionId);
-        for (Long memberId : memberIds) {
-            // Push to local user if online
-            pushToLocalUser(memberId, message);
+    private void deliverGroup(long sessionId, List<ChatMessageDTO> messages, Set<Channel> touched) {
+        // 只有有成员在线的节点会收到这条消息，倒排索引直接给出本节点的在线成员连接，与群总人数无关
+        Channel[] channels = groupChannelIndex.getChannels(sessionId);
+        if (channels.length == 0) {
+            return;
         }
+        List<Channel> targets = Arrays.asList(channels);
+        for (ChatMessageDTO message : messages) {
+            // Encode once, write the same frame to every local member
+            messageFanout.fanout(targets, (byte) CmdType.GROUP_CHAT_VALUE, toPayload(message), false);
+        }
+        touched.addAll(targets);
     }
 
-    private void pushToLocalUser(Long userId, ChatMessageDTO message) {
-        Channel channel = sessionManager.getChannel(userId);
-        if (channel != null && channel.isActive()) {
-            ChatPayload.Builder payloadBuilder = ChatPayload.newBuilder()
-                    .setSenderId(message.getSenderId())
-                    .setTargetId(message.getType() == 2 ? message.getSessionId() : message.getTargetUserId())
-                    .setContent(message.getContent())
-                    .setTimestamp(message.getTimestamp());
-
-            NettyMessage nettyMessage = new NettyMessage();
-            NettyMessage.Header header = new NettyMessage.Header();
-            header.setMagic((short) 0xCAFE);
-            header.setVersion((byte) 1);
-            header.setCmdType((byte) (message.getType() == 2 ? CmdType.GROUP_CHAT_VALUE : CmdType.SINGLE_CHAT_VALUE));
-            nettyMessage.setHeader(header);
-            nettyMessage.setBody(payloadBuilder.build());
-
-            channel.writeAndFlush(nettyMessage);
-            log.debug("Relayed message to user {}", userId);
+    private ChatPayload toPayload(ChatMessageDTO message) {
+        ChatPayload.Builder payload = ChatPayload.newBuilder()
+                .setSenderId(message.getSenderId())
+                .setTargetId(message.getType() == 2 ? message.getSessionId() : message.getTargetUserId())
+                .setContent(message.getContent())
+                .setTimestamp(message.getTimestamp());
+        if (message.getMessageId() != null) {
+            payload.setMessageId(message.getMessageId());
+        }
+        if (message.getSeq() != null) {
+            payload.setSeq(message.getSeq());
         }
+        return payload.build();
     }
 }
@@ -1,44 +1,105 @@
 package com.literature.chat.mq;
 
+import com.literature.chat.config.ChatProperties;
 import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.service.NodePresenceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 节点间消息转发
+ * <p>
+ * 消息写入目标节点的专属 Topic，以节点ID为 key，只有该节点消费。
+ * <p>
+ * 灰度期间 (配置了 {@code chat.relay.legacy-topic}) 旧版本节点仍只监听广播 Topic 并按 JSON 类型头反序列化，
+ * 新版本节点额外把它们可能持有接收方的消息以 JSON (带类型头) 广播过去，并以 {@link #ORIGIN_HEADER} 标记来源，
+ * 新版本节点消费广播时据此跳过自己发出的记录。
+ */
 @Slf4j
 @Service
 public class ChatMessageProducer {
 
+    /**
+     * 新版本节点写入广播 Topic 的记录带此头 (值为节点ID)
+     */
+    public static final String ORIGIN_HEADER = "chat-relay-origin";
+
     @Autowired
     private KafkaTemplate<String, ChatMessageDTO> kafkaTemplate;
 
-    public void sendToServer(String targetServer, ChatMessageDTO message) {
-        // Topic: chat-messages
-        // Key: targetServer (ensures messages for the same server go to the same
-        // partition if configured)
-        // Or simply use targetServer as a property to filter on consumer side if
-        // needed,
-        // but typically we broadcast or use specific topics.
-        // For simplicity in this phase, we might broadcast or use a topic per server?
-        // Better: Use a single topic and filter? No, that's inefficient.
-        // Standard approach:
-        // Option A: Topic per server (dynamic topics, can be messy).
-        // Option B: Single topic, consumer group per server? No, all servers need to
-        // hear?
-        // Wait, if users are on specific servers, we want to send ONLY to that server.
-        // Kafka partitioning by 'targetServer' means consumers must be assigned those
-        // partitions.
-        // This effectively implies static scaling or rebalancing.
-        // A simpler approach for dynamic scaling is "Broadcast" to all servers, and
-        // servers discard if user not local.
-        // OR: specific topic name like "chat-server-{ip}-{port}".
-
-        // Let's go with the Plan: "sendToServer".
-        // Broadcast to all servers, let them filter by local session
-        // In a real production system with massive scale, we would use specific topics
-        // or partitions.
-        kafkaTemplate.send("chat-messages", message);
-        log.info("Published message to chat-messages: {}", message);
+    @Autowired
+    private ProducerFactory<?, ?> producerFactory;
+
+    @Autowired
+    private NodeMembershipService nodeMembershipService;
+
+    @Autowired
+    private NodePresenceService nodePresenceService;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    private DefaultKafkaProducerFactory<String, ChatMessageDTO> legacyProducerFactory;
+    private KafkaTemplate<String, ChatMessageDTO> legacyTemplate;
+
+    @PostConstruct
+    public void init() {
+        String legacyTopic = chatProperties.getRelay().getLegacyTopic();
+        if (legacyTopic == null || legacyTopic.isBlank()) {
+            return;
+        }
+        // 旧版本的 JsonDeserializer 没有默认类型，依赖 JsonSerializer 写入的类型头
+        legacyProducerFactory = new DefaultKafkaProducerFactory<>(producerFactory.getConfigurationProperties(),
+                new StringSerializer(), new JsonSerializer<>());
+        legacyTemplate = new KafkaTemplate<>(legacyProducerFactory);
+        log.warn("Rolling upgrade bridge enabled: also publishing JSON relay records to {}", legacyTopic);
+    }
+
+    /**
+     * 转发到指定节点
+     *
+     * @param targetServer 节点ID (路由查询结果)
+     * @return 目标节点已不在集群中时返回 false，由调用方转入离线队列
+     */
+    public boolean sendToServer(String targetServer, ChatMessageDTO message) {
+        if (!nodeMembershipService.isMember(targetServer)) {
+            log.info("Node {} has left the cluster, message {} not relayed", targetServer, message.getMessageId());
+            return false;
+        }
+        kafkaTemplate.send(nodeMembershipService.topicOf(targetServer), targetServer, message);
+        log.debug("Relayed message {} to node {}", message.getMessageId(), targetServer);
+        return true;
+    }
+
+    /**
+     * 灰度期间广播给旧版本节点。未开启时什么也不做。
+     * 接收方可能同时从离线队列或 SYNC 收到同一条消息，客户端按 message_id 去重
+     */
+    public void publishToLegacy(ChatMessageDTO message) {
+        if (legacyTemplate == null) {
+            return;
+        }
+        ProducerRecord<String, ChatMessageDTO> record =
+                new ProducerRecord<>(chatProperties.getRelay().getLegacyTopic(), message);
+        record.headers().add(ORIGIN_HEADER, nodePresenceService.getNodeId().getBytes(StandardCharsets.UTF_8));
+        legacyTemplate.send(record);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (legacyProducerFactory != null) {
+            legacyProducerFactory.destroy();
+        }
     }
 }
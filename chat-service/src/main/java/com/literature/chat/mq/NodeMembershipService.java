@@ -0,0 +1,253 @@
+package com.literature.chat.mq;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.service.NodePresenceService;
+import com.literature.chat.service.OfflineMessageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 节点专属 Topic 与集群成员
+ * <p>
+ * 每个节点消费自己的 Topic ({@code chat.relay.topic-prefix} + 节点ID)，消费组与 Topic 同名，
+ * 发送方按路由查到的节点ID直接投递，消息只被目标节点消费一次，集群流量不随节点数放大。
+ * <p>
+ * 成员来自 Nacos 服务发现 (实例元数据 {@link #NODE_ID_METADATA})。扩容时新节点启动即创建自己的 Topic；
+ * 缩容或宕机时由存活节点中 ID 最小者接管离开节点的消费组，把未消费的单聊消息转入接收方离线队列后删除 Topic。
+ * 群聊消息已落历史，回收时直接跳过。
+ * <p>
+ * 节点ID带有进程 incarnation ({@link NodePresenceService})，重启后的节点不会与离开的旧进程同名。
+ * 离开的节点先记入待回收集合，每次刷新时复查: 重新出现在 Nacos 中则放弃回收，路由租约仍有效 (Nacos 抖动) 则等待租约到期，
+ * 回收失败的保留在集合中，下次刷新重试。
+ */
+@Slf4j
+@Service
+public class NodeMembershipService {
+
+    /**
+     * Nacos 实例元数据中的节点ID
+     */
+    public static final String NODE_ID_METADATA = "chat-node-id";
+
+    private static final Duration DRAIN_POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    @Autowired
+    private NodePresenceService nodePresenceService;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Autowired
+    private ConsumerFactory<?, ?> consumerFactory;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private NacosDiscoveryProperties nacosDiscoveryProperties;
+
+    @Autowired
+    private OfflineMessageService offlineMessageService;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    private String localTopic;
+    private volatile Set<String> members = Collections.emptySet();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 已离开、尚未回收 Topic 的节点，只在成员刷新线程上访问。非回收节点也保留，接任回收后继续处理
+     */
+    private final Set<String> pendingDrains = new TreeSet<>();
+
+    @PostConstruct
+    public void init() {
+        ChatProperties.Relay config = chatProperties.getRelay();
+        localTopic = topicOf(nodePresenceService.getNodeId());
+        kafkaAdmin.createOrModifyTopics(new NewTopic(localTopic, config.getPartitions(), config.getReplicationFactor()));
+        // 服务注册发生在 Web 容器启动之后，此时写入的元数据会随实例一起注册
+        nacosDiscoveryProperties.getMetadata().put(NODE_ID_METADATA, nodePresenceService.getNodeId());
+
+        // 回收离开节点的 Topic 可能耗时数秒，不能占用租约续约线程
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-node-membership");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getMembershipRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Chat node {} consumes relay topic {}", nodePresenceService.getNodeId(), localTopic);
+    }
+
+    /**
+     * 本节点消费的 Topic，同时作为消费组ID (供 {@code @KafkaListener} SpEL 引用)
+     */
+    public String getLocalTopic() {
+        return localTopic;
+    }
+
+    /**
+     * 节点ID对应的 Topic
+     */
+    public String topicOf(String nodeId) {
+        StringBuilder topic = new StringBuilder(chatProperties.getRelay().getTopicPrefix());
+        for (int i = 0; i < nodeId.length(); i++) {
+            char c = nodeId.charAt(i);
+            boolean legal = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-';
+            topic.append(legal ? c : '_');
+        }
+        return topic.toString();
+    }
+
+    /**
+     * 节点是否仍在集群中。尚未从 Nacos 取到成员 (启动初期或注册中心不可用) 时只依赖路由租约，视为在线
+     */
+    public boolean isMember(String nodeId) {
+        Set<String> current = members;
+        return current.isEmpty() || current.contains(nodeId);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh chat cluster membership", e);
+        }
+    }
+
+    private void refresh() {
+        TreeSet<String> current = new TreeSet<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(applicationName)) {
+            String nodeId = instance.getMetadata().get(NODE_ID_METADATA);
+            if (nodeId != null) {
+                current.add(nodeId);
+            }
+        }
+        if (current.isEmpty()) {
+            // 本节点尚未注册完成，保留上一次结果
+            return;
+        }
+        Set<String> previous = members;
+        members = Collections.unmodifiableSet(current);
+
+        Set<String> departed = new HashSet<>(previous);
+        departed.removeAll(current);
+        Set<String> joined = new HashSet<>(current);
+        joined.removeAll(previous);
+        if (!previous.isEmpty() && !joined.isEmpty()) {
+            log.info("Chat nodes joined: {}", joined);
+        }
+        if (!departed.isEmpty()) {
+            log.warn("Chat nodes left: {}", departed);
+            pendingDrains.addAll(departed);
+        }
+        // 重新出现的节点 (Nacos 抖动) 不再回收
+        pendingDrains.removeAll(current);
+        // 只由一个存活节点负责回收，避免重复写入离线队列
+        if (pendingDrains.isEmpty() || !nodePresenceService.getNodeId().equals(current.first())) {
+            return;
+        }
+        for (Iterator<String> it = pendingDrains.iterator(); it.hasNext(); ) {
+            String nodeId = it.next();
+            if (nodePresenceService.isLeaseActive(nodeId)) {
+                // 节点仍在续约，只是暂时从 Nacos 消失，等租约到期或重新注册
+                log.info("Chat node {} left Nacos but still holds its lease, deferring reclaim", nodeId);
+                continue;
+            }
+            try {
+                drain(nodeId);
+                it.remove();
+            } catch (Exception e) {
+                log.error("Failed to reclaim relay topic of departed node {}, will retry", nodeId, e);
+            }
+        }
+    }
+
+    /**
+     * 以离开节点的消费组读完其 Topic 中的剩余消息，单聊转入离线队列，然后删除 Topic。
+     * 任一步失败时抛出异常由调用方重试；已转入的消息位点已提交，重试不会重复写入离线队列
+     */
+    private void drain(String nodeId) {
+        String topic = topicOf(nodeId);
+        int drained = 0;
+        Properties overrides = new Properties();
+        // 离开节点可能从未提交过位点
+        overrides.setProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer(topic, "chat-drain", null, overrides)) {
+            // 直接分配全部分区，不参与消费组再均衡，已提交的位点仍按组ID读取
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null || infos.isEmpty()) {
+                log.info("Relay topic {} of departed node {} no longer exists", topic, nodeId);
+                return;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : infos) {
+                partitions.add(new TopicPartition(topic, partition.partition()));
+            }
+            consumer.assign(partitions);
+            ConsumerRecords<?, ?> records;
+            while (!(records = consumer.poll(DRAIN_POLL_TIMEOUT)).isEmpty()) {
+                for (ConsumerRecord<?, ?> record : records) {
+                    if (record.value() instanceof ChatMessageDTO message && message.getType() != 2) {
+                        offlineMessageService.pushToOfflineQueue(message.getTargetUserId(), message);
+                        drained++;
+                    }
+                }
+                consumer.commitSync();
+            }
+        }
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            admin.deleteTopics(List.of(topic)).all().get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting relay topic " + topic, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to delete relay topic " + topic + " of departed node " + nodeId, e);
+        }
+        log.info("Reclaimed relay topic {} of departed node {}, {} messages moved to offline queues",
+                topic, nodeId, drained);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.literature.chat.mq;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.RelayMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * 转发消息反序列化，同时兼容 Protobuf 与旧的 JSON 格式
+ * <p>
+ * JSON 记录总是以 '{' (0x7B) 开头；RelayMessage 的第一个字节是字段 1 或 2 的 tag (0x08 / 0x12)，二者不会混淆。
+ * JSON 按固定类型解析，不再依赖类型头，也不需要信任任意包名。
+ */
+public class RelayMessageDeserializer implements Deserializer<ChatMessageDTO> {
+
+    private final JsonDeserializer<ChatMessageDTO> json = new JsonDeserializer<>(ChatMessageDTO.class, false);
+
+    @Override
+    public ChatMessageDTO deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] == '{') {
+            return json.deserialize(topic, data);
+        }
+        try {
+            return fromRelayMessage(RelayMessage.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            throw new SerializationException("Malformed relay message on topic " + topic, e);
+        }
+    }
+
+    public static ChatMessageDTO fromRelayMessage(RelayMessage relay) {
+        ChatPayload payload = relay.getPayload();
+        ChatMessageDTO message = new ChatMessageDTO();
+        message.setMessageId(relay.getMessageId());
+        message.setSenderId(payload.getSenderId());
+        message.setType(payload.getCmd() == CmdType.GROUP_CHAT ? 2 : 1);
+        // proto3 没有 null，未设置的 id 还原为 null 与 JSON 格式保持一致
+        message.setTargetUserId(payload.getTargetId() == 0 ? null : payload.getTargetId());
+        message.setSessionId(payload.getSessionId() == 0 ? null : payload.getSessionId());
+        message.setContent(payload.getContent());
+        message.setTimestamp(payload.getTimestamp());
+        message.setSeq(payload.getSeq() == 0 ? null : payload.getSeq());
+        return message;
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
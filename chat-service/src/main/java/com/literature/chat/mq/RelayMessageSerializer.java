@@ -0,0 +1,52 @@
+package com.literature.chat.mq;
+
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.RelayMessage;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * 转发消息序列化: ChatMessageDTO -> RelayMessage (Protobuf)
+ * <p>
+ * 节点专属 Topic 只由新版本节点读写，始终使用 Protobuf。与旧版本节点互通 (灰度期间) 走
+ * {@link ChatMessageProducer#publishToLegacy} 的 JSON 广播，见 {@code chat.relay.legacy-topic}。
+ */
+public class RelayMessageSerializer implements Serializer<ChatMessageDTO> {
+
+    @Override
+    public byte[] serialize(String topic, ChatMessageDTO message) {
+        if (message == null) {
+            return null;
+        }
+        return toRelayMessage(message).toByteArray();
+    }
+
+    public static RelayMessage toRelayMessage(ChatMessageDTO message) {
+        ChatPayload.Builder payload = ChatPayload.newBuilder()
+                .setCmd(message.getType() != null && message.getType() == 2 ? CmdType.GROUP_CHAT : CmdType.SINGLE_CHAT);
+        if (message.getSenderId() != null) {
+            payload.setSenderId(message.getSenderId());
+        }
+        if (message.getTargetUserId() != null) {
+            payload.setTargetId(message.getTargetUserId());
+        }
+        if (message.getSessionId() != null) {
+            payload.setSessionId(message.getSessionId());
+        }
+        if (message.getContent() != null) {
+            payload.setContent(message.getContent());
+        }
+        if (message.getTimestamp() != null) {
+            payload.setTimestamp(message.getTimestamp());
+        }
+        if (message.getSeq() != null) {
+            payload.setSeq(message.getSeq());
+        }
+        RelayMessage.Builder relay = RelayMessage.newBuilder().setPayload(payload);
+        if (message.getMessageId() != null) {
+            relay.setMessageId(message.getMessageId());
+        }
+        return relay.build();
+    }
+}
@@ -1,19 +1,15 @@
 package com.literature.chat.netty;
 
+import com.literature.chat.config.NettyProperties;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.util.concurrent.DefaultEventExecutorGroup;
-import io.netty.util.concurrent.EventExecutorGroup;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -23,28 +19,28 @@ import org.springframework.stereotype.Component;
 @Component
 public class NettyServer {
 
-    private final EventLoopGroup bossGroup = new NioEventLoopGroup(1);
-    private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
 
-    // 业务线程池，用于处理耗时业务逻辑
-    private final EventExecutorGroup businessGroup = new DefaultEventExecutorGroup(16);
-
-    @Value("${netty.port:9090}")
-    private int port;
+    @Autowired
+    private NettyProperties nettyProperties;
 
     @Autowired
     private NettyServerInitializer nettyServerInitializer;
 
     @PostConstruct
     public void start() {
+        NettyTransport transport = NettyTransport.resolve(nettyProperties.getTransport());
+        // SO_REUSEPORT 下每次 bind 都会得到独立的监听 socket，由内核在多个 acceptor 间分摊新连接
+        int acceptors = transport.supportsReusePort() ? Math.max(1, nettyProperties.getAcceptorThreads()) : 1;
+        bossGroup = transport.newEventLoopGroup(acceptors);
+        workerGroup = transport.newEventLoopGroup(nettyProperties.getWorkerThreads());
+
         new Thread(() -> {
             try {
-                // 注入业务线程池
-                nettyServerInitializer.setBusinessGroup(businessGroup);
-
                 ServerBootstrap bootstrap = new ServerBootstrap()
                         .group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel.class)
+                        .channel(transport.serverChannelClass())
                         .option(ChannelOption.SO_BACKLOG, 10240) // Increased backlog for high burst
                         .option(ChannelOption.SO_REUSEADDR, true)
                         .childOption(ChannelOption.SO_KEEPALIVE, true)
@@ -53,9 +49,14 @@ public class NettyServer {
                         .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
                                 new io.netty.channel.WriteBufferWaterMark(32 * 1024, 64 * 1024)) // Prevent OOM
                         .childHandler(nettyServerInitializer);
+                transport.configure(bootstrap, nettyProperties);
 
+                int port = nettyProperties.getPort();
                 ChannelFuture future = bootstrap.bind(port).sync();
-                log.info("Netty server started on port {}", port);
+                for (int i = 1; i < acceptors; i++) {
+                    bootstrap.bind(port).sync();
+                }
+                log.info("Netty server started on port {} with {} transport ({} acceptors)", port, transport, acceptors);
                 future.channel().closeFuture().sync();
             } catch (InterruptedException e) {
                 log.error("Netty server interrupted", e);
@@ -69,13 +70,12 @@ public class NettyServer {
     @PreDestroy
     public void stop() {
         log.info("Stopping Netty server...");
-        bossGroup.shutdownGracefully();
-        workerGroup.shutdownGracefully();
-        businessGroup.shutdownGracefully();
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully();
+        }
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully();
+        }
         log.info("Netty server stopped");
     }
-
-    public EventExecutorGroup getBusinessGroup() {
-        return businessGroup;
-    }
 }
@@ -1,5 +1,6 @@
 package com.literature.chat.netty;
 
+import com.literature.chat.config.NettyProperties;
 import com.literature.chat.netty.codec.ChatProtocolDecoder;
 import com.literature.chat.netty.codec.ChatProtocolEncoder;
 import com.literature.chat.netty.handler.AuthHandler;
@@ -7,13 +8,15 @@ import com.literature.chat.netty.handler.ChatMessageHandler;
 import com.literature.chat.netty.codec.crypto.ChatCryptoCodec;
 import com.literature.chat.netty.handler.ExceptionHandler;
 import com.literature.chat.netty.handler.HeartbeatHandler;
+import com.literature.chat.netty.push.DeliveryAckManager;
+import com.literature.chat.netty.push.OutboundQueueManager;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
 
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.IdleStateHandler;
-import io.netty.util.concurrent.EventExecutorGroup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -37,22 +40,25 @@ public class NettyServerInitializer extends ChannelInitializer<SocketChannel> {
     @Autowired
     private ChatCryptoCodec chatCryptoCodec;
 
-    private EventExecutorGroup businessGroup;
-
+    @Autowired
+    private OutboundQueueManager outboundQueueManager;
 
-    public void setBusinessGroup(EventExecutorGroup businessGroup) {
-        this.businessGroup = businessGroup;
-    }
+    @Autowired
+    private DeliveryAckManager deliveryAckManager;
 
     @Autowired
-    public NettyServerInitializer() {
-        // Spring 自动注入其他依赖，businessGroup 将通过 setter 方法设置
-    }
+    private NettyProperties nettyProperties;
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
         ChannelPipeline pipeline = ch.pipeline();
 
+        // 0. flush 合并: 同一 EventLoop 周期内对该连接的多次 flush 只触发一次 write 系统调用
+        if (nettyProperties.getFlushConsolidationLimit() > 0) {
+            pipeline.addLast(new FlushConsolidationHandler(nettyProperties.getFlushConsolidationLimit(),
+                    nettyProperties.isConsolidateWhenNoReadInProgress()));
+        }
+
         // 1. 解决粘包半包 (maxFrameLength: 10MB)
         pipeline.addLast(new LengthFieldBasedFrameDecoder(10 * 1024 * 1024, 13, 4, 0, 0));
 
@@ -60,20 +66,19 @@ public class NettyServerInitializer extends ChannelInitializer<SocketChannel> {
         pipeline.addLast(new ChatProtocolDecoder());
         pipeline.addLast(new ChatProtocolEncoder());
         pipeline.addLast(chatCryptoCodec);
+        // 出站背压: 位于加密之前，积压的仍是明文消息，溢出时可直接转存离线队列
+        pipeline.addLast(outboundQueueManager.newHandler());
+        // 投递确认窗口: 位于出站队列之后 (更靠近业务)，登记的是业务写出的消息，重传从这里向下写
+        pipeline.addLast(deliveryAckManager.newHandler());
 
         // 3. 心跳检测 (读空闲 60秒)
 
         pipeline.addLast(new IdleStateHandler(60, 0, 0, TimeUnit.SECONDS));
         pipeline.addLast(new HeartbeatHandler()); // 每次 new 一个，或者 HeartbeatHandler 加 @Sharable
 
-        // 4. 业务处理器 (使用业务线程池)
-        if (businessGroup != null) {
-            pipeline.addLast(businessGroup, authHandler);
-            pipeline.addLast(businessGroup, chatMessageHandler);
-        } else {
-            pipeline.addLast(authHandler);
-            pipeline.addLast(chatMessageHandler);
-        }
+        // 4. 业务处理器: 在 EventLoop 上分发，阻塞调用交给 OrderedTaskExecutor 按用户 / 会话保序执行
+        pipeline.addLast(authHandler);
+        pipeline.addLast(chatMessageHandler);
 
         pipeline.addLast(exceptionHandler);
     }
@@ -0,0 +1,169 @@
+package com.literature.chat.netty;
+
+import com.literature.chat.config.NettyProperties;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Netty 传输
+ * <p>
+ * native 传输 (epoll / io_uring) 绕开 JDK Selector 及其 SelectionKey 包装对象，
+ * 并支持 SO_REUSEPORT、TCP_FASTOPEN 等 Linux 专有选项。
+ * 配置使用 {@link Mode}，经 {@link #resolve} 得到具体传输，AUTO 不会出现在本枚举中。
+ */
+@Slf4j
+public enum NettyTransport {
+
+    NIO {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+    },
+
+    EPOLL {
+        @Override
+        public boolean isAvailable() {
+            return Epoll.isAvailable();
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+
+        @Override
+        public void configure(ServerBootstrap bootstrap, NettyProperties properties) {
+            EpollMode mode = properties.isEdgeTriggered() ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED;
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, properties.getAcceptorThreads() > 1)
+                    .option(EpollChannelOption.EPOLL_MODE, mode)
+                    .childOption(EpollChannelOption.EPOLL_MODE, mode);
+            if (properties.getTcpFastOpen() > 0) {
+                bootstrap.option(ChannelOption.TCP_FASTOPEN, properties.getTcpFastOpen());
+            }
+        }
+    },
+
+    IO_URING {
+        @Override
+        public boolean isAvailable() {
+            return IOUring.isAvailable();
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new IOUringEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> serverChannelClass() {
+            return IOUringServerSocketChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+
+        @Override
+        public void configure(ServerBootstrap bootstrap, NettyProperties properties) {
+            bootstrap.option(IOUringChannelOption.SO_REUSEPORT, properties.getAcceptorThreads() > 1);
+            if (properties.getTcpFastOpen() > 0) {
+                bootstrap.option(ChannelOption.TCP_FASTOPEN, properties.getTcpFastOpen());
+            }
+        }
+    };
+
+    /**
+     * 配置的传输模式
+     */
+    public enum Mode {
+        /**
+         * 自动选择: epoll 可用时使用 epoll，否则回退到 NIO
+         */
+        AUTO, NIO, EPOLL, IO_URING
+    }
+
+    public abstract boolean isAvailable();
+
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+    public abstract Class<? extends ServerChannel> serverChannelClass();
+
+    /**
+     * 是否支持 SO_REUSEPORT (多个 acceptor 绑定同一端口)
+     */
+    public boolean supportsReusePort() {
+        return false;
+    }
+
+    /**
+     * 设置传输专有的 ServerChannel / 子 Channel 选项
+     */
+    public void configure(ServerBootstrap bootstrap, NettyProperties properties) {
+    }
+
+    /**
+     * 将配置的模式解析为当前平台可用的传输。
+     * io_uring 需显式开启，不可用时回退到 epoll，再回退到 NIO。
+     */
+    public static NettyTransport resolve(Mode mode) {
+        NettyTransport requested = switch (mode == null ? Mode.AUTO : mode) {
+            case AUTO -> EPOLL.isAvailable() ? EPOLL : NIO;
+            case NIO -> NIO;
+            case EPOLL -> EPOLL;
+            case IO_URING -> IO_URING;
+        };
+        if (requested.isAvailable()) {
+            return requested;
+        }
+        NettyTransport fallback = requested == IO_URING && EPOLL.isAvailable() ? EPOLL : NIO;
+        log.warn("Netty transport {} is unavailable on this platform, falling back to {}: {}",
+                requested, fallback, unavailabilityCause(requested));
+        return fallback;
+    }
+
+    private static Throwable unavailabilityCause(NettyTransport transport) {
+        if (transport == EPOLL) {
+            return Epoll.unavailabilityCause();
+        }
+        if (transport == IO_URING) {
+            return IOUring.unavailabilityCause();
+        }
+        return null;
+    }
+}
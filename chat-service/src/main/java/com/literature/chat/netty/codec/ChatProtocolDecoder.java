@@ -1,74 +1,90 @@
 package com.literature.chat.netty.codec;
 
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Parser;
 import com.literature.chat.netty.protocol.AuthPayload;
-import com.literature.chat.netty.protocol.AuthResponse;
 import com.literature.chat.netty.protocol.ChatPayload;
 import com.literature.chat.netty.protocol.CmdType;
 import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.protocol.SyncRequest;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
  * 协议解码器
+ * <p>
+ * 前置的 LengthFieldBasedFrameDecoder 已保证输入是一个完整帧，这里不再做长度校验；
+ * 协议头通过 {@link FrameHeader} 按偏移量读取，Protobuf 消息体直接从池化 ByteBuf
+ * 的 NIO 视图解析，不复制到堆上的 byte[]。
+ * 心跳帧不分配对象，向下游传递共享的只读 {@link NettyMessage#HEARTBEAT}: 仍然经过 IdleStateHandler 刷新读空闲，
+ * 认证前的心跳仍由 AuthHandler 拒绝。
  */
-public class ChatProtocolDecoder extends ByteToMessageDecoder {
+public class ChatProtocolDecoder extends MessageToMessageDecoder<ByteBuf> {
 
-    private static final int HEADER_LENGTH = 17;
-    private static final short MAGIC = (short) 0xCAFE;
+    private final FrameHeader header = new FrameHeader();
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        if (in.readableBytes() < HEADER_LENGTH) {
-            return;
-        }
+    protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws Exception {
+        header.wrap(frame);
+        try {
+            if (header.magic() != FrameHeader.MAGIC) {
+                throw new CorruptedFrameException("Magic number mismatch");
+            }
 
-        in.markReaderIndex();
+            byte cmdType = header.cmdType();
+            if (cmdType == CmdType.HEARTBEAT_VALUE) {
+                out.add(NettyMessage.HEARTBEAT);
+                return;
+            }
 
-        short magic = in.readShort();
-        if (magic != MAGIC) {
-            in.resetReaderIndex();
-            throw new RuntimeException("Magic number mismatch");
-        }
+            int length = header.length();
+            NettyMessage message = new NettyMessage();
+            NettyMessage.Header messageHeader = new NettyMessage.Header();
+            messageHeader.setMagic(FrameHeader.MAGIC);
+            messageHeader.setVersion(header.version());
+            messageHeader.setSerial(header.serial());
+            messageHeader.setCmdType(cmdType);
+            messageHeader.setReqId(header.reqId());
+            messageHeader.setLength(length);
+            message.setHeader(messageHeader);
 
-        byte version = in.readByte();
-        byte serial = in.readByte();
-        byte cmdType = in.readByte();
-        long reqId = in.readLong();
-        int length = in.readInt();
+            // 根据 CmdType 反序列化 Body
+            if (length > 0) {
+                if (cmdType == CmdType.AUTH_VALUE) {
+                    message.setBody(parse(AuthPayload.parser(), frame, header.bodyIndex(), length));
+                } else if (cmdType == CmdType.SINGLE_CHAT_VALUE || cmdType == CmdType.GROUP_CHAT_VALUE
+                        || cmdType == CmdType.ACK_VALUE || cmdType == CmdType.ERROR_VALUE) {
+                    message.setBody(parse(ChatPayload.parser(), frame, header.bodyIndex(), length));
+                } else if (cmdType == CmdType.SYNC_VALUE) {
+                    message.setBody(parse(SyncRequest.parser(), frame, header.bodyIndex(), length));
+                }
+            }
 
-        if (in.readableBytes() < length) {
-            in.resetReaderIndex();
-            return;
+            out.add(message);
+        } finally {
+            header.clear();
         }
+    }
 
-        byte[] bytes = new byte[length];
-        in.readBytes(bytes);
-
-        NettyMessage message = new NettyMessage();
-        NettyMessage.Header header = new NettyMessage.Header();
-        header.setMagic(magic);
-        header.setVersion(version);
-        header.setSerial(serial);
-        header.setCmdType(cmdType);
-        header.setReqId(reqId);
-        header.setLength(length);
-        message.setHeader(header);
-
-        // 根据 CmdType 反序列化 Body
-        if (length > 0) {
-            if (cmdType == CmdType.AUTH_VALUE) {
-                message.setBody(AuthPayload.parseFrom(bytes));
-            } else if (cmdType == CmdType.SINGLE_CHAT_VALUE || cmdType == CmdType.GROUP_CHAT_VALUE
-                    || cmdType == CmdType.ACK_VALUE || cmdType == CmdType.ERROR_VALUE) {
-                message.setBody(ChatPayload.parseFrom(bytes));
-            } else if (cmdType == CmdType.HEARTBEAT_VALUE) {
-                // 心跳无 Body
-            }
+    private static <T> T parse(Parser<T> parser, ByteBuf frame, int index, int length)
+            throws InvalidProtocolBufferException {
+        if (frame.nioBufferCount() == 1) {
+            // 单段缓冲 (池化 direct buffer 的常见情况): 直接在共享内存视图上解析
+            return parser.parseFrom(frame.nioBuffer(index, length));
+        }
+        // CompositeByteBuf 等多段缓冲: 以流方式读取，同样不做整帧拷贝
+        try (ByteBufInputStream in = new ByteBufInputStream(frame.slice(index, length))) {
+            return parser.parseFrom(in);
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
         }
-
-        out.add(message);
     }
 }
@@ -1,36 +1,91 @@
 package com.literature.chat.netty.codec;
 
 import com.literature.chat.netty.protocol.NettyMessage;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
 
+import java.io.IOException;
+
 /**
  * 协议编码器
+ * <p>
+ * 按 {@code getSerializedSize()} 预先算出帧长度并一次性分配池化 direct buffer，
+ * Protobuf 通过 CodedOutputStream 直接序列化进该 buffer 的 NIO 视图，避免
+ * {@code toByteArray()} 的中间数组和二次拷贝。
  */
 public class ChatProtocolEncoder extends MessageToByteEncoder<NettyMessage> {
 
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, NettyMessage msg, boolean preferDirect) {
+        // getSerializedSize() 在生成的消息中会被缓存，encode 时再次调用没有额外开销
+        int frameLength = FrameHeader.HEADER_LENGTH + bodySize(body(msg));
+        return preferDirect ? ctx.alloc().ioBuffer(frameLength) : ctx.alloc().heapBuffer(frameLength);
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, NettyMessage msg, ByteBuf out) throws Exception {
         NettyMessage.Header header = msg.getHeader();
+        writeFrame(out, header.getMagic(), header.getVersion(), header.getSerial(), header.getCmdType(),
+                header.getReqId(), body(msg));
+    }
 
-        out.writeShort(header.getMagic());
-        out.writeByte(header.getVersion());
-        out.writeByte(header.getSerial());
-        out.writeByte(header.getCmdType());
-        out.writeLong(header.getReqId());
-
-        byte[] bytes = null;
-        if (msg.getBody() != null && msg.getBody() instanceof MessageLite) {
-            bytes = ((MessageLite) msg.getBody()).toByteArray();
+    /**
+     * 预先编码一个完整帧，供"一次编码、多次写出"的场景使用。
+     * 返回的 ByteBuf 归调用方所有，写给多个 Channel 时应使用 {@code retainedDuplicate()}，
+     * 由于它不是 NettyMessage，写出时会直接越过本编码器。
+     */
+    public static ByteBuf encodeFrame(ByteBufAllocator alloc, byte cmdType, long reqId, MessageLite body) {
+        ByteBuf frame = alloc.directBuffer(FrameHeader.HEADER_LENGTH + bodySize(body));
+        try {
+            writeFrame(frame, FrameHeader.MAGIC, (byte) 1, (byte) 1, cmdType, reqId, body);
+            return frame;
+        } catch (IOException | RuntimeException e) {
+            frame.release();
+            throw new EncoderException(e);
         }
+    }
+
+    /**
+     * 将一个完整帧写入 {@code out}: 协议头按绝对偏移一次写完，随后序列化消息体
+     */
+    public static void writeFrame(ByteBuf out, short magic, byte version, byte serial, byte cmdType, long reqId,
+                                  MessageLite body) throws IOException {
+        int bodySize = bodySize(body);
+        out.ensureWritable(FrameHeader.HEADER_LENGTH + bodySize);
 
-        int length = bytes == null ? 0 : bytes.length;
-        out.writeInt(length);
+        int index = out.writerIndex();
+        out.setShort(index + FrameHeader.MAGIC_OFFSET, magic);
+        out.setByte(index + FrameHeader.VERSION_OFFSET, version);
+        out.setByte(index + FrameHeader.SERIAL_OFFSET, serial);
+        out.setByte(index + FrameHeader.CMD_OFFSET, cmdType);
+        out.setLong(index + FrameHeader.REQ_ID_OFFSET, reqId);
+        out.setInt(index + FrameHeader.LENGTH_OFFSET, bodySize);
+        int bodyIndex = index + FrameHeader.HEADER_LENGTH;
 
-        if (bytes != null) {
-            out.writeBytes(bytes);
+        if (bodySize > 0) {
+            if (out.nioBufferCount() == 1) {
+                CodedOutputStream output = CodedOutputStream.newInstance(out.nioBuffer(bodyIndex, bodySize));
+                body.writeTo(output);
+                output.flush();
+            } else {
+                out.writerIndex(bodyIndex);
+                body.writeTo(new ByteBufOutputStream(out));
+            }
         }
+        out.writerIndex(bodyIndex + bodySize);
+    }
+
+    private static MessageLite body(NettyMessage msg) {
+        return msg.getBody() instanceof MessageLite ? (MessageLite) msg.getBody() : null;
+    }
+
+    private static int bodySize(MessageLite body) {
+        return body == null ? 0 : body.getSerializedSize();
     }
 }
@@ -0,0 +1,67 @@
+package com.literature.chat.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 协议头 Flyweight
+ * <p>
+ * Magic(2) + Version(1) + Serial(1) + Cmd(1) + ReqId(8) + Length(4)，
+ * 按绝对偏移量直接读取帧内字段，不移动 readerIndex、不复制字节。
+ * 实例不是线程安全的，每个解码器 (即每个 Channel) 持有一个并反复 wrap。
+ */
+public final class FrameHeader {
+
+    public static final int HEADER_LENGTH = 17;
+    public static final short MAGIC = (short) 0xCAFE;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 2;
+    static final int SERIAL_OFFSET = 3;
+    static final int CMD_OFFSET = 4;
+    static final int REQ_ID_OFFSET = 5;
+    static final int LENGTH_OFFSET = 13;
+
+    private ByteBuf frame;
+    private int base;
+
+    public FrameHeader wrap(ByteBuf frame) {
+        this.frame = frame;
+        this.base = frame.readerIndex();
+        return this;
+    }
+
+    public void clear() {
+        this.frame = null;
+    }
+
+    public short magic() {
+        return frame.getShort(base + MAGIC_OFFSET);
+    }
+
+    public byte version() {
+        return frame.getByte(base + VERSION_OFFSET);
+    }
+
+    public byte serial() {
+        return frame.getByte(base + SERIAL_OFFSET);
+    }
+
+    public byte cmdType() {
+        return frame.getByte(base + CMD_OFFSET);
+    }
+
+    public long reqId() {
+        return frame.getLong(base + REQ_ID_OFFSET);
+    }
+
+    public int length() {
+        return frame.getInt(base + LENGTH_OFFSET);
+    }
+
+    /**
+     * 消息体在帧中的绝对偏移量
+     */
+    public int bodyIndex() {
+        return base + HEADER_LENGTH;
+    }
+}
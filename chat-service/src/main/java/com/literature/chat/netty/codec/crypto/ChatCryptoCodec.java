@@ -1,22 +1,40 @@
 package com.literature.chat.netty.codec.crypto;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.NettyMessage;
 import com.literature.crypto.autoconfigure.CryptoProperties;
 import com.literature.crypto.core.AesGcmCrypto;
 import com.literature.crypto.core.KeyGenerator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.util.AttributeKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.List;
 import javax.crypto.SecretKey;
 import org.springframework.stereotype.Component;
 
+/**
+ * 聊天内容加解密
+ * <p>
+ * 下行只对 AUTH 阶段协商出连接级会话密钥 ({@link #SESSION_KEY}) 的连接加密，其余连接照旧下发明文
+ * (现有客户端不解密全局密钥下的 enc_content)。上行带 encrypted 标记的消息优先用会话密钥解密，未协商时使用由
+ * 配置 salt 派生的全局密钥。PBKDF2 派生代价很高，派生结果按 salt 缓存，salt 变化时才重新派生。
+ */
 @Component
-public class ChatCryptoCodec extends MessageToMessageCodec<ChatPayload, ChatPayload> {
+@ChannelHandler.Sharable
+public class ChatCryptoCodec extends MessageToMessageCodec<NettyMessage, NettyMessage> {
+  public static final AttributeKey<SecretKey> SESSION_KEY = AttributeKey.valueOf("chat.crypto.sessionKey");
+
   private final CryptoProperties properties;
   private final AesGcmCrypto aesGcmCrypto;
   private final KeyGenerator keyGenerator;
+  private volatile DerivedKey derivedKey;
 
   public ChatCryptoCodec(CryptoProperties properties, AesGcmCrypto aesGcmCrypto, KeyGenerator keyGenerator) {
     this.properties = properties;
@@ -25,51 +43,108 @@ public class ChatCryptoCodec extends MessageToMessageCodec<ChatPayload, ChatPayl
   }
 
   @Override
-  protected void encode(ChannelHandlerContext ctx, ChatPayload msg, List<Object> out) {
-    if (!properties.getNetty().isEnabled()) {
+  protected void encode(ChannelHandlerContext ctx, NettyMessage msg, List<Object> out) {
+    if (!(msg.getBody() instanceof ChatPayload)) {
       out.add(msg);
       return;
     }
-    if (msg.getContent().isEmpty()) {
+    SecretKey sessionKey = ctx.channel().attr(SESSION_KEY).get();
+    if (sessionKey == null) {
       out.add(msg);
       return;
     }
-    SecretKey key = deriveKey();
-    byte[] encrypted = aesGcmCrypto.encrypt(msg.getContent().getBytes(StandardCharsets.UTF_8), key);
-    ChatPayload encryptedPayload = ChatPayload.newBuilder(msg)
-        .setEncrypted(true)
-        .setEncContent(com.google.protobuf.ByteString.copyFrom(encrypted))
-        .setContent("")
-        .build();
-    out.add(encryptedPayload);
+    ChatPayload payload = (ChatPayload) msg.getBody();
+    if (payload.getContent().isEmpty()) {
+      out.add(msg);
+      return;
+    }
+    NettyMessage encrypted = new NettyMessage();
+    encrypted.setHeader(msg.getHeader());
+    encrypted.setBody(encrypt(payload, sessionKey));
+    out.add(encrypted);
   }
 
   @Override
-  protected void decode(ChannelHandlerContext ctx, ChatPayload msg, List<Object> out) {
-    if (!properties.getNetty().isEnabled()) {
+  protected void decode(ChannelHandlerContext ctx, NettyMessage msg, List<Object> out) {
+    if (!(msg.getBody() instanceof ChatPayload) || !((ChatPayload) msg.getBody()).getEncrypted()) {
       out.add(msg);
       return;
     }
-    if (!msg.getEncrypted()) {
+    SecretKey sessionKey = ctx.channel().attr(SESSION_KEY).get();
+    if (sessionKey == null && !properties.getNetty().isEnabled()) {
       out.add(msg);
       return;
     }
-    SecretKey key = deriveKey();
-    byte[] decrypted = aesGcmCrypto.decrypt(msg.getEncContent().toByteArray(), key);
-    ChatPayload decryptedPayload = ChatPayload.newBuilder(msg)
-        .setContent(new String(decrypted, StandardCharsets.UTF_8))
+    ChatPayload payload = (ChatPayload) msg.getBody();
+    // 直接从 ByteString 的只读视图解密，不再 toByteArray() 拷贝密文
+    ByteString encContent = payload.getEncContent();
+    byte[] decrypted = new byte[AesGcmCrypto.decryptedLength(encContent.size())];
+    int length = aesGcmCrypto.decrypt(encContent.asReadOnlyByteBuffer(), ByteBuffer.wrap(decrypted),
+        sessionKey != null ? sessionKey : deriveKey());
+    msg.setBody(ChatPayload.newBuilder(payload)
+        .setContent(new String(decrypted, 0, length, StandardCharsets.UTF_8))
         .setEncrypted(false)
         .clearEncContent()
+        .build());
+    out.add(msg);
+  }
+
+  /**
+   * AUTH 时根据客户端公钥协商连接级会话密钥，并绑定到 Channel
+   *
+   * @return 服务端公钥；未开启会话密钥时返回 null
+   * @throws IllegalArgumentException 客户端公钥不是 32 字节
+   */
+  public byte[] negotiateSessionKey(Channel channel, byte[] clientPublicKey) {
+    if (!properties.getNetty().isSessionKeyEnabled()) {
+      return null;
+    }
+    SessionKeyExchange.Result result = SessionKeyExchange.agree(clientPublicKey, salt().getBytes(StandardCharsets.UTF_8));
+    channel.attr(SESSION_KEY).set(result.getSessionKey());
+    return result.getServerPublicKey();
+  }
+
+  public boolean hasSessionKey(Channel channel) {
+    return channel.attr(SESSION_KEY).get() != null;
+  }
+
+  private ChatPayload encrypt(ChatPayload payload, SecretKey key) {
+    byte[] encrypted = aesGcmCrypto.encrypt(payload.getContent().getBytes(StandardCharsets.UTF_8), key);
+    return ChatPayload.newBuilder(payload)
+        .setEncrypted(true)
+        // 密文数组此后不再修改，直接包装，省去一次拷贝
+        .setEncContent(UnsafeByteOperations.unsafeWrap(encrypted))
+        .setContent("")
         .build();
-    out.add(decryptedPayload);
   }
 
   private SecretKey deriveKey() {
+    String salt = salt();
+    DerivedKey cached = derivedKey;
+    if (cached != null && cached.salt.equals(salt)) {
+      return cached.key;
+    }
+    String baseKey = Base64.getEncoder().encodeToString(salt.getBytes(StandardCharsets.UTF_8));
+    SecretKey key = keyGenerator.deriveKey(baseKey, salt);
+    derivedKey = new DerivedKey(salt, key);
+    return key;
+  }
+
+  private String salt() {
     String salt = properties.getNetty().getKeyDeriveSalt();
     if (salt == null || salt.isBlank()) {
       throw new IllegalStateException("Netty key derive salt is missing");
     }
-    String baseKey = Base64.getEncoder().encodeToString(salt.getBytes(StandardCharsets.UTF_8));
-    return keyGenerator.deriveKey(baseKey, salt);
+    return salt;
+  }
+
+  private static final class DerivedKey {
+    private final String salt;
+    private final SecretKey key;
+
+    private DerivedKey(String salt, SecretKey key) {
+      this.salt = salt;
+      this.key = key;
+    }
   }
 }
@@ -0,0 +1,106 @@
+package com.literature.chat.netty.codec.crypto;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.XECPublicKey;
+import java.security.spec.NamedParameterSpec;
+import java.security.spec.XECPublicKeySpec;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 连接级会话密钥协商: X25519 ECDH + HKDF-SHA256，产出 AES-256-GCM 密钥。
+ * 公钥在线上使用 RFC 7748 的 32 字节小端编码。
+ */
+public final class SessionKeyExchange {
+  private static final int KEY_LENGTH_BYTES = 32;
+  private static final byte[] HKDF_INFO = "literature-chat-session-key".getBytes(StandardCharsets.UTF_8);
+
+  private SessionKeyExchange() {
+  }
+
+  /**
+   * 以客户端公钥完成一次协商
+   *
+   * @param clientPublicKey 客户端 X25519 公钥 (32 字节)
+   * @param salt            HKDF salt，绑定到服务端配置
+   * @return 服务端公钥与会话密钥
+   */
+  public static Result agree(byte[] clientPublicKey, byte[] salt) {
+    if (clientPublicKey == null || clientPublicKey.length != KEY_LENGTH_BYTES) {
+      throw new IllegalArgumentException("Invalid X25519 public key length");
+    }
+    try {
+      KeyPair serverKeyPair = KeyPairGenerator.getInstance("X25519").generateKeyPair();
+      KeyAgreement agreement = KeyAgreement.getInstance("X25519");
+      agreement.init(serverKeyPair.getPrivate());
+      agreement.doPhase(decodePublicKey(clientPublicKey), true);
+      byte[] sharedSecret = agreement.generateSecret();
+
+      SecretKey sessionKey = new SecretKeySpec(hkdfSha256(sharedSecret, salt), "AES");
+      byte[] serverPublicKey = encodePublicKey((XECPublicKey) serverKeyPair.getPublic());
+      return new Result(serverPublicKey, sessionKey);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Session key agreement failed", ex);
+    }
+  }
+
+  private static PublicKey decodePublicKey(byte[] raw) throws GeneralSecurityException {
+    byte[] bigEndian = new byte[raw.length];
+    for (int i = 0; i < raw.length; i++) {
+      bigEndian[i] = raw[raw.length - 1 - i];
+    }
+    // RFC 7748: 忽略最高位
+    bigEndian[0] &= 0x7F;
+    XECPublicKeySpec spec = new XECPublicKeySpec(NamedParameterSpec.X25519, new BigInteger(1, bigEndian));
+    return KeyFactory.getInstance("X25519").generatePublic(spec);
+  }
+
+  private static byte[] encodePublicKey(XECPublicKey publicKey) {
+    byte[] bigEndian = publicKey.getU().toByteArray();
+    byte[] littleEndian = new byte[KEY_LENGTH_BYTES];
+    for (int i = 0; i < KEY_LENGTH_BYTES && i < bigEndian.length; i++) {
+      littleEndian[i] = bigEndian[bigEndian.length - 1 - i];
+    }
+    return littleEndian;
+  }
+
+  /**
+   * RFC 5869 HKDF，输出长度为一个 SHA-256 块 (32 字节)
+   */
+  private static byte[] hkdfSha256(byte[] inputKeyMaterial, byte[] salt) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(salt == null || salt.length == 0 ? new byte[KEY_LENGTH_BYTES] : salt, "HmacSHA256"));
+    byte[] pseudoRandomKey = mac.doFinal(inputKeyMaterial);
+
+    mac.init(new SecretKeySpec(pseudoRandomKey, "HmacSHA256"));
+    mac.update(HKDF_INFO);
+    mac.update((byte) 0x01);
+    return mac.doFinal();
+  }
+
+  public static final class Result {
+    private final byte[] serverPublicKey;
+    private final SecretKey sessionKey;
+
+    Result(byte[] serverPublicKey, SecretKey sessionKey) {
+      this.serverPublicKey = serverPublicKey;
+      this.sessionKey = sessionKey;
+    }
+
+    public byte[] getServerPublicKey() {
+      return serverPublicKey;
+    }
+
+    public SecretKey getSessionKey() {
+      return sessionKey;
+    }
+  }
+}
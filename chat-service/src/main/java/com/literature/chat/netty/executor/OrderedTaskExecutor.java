@@ -0,0 +1,182 @@
+package com.literature.chat.netty.executor;
+
+import com.literature.chat.config.NettyProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 key (用户 / 会话) 保序的阻塞任务执行器
+ * <p>
+ * Netty 处理器只在 EventLoop 上做解码后的分发，Redis、Kafka、离线补推等阻塞调用提交到这里:
+ * <ul>
+ *   <li>VIRTUAL: 每个任务一个虚拟线程 (JDK 21+)，同一 key 的任务通过 CompletableFuture 串成链，前一个完成后才开始下一个；</li>
+ *   <li>STRIPED: 固定数量的单线程分片，key 哈希到固定分片，同一分片内按提交顺序执行。</li>
+ * </ul>
+ * 两种模式下不同 key 互不阻塞 (STRIPED 仅同分片内相互影响)。任务从提交到开始执行的排队时间记录在
+ * {@code chat.executor.queue.time}。
+ */
+@Slf4j
+@Component
+public class OrderedTaskExecutor {
+
+    public enum Mode {
+        AUTO, VIRTUAL, STRIPED
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong pending = new AtomicLong();
+
+    @Autowired
+    private NettyProperties nettyProperties;
+
+    private Mode mode;
+    private Timer queueTimer;
+
+    /**
+     * VIRTUAL 模式: 虚拟线程执行器与每个 key 当前的任务链尾
+     */
+    private ExecutorService virtualExecutor;
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * STRIPED 模式: 单线程分片
+     */
+    private ExecutorService[] stripes;
+
+    public OrderedTaskExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        NettyProperties.BusinessExecutor config = nettyProperties.getBusinessExecutor();
+        ExecutorService virtual = config.getMode() == Mode.STRIPED ? null : newVirtualThreadExecutor();
+        if (virtual != null) {
+            mode = Mode.VIRTUAL;
+            virtualExecutor = virtual;
+        } else {
+            if (config.getMode() == Mode.VIRTUAL) {
+                log.warn("Virtual threads are not available on this JVM, falling back to striped executor");
+            }
+            mode = Mode.STRIPED;
+            stripes = new ExecutorService[Math.max(1, config.getStripes())];
+            for (int i = 0; i < stripes.length; i++) {
+                String name = "chat-biz-" + i;
+                stripes[i] = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        queueTimer = Timer.builder("chat.executor.queue.time")
+                .description("Time blocking chat tasks wait before they start")
+                .tag("mode", mode.name())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chat.executor.pending", pending, AtomicLong::get)
+                .description("Blocking chat tasks submitted but not yet finished")
+                .tag("mode", mode.name())
+                .register(meterRegistry);
+        log.info("Chat business executor started in {} mode", mode);
+    }
+
+    /**
+     * 提交任务，同一 {@code key} 的任务按提交顺序依次执行
+     */
+    public void execute(long key, Runnable task) {
+        Runnable timed = timed(task);
+        pending.incrementAndGet();
+        try {
+            if (mode == Mode.VIRTUAL) {
+                executeVirtual(key, timed);
+            } else {
+                stripes[stripe(key)].execute(timed);
+            }
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeVirtual(long key, Runnable task) {
+        CompletableFuture<Void>[] created = new CompletableFuture[1];
+        tails.compute(key, (k, tail) -> {
+            created[0] = tail == null
+                    ? CompletableFuture.runAsync(task, virtualExecutor)
+                    : tail.thenRunAsync(task, virtualExecutor);
+            return created[0];
+        });
+        CompletableFuture<Void> future = created[0];
+        // 链尾仍是自己时说明该 key 已无后续任务，移除以免 map 无限增长
+        future.whenComplete((r, e) -> tails.remove(key, future));
+    }
+
+    private Runnable timed(Runnable task) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } catch (Throwable t) {
+                // 吞掉异常: 否则 VIRTUAL 模式下任务链会以异常完成，后续任务被跳过
+                log.error("Chat business task failed", t);
+            } finally {
+                pending.decrementAndGet();
+            }
+        };
+    }
+
+    private int stripe(long key) {
+        // Long.hashCode 后再做一次扰动，避免连续 id 集中在低位相同的分片
+        int h = Long.hashCode(key);
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    /**
+     * 编译目标为 JDK 17，通过反射获取 {@code Executors.newVirtualThreadPerTaskExecutor()}
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+            virtualExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (stripes != null) {
+            for (ExecutorService stripe : stripes) {
+                stripe.shutdown();
+            }
+            for (ExecutorService stripe : stripes) {
+                stripe.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
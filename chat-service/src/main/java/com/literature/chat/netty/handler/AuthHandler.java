@@ -1,24 +1,41 @@
 package com.literature.chat.netty.handler;
 
+import com.literature.chat.netty.codec.crypto.ChatCryptoCodec;
+import com.literature.chat.netty.executor.OrderedTaskExecutor;
 import com.literature.chat.netty.protocol.AuthPayload;
+import com.literature.chat.netty.protocol.AuthResponse;
 import com.literature.chat.netty.protocol.CmdType;
 import com.literature.chat.netty.protocol.NettyMessage;
-import com.literature.chat.netty.session.SessionManager;
+import com.literature.chat.netty.push.DeliveryAckManager;
+import com.literature.chat.netty.session.GroupChannelIndex;
+import com.google.protobuf.ByteString;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.AttributeKey;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 认证处理器
+ * <p>
+ * 在 EventLoop 上校验 token 后，把会话注册和路由写入交给 {@link OrderedTaskExecutor} (按 userId 保序)。
+ * 认证完成前暂停读取，期间已解码的消息暂存在 Channel 上，认证完成后按原顺序交给后续处理器。
+ * 认证不再等待离线补推: 客户端收到认证成功后自行发送 SYNC 拉取错过的消息。
  */
 @Slf4j
 @Component
 @ChannelHandler.Sharable
 public class AuthHandler extends SimpleChannelInboundHandler<NettyMessage> {
 
+    private static final AttributeKey<List<NettyMessage>> PENDING_MESSAGES = AttributeKey.valueOf("chat.auth.pending");
+
     @Autowired
     private com.literature.chat.netty.session.SessionManager sessionManager;
 
@@ -28,31 +45,49 @@ public class AuthHandler extends SimpleChannelInboundHandler<NettyMessage> {
     @Autowired
     private com.literature.chat.service.OfflineMessageService offlineMessageService;
 
-    @org.springframework.beans.factory.annotation.Value("${netty.port:9090}")
-    private int port;
+    @Autowired
+    private ChatCryptoCodec chatCryptoCodec;
+
+    @Autowired
+    private OrderedTaskExecutor orderedTaskExecutor;
+
+    @Autowired
+    private GroupChannelIndex groupChannelIndex;
+
+    @Autowired
+    private com.literature.chat.service.ChatSessionService chatSessionService;
+
+    @Autowired
+    private com.literature.chat.config.ChatProperties chatProperties;
+
+    @Autowired
+    private DeliveryAckManager deliveryAckManager;
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, NettyMessage msg) throws Exception {
+        List<NettyMessage> pending = ctx.channel().attr(PENDING_MESSAGES).get();
+        if (pending != null) {
+            // 认证进行中，先暂存
+            pending.add(msg);
+            return;
+        }
         if (msg.getHeader().getCmdType() == CmdType.AUTH_VALUE) {
             AuthPayload payload = (AuthPayload) msg.getBody();
             String token = payload.getToken();
             // TODO: Real JWT validation
             if (token != null && token.startsWith("user:")) {
                 Long userId = Long.parseLong(token.split(":")[1]);
-                sessionManager.addSession(userId, ctx.channel());
-
-                // Register route
-                String serverAddress = java.net.InetAddress.getLocalHost().getHostAddress() + ":" + port;
-                sessionRouteService.registerUserRoute(userId, serverAddress);
-
-                // Pull offline messages
-                offlineMessageService.pullAndPushOfflineMessages(userId);
-
-                ctx.pipeline().remove(this); // Remove self
-                log.info("User {} authenticated and route registered at {}", userId, serverAddress);
+                ctx.channel().attr(PENDING_MESSAGES).set(new ArrayList<>());
+                ctx.channel().config().setAutoRead(false);
+                try {
+                    orderedTaskExecutor.execute(userId, () -> authenticate(ctx, msg, userId, payload));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Business executor rejected authentication of user {}", userId);
+                    ctx.close();
+                }
             } else {
                 log.warn("Authentication failed for channel {}", ctx.channel().id());
-                ctx.close();
+                reject(ctx, msg, "Authentication failed");
             }
         } else {
             // Unauthenticated message
@@ -61,15 +96,98 @@ public class AuthHandler extends SimpleChannelInboundHandler<NettyMessage> {
         }
     }
 
-    @Override
-    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        sessionManager.removeSession(ctx.channel());
-        // Remove route? Ideally yes, but we need userId.
-        // SessionManager maps channel -> userId.
-        Long userId = sessionManager.getUserId(ctx.channel());
-        if (userId != null) {
-            sessionRouteService.removeUserRoute(userId);
+    /**
+     * 在业务执行器上运行，可以阻塞
+     */
+    private void authenticate(ChannelHandlerContext ctx, NettyMessage request, Long userId, AuthPayload payload) {
+        try {
+            // Optional per-connection session key (X25519), negotiated before any chat traffic
+            AuthResponse.Builder response = AuthResponse.newBuilder().setSuccess(true);
+            if (!payload.getClientPublicKey().isEmpty()) {
+                byte[] serverPublicKey;
+                try {
+                    serverPublicKey = chatCryptoCodec.negotiateSessionKey(
+                            ctx.channel(), payload.getClientPublicKey().toByteArray());
+                } catch (IllegalArgumentException e) {
+                    log.warn("Rejected client public key of user {}: {}", userId, e.getMessage());
+                    reject(ctx, request, "Invalid client public key");
+                    return;
+                }
+                if (serverPublicKey != null) {
+                    response.setServerPublicKey(ByteString.copyFrom(serverPublicKey));
+                }
+            }
+            sessionManager.addSession(userId, payload.getDeviceId(), ctx.channel());
+            if (!ctx.channel().isActive()) {
+                // 认证期间连接已断开，channelInactive 可能早于 addSession 执行
+                sessionManager.removeSession(ctx.channel());
+                return;
+            }
+            if (payload.getAckEnabled()) {
+                // 先于认证响应开启，之后写出的消息都会进入确认窗口
+                deliveryAckManager.enable(ctx.channel());
+            }
+            ctx.writeAndFlush(reply(request, response.build()));
+
+            // Register route
+            sessionRouteService.registerUserRoute(userId);
+
+            // 登记到所属群会话的本地索引，群消息扇出只取本节点在线成员
+            List<Long> groupIds = chatSessionService.getUserGroupSessionIds(userId);
+            long[] sessionIds = new long[groupIds.size()];
+            for (int i = 0; i < sessionIds.length; i++) {
+                sessionIds[i] = groupIds.get(i);
+            }
+            groupChannelIndex.addChannel(ctx.channel(), sessionIds);
+
+            if (payload.getAckEnabled() || chatProperties.getSync().isLegacyOfflinePush()) {
+                // 支持 ACK 的客户端: 上次断开时未确认的消息就在离线队列里，直接补推，不必回读 MongoDB；
+                // 旧客户端不发 SYNC，同样补推。作为独立任务执行，不占用认证流程
+                orderedTaskExecutor.execute(userId, () -> offlineMessageService.pullAndPushOfflineMessages(userId));
+            }
+            log.info("User {} authenticated", userId);
+        } catch (Exception e) {
+            log.error("Authentication of user {} failed", userId, e);
+            ctx.close();
+            return;
+        }
+        ctx.executor().execute(() -> completeAuthentication(ctx));
+    }
+
+    /**
+     * 认证失败: 回复失败的 AuthResponse 后关闭连接
+     */
+    private static void reject(ChannelHandlerContext ctx, NettyMessage request, String reason) {
+        AuthResponse response = AuthResponse.newBuilder()
+                .setSuccess(false)
+                .setMessage(reason)
+                .build();
+        ctx.writeAndFlush(reply(request, response)).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    /**
+     * 认证响应沿用请求的 reqId，客户端据此匹配
+     */
+    private static NettyMessage reply(NettyMessage request, AuthResponse response) {
+        NettyMessage message = NettyMessage.of(CmdType.AUTH_VALUE, response);
+        message.getHeader().setReqId(request.getHeader().getReqId());
+        return message;
+    }
+
+    /**
+     * 回到 EventLoop: 放行暂存的消息，移除自身并恢复读取
+     */
+    private void completeAuthentication(ChannelHandlerContext ctx) {
+        if (ctx.isRemoved()) {
+            return;
+        }
+        List<NettyMessage> pending = ctx.channel().attr(PENDING_MESSAGES).getAndSet(null);
+        if (pending != null) {
+            for (NettyMessage message : pending) {
+                ctx.fireChannelRead(message);
+            }
         }
-        super.channelInactive(ctx);
+        ctx.pipeline().remove(this); // Remove self
+        ctx.channel().config().setAutoRead(true);
     }
 }
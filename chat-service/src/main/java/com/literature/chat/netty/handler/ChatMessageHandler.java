@@ -1,9 +1,13 @@
 package com.literature.chat.netty.handler;
 
+import com.literature.chat.netty.executor.OrderedTaskExecutor;
 import com.literature.chat.netty.protocol.ChatPayload;
 import com.literature.chat.netty.protocol.CmdType;
 import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.protocol.SyncRequest;
+import com.literature.chat.netty.session.GroupChannelIndex;
 import com.literature.chat.netty.session.SessionManager;
+import com.literature.chat.service.SessionSanctionIndex;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -14,6 +18,11 @@ import org.springframework.stereotype.Component;
 
 /**
  * 消息处理器
+ * <p>
+ * 运行在 EventLoop 上，只负责分发: 单聊按发送方、群聊按会话提交到 {@link OrderedTaskExecutor}，
+ * 保证同一用户 / 会话内的持久化与转发顺序，同时不阻塞 IO 线程。
+ * 发送方以连接认证的用户为准，payload 中不一致的 senderId 被覆盖。
+ * 群聊消息、以及带会话ID的单聊消息分发前先查进程内的禁言 / 封禁索引，被拒的消息直接回 ERROR 帧，不进入执行器。
  */
 @Slf4j
 @Component
@@ -32,15 +41,89 @@ public class ChatMessageHandler extends SimpleChannelInboundHandler<NettyMessage
     @Autowired
     private com.literature.chat.mq.ChatMessageProducer chatMessageProducer;
 
+    @Autowired
+    private com.literature.chat.service.ChatSessionService chatSessionService;
+
+    @Autowired
+    private OrderedTaskExecutor orderedTaskExecutor;
+
+    @Autowired
+    private GroupChannelIndex groupChannelIndex;
+
+    @Autowired
+    private com.literature.chat.service.OfflineSyncService offlineSyncService;
+
+    @Autowired
+    private com.literature.chat.service.MessageIdGenerator messageIdGenerator;
+
+    @Autowired
+    private com.literature.chat.service.MessageSequenceService messageSequenceService;
+
+    @Autowired
+    private SessionSanctionIndex sessionSanctionIndex;
+
+    @Autowired
+    private com.literature.chat.service.NodePresenceService nodePresenceService;
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, NettyMessage msg) throws Exception {
         if (msg.getHeader().getCmdType() == CmdType.SINGLE_CHAT_VALUE) {
-            handleSingleChat(ctx, (ChatPayload) msg.getBody());
+            ChatPayload payload = authenticatedSender(ctx, (ChatPayload) msg.getBody());
+            // 单聊会话同样可以禁言 / 封禁；未带会话ID的旧客户端无从检查
+            if (payload.getSessionId() != 0) {
+                int sanction = sessionSanctionIndex.check(payload.getSessionId(), payload.getSenderId());
+                if (sanction != SessionSanctionIndex.ALLOWED) {
+                    rejectSend(ctx, msg, payload, CmdType.SINGLE_CHAT, payload.getSessionId(), sanction);
+                    return;
+                }
+            }
+            orderedTaskExecutor.execute(payload.getSenderId(), () -> handleSingleChat(ctx, payload));
         } else if (msg.getHeader().getCmdType() == CmdType.GROUP_CHAT_VALUE) {
-            handleGroupChat(ctx, (ChatPayload) msg.getBody());
+            ChatPayload payload = authenticatedSender(ctx, (ChatPayload) msg.getBody());
+            int sanction = sessionSanctionIndex.check(payload.getTargetId(), payload.getSenderId());
+            if (sanction != SessionSanctionIndex.ALLOWED) {
+                rejectSend(ctx, msg, payload, CmdType.GROUP_CHAT, payload.getTargetId(), sanction);
+                return;
+            }
+            orderedTaskExecutor.execute(payload.getTargetId(), () -> handleGroupChat(ctx, payload));
+        } else if (msg.getHeader().getCmdType() == CmdType.SYNC_VALUE) {
+            Long userId = sessionManager.getUserId(ctx.channel());
+            SyncRequest request = msg.getBody() != null ? (SyncRequest) msg.getBody() : SyncRequest.getDefaultInstance();
+            if (userId != null) {
+                // 与该用户的认证、路由任务同 key，按请求顺序逐页返回
+                orderedTaskExecutor.execute(userId, () -> offlineSyncService.sync(ctx.channel(), userId, request));
+            }
         } else if (msg.getHeader().getCmdType() == CmdType.HEARTBEAT_VALUE) {
-            // Heartbeat response
+            // 心跳只用于刷新读空闲 (已在 IdleStateHandler 完成)，不应答；消息是共享的只读实例，不要修改
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 认证后 AuthHandler 已从 pipeline 移除，连接清理放在这里；用户在本节点的最后一台设备断开时才删除路由
+        groupChannelIndex.removeChannel(ctx.channel());
+        Long userId = sessionManager.removeSession(ctx.channel());
+        if (userId != null) {
+            // 与该用户的认证任务同 key，保证路由删除不会覆盖随后重连写入的路由
+            orderedTaskExecutor.execute(userId, () -> sessionRouteService.removeUserRoute(userId));
+        }
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * 以连接认证的用户作为发送方，不信任客户端填写的 senderId (否则被禁言的用户换个 ID 即可绕过检查)
+     */
+    private ChatPayload authenticatedSender(ChannelHandlerContext ctx, ChatPayload payload) {
+        // AuthHandler 在认证完成前不会放行聊天消息，这里一定能取到
+        long userId = sessionManager.getUserId(ctx.channel());
+        if (payload.getSenderId() == userId) {
+            return payload;
+        }
+        if (payload.getSenderId() != 0) {
+            log.warn("Channel {} of user {} sent a message as user {}, overriding sender",
+                    ctx.channel().id(), userId, payload.getSenderId());
         }
+        return ChatPayload.newBuilder(payload).setSenderId(userId).build();
     }
 
     private void handleGroupChat(ChannelHandlerContext ctx, ChatPayload payload) {
@@ -48,23 +131,25 @@ public class ChatMessageHandler extends SimpleChannelInboundHandler<NettyMessage
 
         // Persist message (History)
         com.literature.chat.dto.ChatMessageDTO dto = new com.literature.chat.dto.ChatMessageDTO();
-        dto.setMessageId(payload.getTimestamp());
+        dto.setMessageId(messageIdGenerator.nextId());
+        dto.setSeq(messageSequenceService.nextSessionSeq(sessionId));
         dto.setSenderId(payload.getSenderId());
         dto.setSessionId(sessionId);
         dto.setType(2); // Group chat
         dto.setContent(payload.getContent());
-        dto.setTimestamp(payload.getTimestamp());
+        // 时间戳取服务端接收时刻 (即消息ID中的时间)，不用客户端上报的值: 历史翻页与 SYNC 游标都以它为键
+        dto.setTimestamp(com.literature.chat.service.MessageIdGenerator.timestampOf(dto.getMessageId()));
         offlineMessageService.saveOfflineMessage(dto);
 
-        // Broadcast to all servers (including self) to handle group fan-out
-        // "BROADCAST" is just a placeholder here since we changed Producer to ignore
-        // targetServer and broadcast to topic.
-        chatMessageProducer.sendToServer("BROADCAST", dto);
-        log.info("Group message persisted and broadcasted for session {}", sessionId);
-
-        // We do NOT need to push locally here because Consumer on this same server will
-        // pick it up and do the push!
-        // This ensures consistency.
+        // 只发给有成员在线的节点 (包括本节点)，由各节点的消费者推给本地成员
+        long[] members = chatSessionService.getSessionMembers(sessionId);
+        java.util.Set<String> nodes = sessionRouteService.getUserNodes(members);
+        for (String node : nodes) {
+            chatMessageProducer.sendToServer(node, dto);
+        }
+        // 灰度期间旧版本节点上的成员不在新版本路由中
+        chatMessageProducer.publishToLegacy(dto);
+        log.info("Group message of session {} persisted and relayed to {} nodes", sessionId, nodes.size());
     }
 
     private void handleSingleChat(ChannelHandlerContext ctx, ChatPayload payload) {
@@ -72,32 +157,74 @@ public class ChatMessageHandler extends SimpleChannelInboundHandler<NettyMessage
 
         // Persist message (History & Offline)
         com.literature.chat.dto.ChatMessageDTO dto = new com.literature.chat.dto.ChatMessageDTO();
-        dto.setMessageId(payload.getTimestamp()); // Use timestamp as ID for now
+        dto.setMessageId(messageIdGenerator.nextId());
+        dto.setSeq(messageSequenceService.nextUserSeq(targetId));
         dto.setSenderId(payload.getSenderId());
         dto.setTargetUserId(targetId);
         dto.setType(1); // Single chat
         dto.setContent(payload.getContent());
-        dto.setTimestamp(payload.getTimestamp());
+        dto.setTimestamp(com.literature.chat.service.MessageIdGenerator.timestampOf(dto.getMessageId()));
         offlineMessageService.saveOfflineMessage(dto);
 
-        Channel targetChannel = sessionManager.getChannel(targetId);
+        // 下发给接收方的消息带上服务端分配的ID、序号与时间戳
+        ChatPayload delivery = payload.toBuilder()
+                .setMessageId(dto.getMessageId())
+                .setSeq(dto.getSeq())
+                .setTimestamp(dto.getTimestamp())
+                .build();
+        int delivered = 0;
+        for (Channel targetChannel : sessionManager.getChannels(targetId)) {
+            if (targetChannel.isActive()) {
+                // Local push (every device of the target user)
+                forwardMessage(targetChannel, delivery);
+                delivered++;
+            }
+        }
+
+        if (delivered > 0) {
+            log.info("Message forwarded locally from {} to {} ({} devices)", payload.getSenderId(), targetId, delivered);
+        }
 
-        if (targetChannel != null && targetChannel.isActive()) {
-            // Local push
-            forwardMessage(targetChannel, payload);
-            log.info("Message forwarded locally from {} to {}", payload.getSenderId(), targetId);
-        } else {
-            // Check remote route
-            String targetServer = sessionRouteService.getUserRoute(targetId);
-            if (targetServer != null) {
-                // Forward via Kafka
-                chatMessageProducer.sendToServer(targetServer, dto);
+        // 接收方的其他设备可能连在别的节点上，本地已投递也要转发给其余持有路由的节点
+        int relayed = 0;
+        for (String targetServer : sessionRouteService.getUserNodes(targetId)) {
+            if (!targetServer.equals(nodePresenceService.getNodeId())
+                    && chatMessageProducer.sendToServer(targetServer, dto)) {
                 log.info("Message routed to server {} for user {}", targetServer, targetId);
-            } else {
-                log.info("User {} is offline, saving to Redis Offline Queue", targetId);
-                offlineMessageService.pushToOfflineQueue(targetId, dto);
+                relayed++;
             }
         }
+
+        if (delivered == 0 && relayed == 0) {
+            log.info("User {} is offline, saving to Redis Offline Queue", targetId);
+            offlineMessageService.pushToOfflineQueue(targetId, dto);
+            // 灰度期间接收方可能连在旧版本节点上
+            chatMessageProducer.publishToLegacy(dto);
+        }
+    }
+
+    /**
+     * 回 ERROR 帧: reqId 与原请求相同，content 为 MUTED / BANNED，禁言时 extra 带截止时间
+     */
+    private void rejectSend(ChannelHandlerContext ctx, NettyMessage request, ChatPayload payload, CmdType cmd,
+                            long sessionId, int sanction) {
+        ChatPayload.Builder error = ChatPayload.newBuilder()
+                .setCmd(cmd)
+                .setSessionId(sessionId)
+                .setSenderId(payload.getSenderId())
+                .setTargetId(payload.getTargetId())
+                .setTimestamp(payload.getTimestamp());
+        if (sanction == SessionSanctionIndex.BANNED) {
+            error.setContent("BANNED");
+        } else {
+            long mutedUntil = sessionSanctionIndex.mutedUntil(sessionId, payload.getSenderId());
+            error.setContent("MUTED").setExtra("{\"mutedUntil\":" + mutedUntil + "}");
+        }
+        NettyMessage response = NettyMessage.of(CmdType.ERROR_VALUE, error.build());
+        response.getHeader().setReqId(request.getHeader().getReqId());
+        ctx.writeAndFlush(response);
+        log.debug("Rejected {} message of user {} in session {}: {}", cmd, payload.getSenderId(),
+                sessionId, error.getContent());
     }
 
     private void forwardMessage(Channel targetChannel, ChatPayload payload) {
@@ -1,645 +0,0 @@
-// Generated by the protocol buffer compiler.  DO NOT EDIT!
-// NO CHECKED-IN PROTOBUF GENCODE
-// source: chat-service/src/main/proto/ChatProtocol.proto
-// Protobuf Java Version: 4.29.3
-
-package com.literature.chat.netty.protocol;
-
-/**
- * <pre>
- * 认证请求负载 (使用 content 字段传递 token)
- * </pre>
- *
- * Protobuf type {@code com.literature.chat.netty.protocol.AuthPayload}
- */
-public final class AuthPayload extends
-    com.google.protobuf.GeneratedMessage implements
-    // @@protoc_insertion_point(message_implements:com.literature.chat.netty.protocol.AuthPayload)
-    AuthPayloadOrBuilder {
-private static final long serialVersionUID = 0L;
-  static {
-    com.google.protobuf.RuntimeVersion.validateProtobufGencodeVersion(
-      com.google.protobuf.RuntimeVersion.RuntimeDomain.PUBLIC,
-      /* major= */ 4,
-      /* minor= */ 29,
-      /* patch= */ 3,
-      /* suffix= */ "",
-      AuthPayload.class.getName());
-  }
-  // Use AuthPayload.newBuilder() to construct.
-  private AuthPayload(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
-    super(builder);
-  }
-  private AuthPayload() {
-    token_ = "";
-    deviceId_ = "";
-  }
-
-  public static final com.google.protobuf.Descriptors.Descriptor
-      getDescriptor() {
-    return com.literature.chat.netty.protocol.ChatProtocol.internal_static_com_literature_chat_netty_protocol_AuthPayload_descriptor;
-  }
-
-  @java.lang.Override
-  protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internalGetFieldAccessorTable() {
-    return com.literature.chat.netty.protocol.ChatProtocol.internal_static_com_literature_chat_netty_protocol_AuthPayload_fieldAccessorTable
-        .ensureFieldAccessorsInitialized(
-            com.literature.chat.netty.protocol.AuthPayload.class, com.literature.chat.netty.protocol.AuthPayload.Builder.class);
-  }
-
-  public static final int TOKEN_FIELD_NUMBER = 1;
-  @SuppressWarnings("serial")
-  private volatile java.lang.Object token_ = "";
-  /**
-   * <code>string token = 1;</code>
-   * @return The token.
-   */
-  @java.lang.Override
-  public java.lang.String getToken() {
-    java.lang.Object ref = token_;
-    if (ref instanceof java.lang.String) {
-      return (java.lang.String) ref;
-    } else {
-      com.google.protobuf.ByteString bs = 
-          (com.google.protobuf.ByteString) ref;
-      java.lang.String s = bs.toStringUtf8();
-      token_ = s;
-      return s;
-    }
-  }
-  /**
-   * <code>string token = 1;</code>
-   * @return The bytes for token.
-   */
-  @java.lang.Override
-  public com.google.protobuf.ByteString
-      getTokenBytes() {
-    java.lang.Object ref = token_;
-    if (ref instanceof java.lang.String) {
-      com.google.protobuf.ByteString b = 
-          com.google.protobuf.ByteString.copyFromUtf8(
-              (java.lang.String) ref);
-      token_ = b;
-      return b;
-    } else {
-      return (com.google.protobuf.ByteString) ref;
-    }
-  }
-
-  public static final int DEVICE_ID_FIELD_NUMBER = 2;
-  @SuppressWarnings("serial")
-  private volatile java.lang.Object deviceId_ = "";
-  /**
-   * <code>string device_id = 2;</code>
-   * @return The deviceId.
-   */
-  @java.lang.Override
-  public java.lang.String getDeviceId() {
-    java.lang.Object ref = deviceId_;
-    if (ref instanceof java.lang.String) {
-      return (java.lang.String) ref;
-    } else {
-      com.google.protobuf.ByteString bs = 
-          (com.google.protobuf.ByteString) ref;
-      java.lang.String s = bs.toStringUtf8();
-      deviceId_ = s;
-      return s;
-    }
-  }
-  /**
-   * <code>string device_id = 2;</code>
-   * @return The bytes for deviceId.
-   */
-  @java.lang.Override
-  public com.google.protobuf.ByteString
-      getDeviceIdBytes() {
-    java.lang.Object ref = deviceId_;
-    if (ref instanceof java.lang.String) {
-      com.google.protobuf.ByteString b = 
-          com.google.protobuf.ByteString.copyFromUtf8(
-              (java.lang.String) ref);
-      deviceId_ = b;
-      return b;
-    } else {
-      return (com.google.protobuf.ByteString) ref;
-    }
-  }
-
-  private byte memoizedIsInitialized = -1;
-  @java.lang.Override
-  public final boolean isInitialized() {
-    byte isInitialized = memoizedIsInitialized;
-    if (isInitialized == 1) return true;
-    if (isInitialized == 0) return false;
-
-    memoizedIsInitialized = 1;
-    return true;
-  }
-
-  @java.lang.Override
-  public void writeTo(com.google.protobuf.CodedOutputStream output)
-                      throws java.io.IOException {
-    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(token_)) {
-      com.google.protobuf.GeneratedMessage.writeString(output, 1, token_);
-    }
-    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(deviceId_)) {
-      com.google.protobuf.GeneratedMessage.writeString(output, 2, deviceId_);
-    }
-    getUnknownFields().writeTo(output);
-  }
-
-  @java.lang.Override
-  public int getSerializedSize() {
-    int size = memoizedSize;
-    if (size != -1) return size;
-
-    size = 0;
-    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(token_)) {
-      size += com.google.protobuf.GeneratedMessage.computeStringSize(1, token_);
-    }
-    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(deviceId_)) {
-      size += com.google.protobuf.GeneratedMessage.computeStringSize(2, deviceId_);
-    }
-    size += getUnknownFields().getSerializedSize();
-    memoizedSize = size;
-    return size;
-  }
-
-  @java.lang.Override
-  public boolean equals(final java.lang.Object obj) {
-    if (obj == this) {
-     return true;
-    }
-    if (!(obj instanceof com.literature.chat.netty.protocol.AuthPayload)) {
-      return super.equals(obj);
-    }
-    com.literature.chat.netty.protocol.AuthPayload other = (com.literature.chat.netty.protocol.AuthPayload) obj;
-
-    if (!getToken()
-        .equals(other.getToken())) return false;
-    if (!getDeviceId()
-        .equals(other.getDeviceId())) return false;
-    if (!getUnknownFields().equals(other.getUnknownFields())) return false;
-    return true;
-  }
-
-  @java.lang.Override
-  public int hashCode() {
-    if (memoizedHashCode != 0) {
-      return memoizedHashCode;
-    }
-    int hash = 41;
-    hash = (19 * hash) + getDescriptor().hashCode();
-    hash = (37 * hash) + TOKEN_FIELD_NUMBER;
-    hash = (53 * hash) + getToken().hashCode();
-    hash = (37 * hash) + DEVICE_ID_FIELD_NUMBER;
-    hash = (53 * hash) + getDeviceId().hashCode();
-    hash = (29 * hash) + getUnknownFields().hashCode();
-    memoizedHashCode = hash;
-    return hash;
-  }
-
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      java.nio.ByteBuffer data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      java.nio.ByteBuffer data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      com.google.protobuf.ByteString data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      com.google.protobuf.ByteString data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(byte[] data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      byte[] data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(java.io.InputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseWithIOException(PARSER, input);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      java.io.InputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseWithIOException(PARSER, input, extensionRegistry);
-  }
-
-  public static com.literature.chat.netty.protocol.AuthPayload parseDelimitedFrom(java.io.InputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseDelimitedWithIOException(PARSER, input);
-  }
-
-  public static com.literature.chat.netty.protocol.AuthPayload parseDelimitedFrom(
-      java.io.InputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      com.google.protobuf.CodedInputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseWithIOException(PARSER, input);
-  }
-  public static com.literature.chat.netty.protocol.AuthPayload parseFrom(
-      com.google.protobuf.CodedInputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessage
-        .parseWithIOException(PARSER, input, extensionRegistry);
-  }
-
-  @java.lang.Override
-  public Builder newBuilderForType() { return newBuilder(); }
-  public static Builder newBuilder() {
-    return DEFAULT_INSTANCE.toBuilder();
-  }
-  public static Builder newBuilder(com.literature.chat.netty.protocol.AuthPayload prototype) {
-    return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
-  }
-  @java.lang.Override
-  public Builder toBuilder() {
-    return this == DEFAULT_INSTANCE
-        ? new Builder() : new Builder().mergeFrom(this);
-  }
-
-  @java.lang.Override
-  protected Builder newBuilderForType(
-      com.google.protobuf.GeneratedMessage.BuilderParent parent) {
-    Builder builder = new Builder(parent);
-    return builder;
-  }
-  /**
-   * <pre>
-   * 认证请求负载 (使用 content 字段传递 token)
-   * </pre>
-   *
-   * Protobuf type {@code com.literature.chat.netty.protocol.AuthPayload}
-   */
-  public static final class Builder extends
-      com.google.protobuf.GeneratedMessage.Builder<Builder> implements
-      // @@protoc_insertion_point(builder_implements:com.literature.chat.netty.protocol.AuthPayload)
-      com.literature.chat.netty.protocol.AuthPayloadOrBuilder {
-    public static final com.google.protobuf.Descriptors.Descriptor
-        getDescriptor() {
-      return com.literature.chat.netty.protocol.ChatProtocol.internal_static_com_literature_chat_netty_protocol_AuthPayload_descriptor;
-    }
-
-    @java.lang.Override
-    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
-        internalGetFieldAccessorTable() {
-      return com.literature.chat.netty.protocol.ChatProtocol.internal_static_com_literature_chat_netty_protocol_AuthPayload_fieldAccessorTable
-          .ensureFieldAccessorsInitialized(
-              com.literature.chat.netty.protocol.AuthPayload.class, com.literature.chat.netty.protocol.AuthPayload.Builder.class);
-    }
-
-    // Construct using com.literature.chat.netty.protocol.AuthPayload.newBuilder()
-    private Builder() {
-
-    }
-
-    private Builder(
-        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
-      super(parent);
-
-    }
-    @java.lang.Override
-    public Builder clear() {
-      super.clear();
-      bitField0_ = 0;
-      token_ = "";
-      deviceId_ = "";
-      return this;
-    }
-
-    @java.lang.Override
-    public com.google.protobuf.Descriptors.Descriptor
-        getDescriptorForType() {
-      return com.literature.chat.netty.protocol.ChatProtocol.internal_static_com_literature_chat_netty_protocol_AuthPayload_descriptor;
-    }
-
-    @java.lang.Override
-    public com.literature.chat.netty.protocol.AuthPayload getDefaultInstanceForType() {
-      return com.literature.chat.netty.protocol.AuthPayload.getDefaultInstance();
-    }
-
-    @java.lang.Override
-    public com.literature.chat.netty.protocol.AuthPayload build() {
-      com.literature.chat.netty.protocol.AuthPayload result = buildPartial();
-      if (!result.isInitialized()) {
-        throw newUninitializedMessageException(result);
-      }
-      return result;
-    }
-
-    @java.lang.Override
-    public com.literature.chat.netty.protocol.AuthPayload buildPartial() {
-      com.literature.chat.netty.protocol.AuthPayload result = new com.literature.chat.netty.protocol.AuthPayload(this);
-      if (bitField0_ != 0) { buildPartial0(result); }
-      onBuilt();
-      return result;
-    }
-
-    private void buildPartial0(com.literature.chat.netty.protocol.AuthPayload result) {
-      int from_bitField0_ = bitField0_;
-      if (((from_bitField0_ & 0x00000001) != 0)) {
-        result.token_ = token_;
-      }
-      if (((from_bitField0_ & 0x00000002) != 0)) {
-        result.deviceId_ = deviceId_;
-      }
-    }
-
-    @java.lang.Override
-    public Builder mergeFrom(com.google.protobuf.Message other) {
-      if (other instanceof com.literature.chat.netty.protocol.AuthPayload) {
-        return mergeFrom((com.literature.chat.netty.protocol.AuthPayload)other);
-      } else {
-        super.mergeFrom(other);
-        return this;
-      }
-    }
-
-    public Builder mergeFrom(com.literature.chat.netty.protocol.AuthPayload other) {
-      if (other == com.literature.chat.netty.protocol.AuthPayload.getDefaultInstance()) return this;
-      if (!other.getToken().isEmpty()) {
-        token_ = other.token_;
-        bitField0_ |= 0x00000001;
-        onChanged();
-      }
-      if (!other.getDeviceId().isEmpty()) {
-        deviceId_ = other.deviceId_;
-        bitField0_ |= 0x00000002;
-        onChanged();
-      }
-      this.mergeUnknownFields(other.getUnknownFields());
-      onChanged();
-      return this;
-    }
-
-    @java.lang.Override
-    public final boolean isInitialized() {
-      return true;
-    }
-
-    @java.lang.Override
-    public Builder mergeFrom(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws java.io.IOException {
-      if (extensionRegistry == null) {
-        throw new java.lang.NullPointerException();
-      }
-      try {
-        boolean done = false;
-        while (!done) {
-          int tag = input.readTag();
-          switch (tag) {
-            case 0:
-              done = true;
-              break;
-            case 10: {
-              token_ = input.readStringRequireUtf8();
-              bitField0_ |= 0x00000001;
-              break;
-            } // case 10
-            case 18: {
-              deviceId_ = input.readStringRequireUtf8();
-              bitField0_ |= 0x00000002;
-              break;
-            } // case 18
-            default: {
-              if (!super.parseUnknownField(input, extensionRegistry, tag)) {
-                done = true; // was an endgroup tag
-              }
-              break;
-            } // default:
-          } // switch (tag)
-        } // while (!done)
-      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-        throw e.unwrapIOException();
-      } finally {
-        onChanged();
-      } // finally
-      return this;
-    }
-    private int bitField0_;
-
-    private java.lang.Object token_ = "";
-    /**
-     * <code>string token = 1;</code>
-     * @return The token.
-     */
-    public java.lang.String getToken() {
-      java.lang.Object ref = token_;
-      if (!(ref instanceof java.lang.String)) {
-        com.google.protobuf.ByteString bs =
-            (com.google.protobuf.ByteString) ref;
-        java.lang.String s = bs.toStringUtf8();
-        token_ = s;
-        return s;
-      } else {
-        return (java.lang.String) ref;
-      }
-    }
-    /**
-     * <code>string token = 1;</code>
-     * @return The bytes for token.
-     */
-    public com.google.protobuf.ByteString
-        getTokenBytes() {
-      java.lang.Object ref = token_;
-      if (ref instanceof String) {
-        com.google.protobuf.ByteString b = 
-            com.google.protobuf.ByteString.copyFromUtf8(
-                (java.lang.String) ref);
-        token_ = b;
-        return b;
-      } else {
-        return (com.google.protobuf.ByteString) ref;
-      }
-    }
-    /**
-     * <code>string token = 1;</code>
-     * @param value The token to set.
-     * @return This builder for chaining.
-     */
-    public Builder setToken(
-        java.lang.String value) {
-      if (value == null) { throw new NullPointerException(); }
-      token_ = value;
-      bitField0_ |= 0x00000001;
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>string token = 1;</code>
-     * @return This builder for chaining.
-     */
-    public Builder clearToken() {
-      token_ = getDefaultInstance().getToken();
-      bitField0_ = (bitField0_ & ~0x00000001);
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>string token = 1;</code>
-     * @param value The bytes for token to set.
-     * @return This builder for chaining.
-     */
-    public Builder setTokenBytes(
-        com.google.protobuf.ByteString value) {
-      if (value == null) { throw new NullPointerException(); }
-      checkByteStringIsUtf8(value);
-      token_ = value;
-      bitField0_ |= 0x00000001;
-      onChanged();
-      return this;
-    }
-
-    private java.lang.Object deviceId_ = "";
-    /**
-     * <code>string device_id = 2;</code>
-     * @return The deviceId.
-     */
-    public java.lang.String getDeviceId() {
-      java.lang.Object ref = deviceId_;
-      if (!(ref instanceof java.lang.String)) {
-        com.google.protobuf.ByteString bs =
-            (com.google.protobuf.ByteString) ref;
-        java.lang.String s = bs.toStringUtf8();
-        deviceId_ = s;
-        return s;
-      } else {
-        return (java.lang.String) ref;
-      }
-    }
-    /**
-     * <code>string device_id = 2;</code>
-     * @return The bytes for deviceId.
-     */
-    public com.google.protobuf.ByteString
-        getDeviceIdBytes() {
-      java.lang.Object ref = deviceId_;
-      if (ref instanceof String) {
-        com.google.protobuf.ByteString b = 
-            com.google.protobuf.ByteString.copyFromUtf8(
-                (java.lang.String) ref);
-        deviceId_ = b;
-        return b;
-      } else {
-        return (com.google.protobuf.ByteString) ref;
-      }
-    }
-    /**
-     * <code>string device_id = 2;</code>
-     * @param value The deviceId to set.
-     * @return This builder for chaining.
-     */
-    public Builder setDeviceId(
-        java.lang.String value) {
-      if (value == null) { throw new NullPointerException(); }
-      deviceId_ = value;
-      bitField0_ |= 0x00000002;
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>string device_id = 2;</code>
-     * @return This builder for chaining.
-     */
-    public Builder clearDeviceId() {
-      deviceId_ = getDefaultInstance().getDeviceId();
-      bitField0_ = (bitField0_ & ~0x00000002);
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>string device_id = 2;</code>
-     * @param value The bytes for deviceId to set.
-     * @return This builder for chaining.
-     */
-    public Builder setDeviceIdBytes(
-        com.google.protobuf.ByteString value) {
-      if (value == null) { throw new NullPointerException(); }
-      checkByteStringIsUtf8(value);
-      deviceId_ = value;
-      bitField0_ |= 0x00000002;
-      onChanged();
-      return this;
-    }
-
-    // @@protoc_insertion_point(builder_scope:com.literature.chat.netty.protocol.AuthPayload)
-  }
-
-  // @@protoc_insertion_point(class_scope:com.literature.chat.netty.protocol.AuthPayload)
-  private static final com.literature.chat.netty.protocol.AuthPayload DEFAULT_INSTANCE;
-  static {
-    DEFAULT_INSTANCE = new com.literature.chat.netty.protocol.AuthPayload();
-  }
-
-  public static com.literature.chat.netty.protocol.AuthPayload getDefaultInstance() {
-    return DEFAULT_INSTANCE;
-  }
-
-  private static final com.google.protobuf.Parser<AuthPayload>
-      PARSER = new com.google.protobuf.AbstractParser<AuthPayload>() {
-    @java.lang.Override
-    public AuthPayload parsePartialFrom(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      Builder builder = newBuilder();
-      try {
-        builder.mergeFrom(input, extensionRegistry);
-      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-        throw e.setUnfinishedMessage(builder.buildPartial());
-      } catch (com.google.protobuf.UninitializedMessageException e) {
-        throw e.asInvalidProtocolBufferException().setUnfinishedMessage(builder.buildPartial());
-      } catch (java.io.IOException e) {
-        throw new com.google.protobuf.InvalidProtocolBufferException(e)
-            .setUnfinishedMessage(builder.buildPartial());
-      }
-      return builder.buildPartial();
-    }
-  };
-
-  public static com.google.protobuf.Parser<AuthPayload> parser() {
-    return PARSER;
-  }
-
-  @java.lang.Override
-  public com.google.protobuf.Parser<AuthPayload> getParserForType() {
-    return PARSER;
-  }
-
-  @java.lang.Override
-  public com.literature.chat.netty.protocol.AuthPayload getDefaultInstanceForType() {
-    return DEFAULT_INSTANCE;
-  }
-
-}
-
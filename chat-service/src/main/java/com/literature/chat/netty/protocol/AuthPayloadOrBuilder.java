@@ -1,35 +0,0 @@
-// Generated by the protocol buffer compiler.  DO NOT EDIT!
-// NO CHECKED-IN PROTOBUF GENCODE
-// source: chat-service/src/main/proto/ChatProtocol.proto
-// Protobuf Java Version: 4.29.3
-
-package com.literature.chat.netty.protocol;
-
-public interface AuthPayloadOrBuilder extends
-    // @@protoc_insertion_point(interface_extends:com.literature.chat.netty.protocol.AuthPayload)
-    com.google.protobuf.MessageOrBuilder {
-
-  /**
-   * <code>string token = 1;</code>
-   * @return The token.
-   */
-  java.lang.String getToken();
-  /**
-   * <code>string token = 1;</code>
-   * @return The bytes for token.
-   */
-  com.google.protobuf.ByteString
-      getTokenBytes();
-
-  /**
-   * <code>string device_id = 2;</code>
-   * @return The deviceId.
-   */
-  java.lang.String getDeviceId();
-  /**
-   * <code>string device_id = 2;</code>
-   * @return The bytes for deviceId.
-   */
-  com.google.protobuf.ByteString
-      getDeviceIdBytes();
-}
@@ -1,29 +0,0 @@
-// Generated by the protocol buffer compiler.  DO NOT EDIT!
-// NO CHECKED-IN PROTOBUF GENCODE
-// source: chat-service/src/main/proto/ChatProtocol.proto
-// Protobuf Java Version: 4.29.3
-
-package com.literature.chat.netty.protocol;
-
-public interface AuthResponseOrBuilder extends
-    // @@protoc_insertion_point(interface_extends:com.literature.chat.netty.protocol.AuthResponse)
-    com.google.protobuf.MessageOrBuilder {
-
-  /**
-   * <code>bool success = 1;</code>
-   * @return The success.
-   */
-  boolean getSuccess();
-
-  /**
-   * <code>string message = 2;</code>
-   * @return The message.
-   */
-  java.lang.String getMessage();
-  /**
-   * <code>string message = 2;</code>
-   * @return The bytes for message.
-   */
-  com.google.protobuf.ByteString
-      getMessageBytes();
-}
@@ -7,9 +7,31 @@ import lombok.Data;
  */
 @Data
 public class NettyMessage {
+
+    /**
+     * 心跳帧，所有连接共享的只读实例: 心跳不应答，不保留客户端的 reqId / serial，解码时不为每帧分配对象
+     */
+    public static final NettyMessage HEARTBEAT = new ReadOnlyMessage(new ReadOnlyHeader((byte) CmdType.HEARTBEAT_VALUE));
+
     private Header header;
     private Object body; // Protobuf 对象
 
+    /**
+     * 构造服务端下发的消息
+     */
+    public static NettyMessage of(int cmdType, Object body) {
+        Header header = new Header();
+        header.setMagic((short) 0xCAFE);
+        header.setVersion((byte) 1);
+        header.setSerial((byte) 1);
+        header.setCmdType((byte) cmdType);
+        header.setReqId(System.currentTimeMillis());
+        NettyMessage message = new NettyMessage();
+        message.setHeader(header);
+        message.setBody(body);
+        return message;
+    }
+
     @Data
     public static class Header {
         private short magic; // 魔数
@@ -19,4 +41,64 @@ public class NettyMessage {
         private long reqId; // 请求ID
         private int length; // 消息体长度
     }
+
+    /**
+     * 共享实例，修改时抛出 UnsupportedOperationException
+     */
+    private static final class ReadOnlyMessage extends NettyMessage {
+
+        private ReadOnlyMessage(Header header) {
+            super.setHeader(header);
+        }
+
+        @Override
+        public void setHeader(Header header) {
+            throw new UnsupportedOperationException("Shared message is read-only");
+        }
+
+        @Override
+        public void setBody(Object body) {
+            throw new UnsupportedOperationException("Shared message is read-only");
+        }
+    }
+
+    private static final class ReadOnlyHeader extends Header {
+
+        private ReadOnlyHeader(byte cmdType) {
+            super.setMagic((short) 0xCAFE);
+            super.setVersion((byte) 1);
+            super.setSerial((byte) 1);
+            super.setCmdType(cmdType);
+        }
+
+        @Override
+        public void setMagic(short magic) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+
+        @Override
+        public void setVersion(byte version) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+
+        @Override
+        public void setSerial(byte serial) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+
+        @Override
+        public void setCmdType(byte cmdType) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+
+        @Override
+        public void setReqId(long reqId) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+
+        @Override
+        public void setLength(int length) {
+            throw new UnsupportedOperationException("Shared message header is read-only");
+        }
+    }
 }
@@ -0,0 +1,272 @@
+package com.literature.chat.netty.push;
+
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.session.SessionManager;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.Timeout;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 每连接投递确认窗口
+ * <p>
+ * 开启后，写出的单聊 / 群聊消息按 message_id 登记到原始类型的 {@link LongObjectHashMap}，收到 ACK 后移除。
+ * ACK 按会话累计: 客户端合并一段时间内收到的消息，每个会话 (群聊为 session_id，单聊为 0) 只回报最近收到的一条的 seq。
+ * 同一连接上的帧按写出顺序到达，收到这条即收到了它之前写出的全部帧，因此清除同一会话中不晚于它写出的消息。
+ * 比较的是写出顺序而不是 seq 大小: seq 由各节点按号段分配，不同节点发出的消息交错，seq 小的可能后写出。
+ * 没有 seq 的消息仍可按 message_id 单条确认。
+ * <p>
+ * 窗口非空时在时间轮上挂一个检查任务，超过 ack-timeout 未确认的消息原样重传，重传次数用尽或窗口超过上限时断开连接，
+ * 未确认的单聊消息转入离线队列 (与出站队列溢出同一规则，群聊由 SYNC 补齐)。
+ * <p>
+ * 所有方法都在 Channel 的 EventLoop 上执行，窗口无需同步。
+ */
+@Slf4j
+public class DeliveryAckHandler extends ChannelDuplexHandler {
+
+    private final DeliveryAckManager manager;
+    private final int maxInFlight;
+    private final long ackTimeoutNanos;
+    private final int maxRetransmits;
+
+    private final LongObjectHashMap<InFlight> window = new LongObjectHashMap<>();
+    private ChannelHandlerContext ctx;
+    private boolean enabled;
+    private Timeout retransmitCheck;
+
+    /**
+     * 登记顺序，即消息在连接上的写出顺序
+     */
+    private long writeOrder;
+
+    public DeliveryAckHandler(DeliveryAckManager manager, int maxInFlight, long ackTimeoutNanos, int maxRetransmits) {
+        this.manager = manager;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.ackTimeoutNanos = ackTimeoutNanos;
+        this.maxRetransmits = maxRetransmits;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+        ctx.channel().attr(DeliveryAckManager.HANDLER).set(this);
+    }
+
+    void enable() {
+        enabled = true;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (enabled && msg instanceof NettyMessage && ((NettyMessage) msg).getBody() instanceof ChatPayload) {
+            NettyMessage message = (NettyMessage) msg;
+            track(message.getHeader().getCmdType(), (ChatPayload) message.getBody());
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof NettyMessage && ((NettyMessage) msg).getHeader().getCmdType() == CmdType.ACK_VALUE) {
+            Object body = ((NettyMessage) msg).getBody();
+            if (enabled && body instanceof ChatPayload) {
+                acknowledge((ChatPayload) body);
+            }
+            return;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    void track(byte cmdType, ChatPayload payload) {
+        if (!enabled || payload.getMessageId() == 0
+                || (cmdType != CmdType.SINGLE_CHAT_VALUE && cmdType != CmdType.GROUP_CHAT_VALUE)) {
+            return;
+        }
+        if (window.containsKey(payload.getMessageId())) {
+            // 重复写出 (例如离线补推与实时推送重叠)，沿用已有的登记
+            return;
+        }
+        long sessionId = cmdType == CmdType.GROUP_CHAT_VALUE ? payload.getTargetId() : 0L;
+        window.put(payload.getMessageId(), new InFlight(cmdType, payload, sessionId, ++writeOrder, System.nanoTime()));
+        manager.inFlight(1);
+        if (window.size() > maxInFlight) {
+            log.warn("Channel {} has {} unacknowledged messages, closing", ctx.channel().id(), window.size());
+            manager.unresponsive();
+            ctx.close();
+            return;
+        }
+        scheduleCheck(ackTimeoutNanos);
+    }
+
+    /**
+     * 消息是否在确认窗口中 (由本处理器负责重传与断开时的溢出)
+     */
+    boolean tracks(Object msg) {
+        if (!enabled || window.isEmpty() || !(msg instanceof NettyMessage)
+                || !(((NettyMessage) msg).getBody() instanceof ChatPayload)) {
+            return false;
+        }
+        long messageId = ((ChatPayload) ((NettyMessage) msg).getBody()).getMessageId();
+        return messageId != 0 && window.containsKey(messageId);
+    }
+
+    private void acknowledge(ChatPayload ack) {
+        int acked;
+        if (ack.getSeq() != 0) {
+            acked = acknowledgeThrough(ack.getSessionId(), ack.getSeq());
+        } else {
+            acked = ack.getMessageId() != 0 && window.remove(ack.getMessageId()) != null ? 1 : 0;
+        }
+        if (acked > 0) {
+            manager.inFlight(-acked);
+            manager.acked(acked);
+        }
+        if (window.isEmpty()) {
+            cancelCheck();
+        }
+    }
+
+    /**
+     * 累计确认: 清除该会话中不晚于 seq 对应消息写出的全部消息。找不到 seq (重复或过期的 ACK) 时不做任何事
+     */
+    private int acknowledgeThrough(long sessionId, long seq) {
+        long through = 0;
+        for (InFlight entry : window.values()) {
+            if (entry.sessionId == sessionId && entry.payload.getSeq() == seq) {
+                through = entry.order;
+                break;
+            }
+        }
+        if (through == 0) {
+            return 0;
+        }
+        long[] acked = new long[window.size()];
+        int count = 0;
+        for (LongObjectMap.PrimitiveEntry<InFlight> e : window.entries()) {
+            if (e.value().sessionId == sessionId && e.value().order <= through) {
+                acked[count++] = e.key();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            window.remove(acked[i]);
+        }
+        return count;
+    }
+
+    private void scheduleCheck(long delayNanos) {
+        if (retransmitCheck != null) {
+            return;
+        }
+        retransmitCheck = manager.schedule(timeout -> {
+            try {
+                ctx.executor().execute(this::checkRetransmits);
+            } catch (RejectedExecutionException e) {
+                // EventLoop 已关闭，连接随之断开
+            }
+        }, delayNanos);
+    }
+
+    private void checkRetransmits() {
+        retransmitCheck = null;
+        if (!ctx.channel().isActive() || window.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long nextDue = Long.MAX_VALUE;
+        int resent = 0;
+        for (LongObjectMap.PrimitiveEntry<InFlight> e : window.entries()) {
+            InFlight entry = e.value();
+            if (now - entry.sentAt >= ackTimeoutNanos) {
+                if (entry.attempts >= maxRetransmits) {
+                    log.warn("Message {} not acknowledged after {} retransmits, closing channel {}",
+                            e.key(), entry.attempts, ctx.channel().id());
+                    manager.unresponsive();
+                    ctx.close();
+                    return;
+                }
+                // 从本处理器之后写出，不会被重复登记；写出顺序沿用首次写出，累计确认只会更保守
+                ctx.write(NettyMessage.of(entry.cmdType, entry.payload), ctx.voidPromise());
+                entry.attempts++;
+                entry.sentAt = now;
+                resent++;
+            }
+            nextDue = Math.min(nextDue, entry.sentAt + ackTimeoutNanos);
+        }
+        if (resent > 0) {
+            ctx.flush();
+            manager.retransmitted(resent);
+        }
+        scheduleCheck(Math.max(0, nextDue - now));
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        cancelCheck();
+        spillUnacked();
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        cancelCheck();
+        spillUnacked();
+    }
+
+    private void spillUnacked() {
+        if (window.isEmpty()) {
+            return;
+        }
+        int count = window.size();
+        SessionManager.ChannelSession session = ctx.channel().attr(SessionManager.SESSION).get();
+        if (session != null) {
+            List<ChatMessageDTO> messages = new ArrayList<>(count);
+            for (InFlight entry : window.values()) {
+                ChatMessageDTO message = OutboundQueueManager.toOfflineMessage(entry.cmdType, entry.payload);
+                if (message != null) {
+                    messages.add(message);
+                }
+            }
+            // 按发出顺序 (message_id 递增) 入队
+            messages.sort((a, b) -> Long.compare(a.getMessageId(), b.getMessageId()));
+            manager.spillUnacked(session.getUserId(), messages);
+        } else {
+            log.warn("Dropped {} unacknowledged messages of unauthenticated channel {}", count, ctx.channel().id());
+        }
+        window.clear();
+        manager.inFlight(-count);
+    }
+
+    private void cancelCheck() {
+        if (retransmitCheck != null) {
+            retransmitCheck.cancel();
+            retransmitCheck = null;
+        }
+    }
+
+    private static final class InFlight {
+        private final byte cmdType;
+        private final ChatPayload payload;
+        private final long sessionId;
+        private final long order;
+        private long sentAt;
+        private int attempts;
+
+        private InFlight(byte cmdType, ChatPayload payload, long sessionId, long order, long sentAt) {
+            this.cmdType = cmdType;
+            this.payload = payload;
+            this.sessionId = sessionId;
+            this.order = order;
+            this.sentAt = sentAt;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.literature.chat.netty.push;
+
+import com.literature.chat.config.NettyProperties;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.service.OfflineMessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投递确认 (至少一次)
+ * <p>
+ * 认证时声明 {@code ack_enabled} 的连接由 {@link DeliveryAckHandler} 跟踪已写出但未确认的单聊 / 群聊消息，
+ * 全部连接共用一个 {@link HashedWheelTimer} 触发重传检查。连接断开时未确认的单聊消息写入接收方的 Redis 离线队列，
+ * 重连认证后随即补推，无需再从 MongoDB 回读；未确认的群聊消息由 SYNC 补齐。客户端按 message_id 去重。
+ * 已登记的消息只由确认窗口负责溢出，{@link OutboundQueueHandler} 断开时跳过它们，避免同一条消息两次进入离线队列。
+ */
+@Slf4j
+@Component
+public class DeliveryAckManager {
+
+    static final AttributeKey<DeliveryAckHandler> HANDLER = AttributeKey.valueOf("chat.delivery.ack");
+
+    private final NettyProperties nettyProperties;
+    private final HashedWheelTimer timer;
+    private final ExecutorService spillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chat-ack-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Counter retransmitCounter;
+    private final Counter ackedCounter;
+    private final Counter unackedSpillCounter;
+    private final Counter unresponsiveCounter;
+
+    @Autowired
+    private OfflineMessageService offlineMessageService;
+
+    public DeliveryAckManager(NettyProperties nettyProperties, MeterRegistry meterRegistry) {
+        this.nettyProperties = nettyProperties;
+        this.timer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "chat-ack-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, nettyProperties.getDelivery().getTimerTick().toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("chat.delivery.in_flight", inFlight, AtomicLong::get)
+                .description("Messages written to ACK-enabled connections and not yet acknowledged")
+                .register(meterRegistry);
+        this.retransmitCounter = meterRegistry.counter("chat.delivery.retransmits");
+        this.ackedCounter = meterRegistry.counter("chat.delivery.acked");
+        this.unackedSpillCounter = Counter.builder("chat.delivery.unacked.spilled")
+                .description("Unacknowledged messages moved to the offline queue on disconnect")
+                .register(meterRegistry);
+        this.unresponsiveCounter = Counter.builder("chat.delivery.unresponsive.disconnects")
+                .description("Connections closed for not acknowledging deliveries")
+                .register(meterRegistry);
+    }
+
+    public DeliveryAckHandler newHandler() {
+        NettyProperties.Delivery delivery = nettyProperties.getDelivery();
+        return new DeliveryAckHandler(this, delivery.getMaxInFlight(), delivery.getAckTimeout().toNanos(),
+                delivery.getMaxRetransmits());
+    }
+
+    /**
+     * 认证成功且客户端声明支持 ACK 后开启跟踪
+     */
+    public void enable(Channel channel) {
+        DeliveryAckHandler handler = channel.attr(HANDLER).get();
+        if (handler != null) {
+            channel.eventLoop().execute(handler::enable);
+        }
+    }
+
+    /**
+     * 预编码帧 (群聊扇出) 不经过 NettyMessage，由扇出方在 EventLoop 上显式登记
+     */
+    public static void track(Channel channel, byte cmdType, ChatPayload payload) {
+        DeliveryAckHandler handler = channel.attr(HANDLER).get();
+        if (handler != null) {
+            handler.track(cmdType, payload);
+        }
+    }
+
+    Timeout schedule(TimerTask task, long delayNanos) {
+        return timer.newTimeout(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void inFlight(int delta) {
+        if (delta != 0) {
+            inFlight.addAndGet(delta);
+        }
+    }
+
+    void acked(int count) {
+        ackedCounter.increment(count);
+    }
+
+    void retransmitted(int count) {
+        retransmitCounter.increment(count);
+    }
+
+    void unresponsive() {
+        unresponsiveCounter.increment();
+    }
+
+    /**
+     * 在 EventLoop 上调用: 把连接断开时仍未确认的消息写入接收方的离线队列
+     */
+    void spillUnacked(long userId, List<ChatMessageDTO> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            spillExecutor.execute(() -> offlineMessageService.pushAllToOfflineQueue(userId, messages));
+            unackedSpillCounter.increment(messages.size());
+        } catch (RejectedExecutionException e) {
+            log.warn("Dropped {} unacknowledged messages of user {}: spill executor shut down", messages.size(), userId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.stop();
+        spillExecutor.shutdown();
+    }
+}
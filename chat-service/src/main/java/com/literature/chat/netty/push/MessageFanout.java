@@ -0,0 +1,119 @@
+package com.literature.chat.netty.push;
+
+import com.literature.chat.netty.codec.ChatProtocolEncoder;
+import com.literature.chat.netty.codec.crypto.ChatCryptoCodec;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.NettyMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 群消息扇出
+ * <p>
+ * 同一条消息只序列化、封帧一次，得到一个引用计数的 ByteBuf；每个接收 Channel 写入它的
+ * {@code retainedDuplicate()}，不再经过逐 Channel 的 Protobuf 编码。接收方按 EventLoop 分组，
+ * 每个 EventLoop 提交一个任务，组内先全部 write 再逐个 flush。
+ * <p>
+ * 协商了连接级会话密钥的 Channel 无法共享密文，仍按 NettyMessage 逐个写出，由 ChatCryptoCodec 加密；
+ * 共享帧是明文，与 ChatCryptoCodec 对未协商连接的处理一致。
+ */
+@Slf4j
+@Component
+public class MessageFanout {
+
+    @Autowired
+    private ChatCryptoCodec chatCryptoCodec;
+
+    /**
+     * 向一批本地 Channel 推送同一条消息
+     *
+     * @param channels 接收方 Channel (可包含已断开的连接，会被跳过)
+     * @param cmdType  指令类型
+     * @param body     消息体
+     * @return 实际投递的 Channel 数
+     */
+    public int fanout(Collection<Channel> channels, byte cmdType, ChatPayload body) {
+        return fanout(channels, cmdType, body, true);
+    }
+
+    /**
+     * 向一批本地 Channel 推送同一条消息
+     *
+     * @param flush 为 false 时只写入不 flush，由调用方在一批消息写完后统一 flush 每个 Channel
+     * @return 实际投递的 Channel 数
+     */
+    public int fanout(Collection<Channel> channels, byte cmdType, ChatPayload body, boolean flush) {
+        Map<EventLoop, List<Channel>> byEventLoop = new IdentityHashMap<>();
+        Channel first = null;
+        int delivered = 0;
+        for (Channel channel : channels) {
+            if (channel == null || !channel.isActive()) {
+                continue;
+            }
+            if (chatCryptoCodec.hasSessionKey(channel)) {
+                NettyMessage message = NettyMessage.of(cmdType, body);
+                if (flush) {
+                    channel.writeAndFlush(message, channel.voidPromise());
+                } else {
+                    channel.write(message, channel.voidPromise());
+                }
+                delivered++;
+                continue;
+            }
+            byEventLoop.computeIfAbsent(channel.eventLoop(), k -> new ArrayList<>()).add(channel);
+            if (first == null) {
+                first = channel;
+            }
+        }
+        if (first == null) {
+            return delivered;
+        }
+
+        ByteBuf frame = ChatProtocolEncoder.encodeFrame(first.alloc(), cmdType, 0L, body);
+        try {
+            for (Map.Entry<EventLoop, List<Channel>> entry : byEventLoop.entrySet()) {
+                List<Channel> batch = entry.getValue();
+                // 每个 EventLoop 任务持有一次引用，任务结束时释放
+                ByteBuf shared = frame.retain();
+                try {
+                    entry.getKey().execute(() -> writeBatch(batch, shared, flush, cmdType, body));
+                    delivered += batch.size();
+                } catch (RejectedExecutionException e) {
+                    shared.release();
+                    log.warn("Event loop rejected fan-out batch of {} channels", batch.size());
+                }
+            }
+        } finally {
+            frame.release();
+        }
+        return delivered;
+    }
+
+    private static void writeBatch(List<Channel> batch, ByteBuf shared, boolean flush, byte cmdType, ChatPayload body) {
+        try {
+            for (Channel channel : batch) {
+                // 预编码帧不会被 DeliveryAckHandler 识别，在这里登记到确认窗口
+                DeliveryAckManager.track(channel, cmdType, body);
+                channel.write(shared.retainedDuplicate(), channel.voidPromise());
+            }
+            if (flush) {
+                for (Channel channel : batch) {
+                    channel.flush();
+                }
+            }
+        } finally {
+            shared.release();
+        }
+    }
+}
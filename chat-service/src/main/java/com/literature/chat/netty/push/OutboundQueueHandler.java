@@ -0,0 +1,179 @@
+package com.literature.chat.netty.push;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每连接有界出站队列
+ * <p>
+ * Channel 可写且队列为空时直接放行；Channel 越过高水位变为不可写后，后续消息 (NettyMessage 或预编码帧)
+ * 进入本地队列，待 {@code channelWritabilityChanged} 恢复可写时按顺序写出。队列超过上限时把最早的一半
+ * 交给 {@link OutboundQueueManager} 溢出到离线队列；持续不可写超过超时时间的慢消费者会被断开。
+ * 已在 {@link DeliveryAckHandler} 确认窗口中的消息不在这里溢出: 连接仍在时由确认窗口超时重传，断开时由它转入离线队列。
+ * 只有真正交给离线队列的消息其写入视为成功，其余 (确认窗口负责的、群聊帧等被丢弃的) 写入失败。
+ * <p>
+ * 所有方法都在 Channel 的 EventLoop 上执行，队列无需同步。
+ */
+@Slf4j
+public class OutboundQueueHandler extends ChannelDuplexHandler {
+
+    private final OutboundQueueManager manager;
+    private final int maxQueueSize;
+    private final long slowConsumerTimeoutNanos;
+
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+    private ScheduledFuture<?> slowConsumerCheck;
+
+    public OutboundQueueHandler(OutboundQueueManager manager, int maxQueueSize, long slowConsumerTimeoutNanos) {
+        this.manager = manager;
+        this.maxQueueSize = Math.max(2, maxQueueSize);
+        this.slowConsumerTimeoutNanos = slowConsumerTimeoutNanos;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (queue.isEmpty() && ctx.channel().isWritable()) {
+            ctx.write(msg, promise);
+            return;
+        }
+        queue.add(new PendingWrite(msg, promise));
+        manager.queued(1);
+        if (ctx.channel().isWritable()) {
+            // 已恢复可写但仍有积压 (上次 drain 中途再次变为不可写)，保持顺序继续写出
+            drain(ctx);
+        } else if (queue.size() > maxQueueSize) {
+            spill(ctx, queue.size() - maxQueueSize / 2, new ChannelException("Outbound queue overflow"));
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            cancelSlowConsumerCheck();
+            drain(ctx);
+        } else {
+            scheduleSlowConsumerCheck(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接断开时尚未写出的消息同样交给离线队列
+        cancelSlowConsumerCheck();
+        spill(ctx, queue.size(), new ClosedChannelException());
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        cancelSlowConsumerCheck();
+        spill(ctx, queue.size(), new ClosedChannelException());
+    }
+
+    private void drain(ChannelHandlerContext ctx) {
+        if (queue.isEmpty()) {
+            return;
+        }
+        int written = 0;
+        PendingWrite pending;
+        while (ctx.channel().isWritable() && (pending = queue.poll()) != null) {
+            ctx.write(pending.msg, pending.promise);
+            written++;
+        }
+        manager.queued(-written);
+        ctx.flush();
+        if (!queue.isEmpty()) {
+            scheduleSlowConsumerCheck(ctx);
+        }
+    }
+
+    /**
+     * 从队首取出 {@code count} 条消息交给 manager 溢出，保留较新的消息继续等待写出
+     */
+    private void spill(ChannelHandlerContext ctx, int count, Throwable cause) {
+        if (count <= 0 || queue.isEmpty()) {
+            return;
+        }
+        DeliveryAckHandler ack = ctx.channel().attr(DeliveryAckManager.HANDLER).get();
+        List<Object> overflow = new ArrayList<>(count);
+        int removed = 0;
+        for (int i = 0; i < count && !queue.isEmpty(); i++) {
+            PendingWrite pending = queue.poll();
+            removed++;
+            if (ack != null && ack.tracks(pending.msg)) {
+                fail(pending.promise, cause);
+                ReferenceCountUtil.release(pending.msg);
+                continue;
+            }
+            if (OutboundQueueManager.isSpillable(pending.msg)) {
+                // 已交由离线队列受理，不再视为写失败
+                pending.promise.trySuccess();
+            } else {
+                fail(pending.promise, cause);
+            }
+            overflow.add(pending.msg);
+        }
+        manager.queued(-removed);
+        if (overflow.isEmpty()) {
+            return;
+        }
+        try {
+            manager.spill(ctx.channel(), overflow);
+        } finally {
+            for (Object msg : overflow) {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+    }
+
+    private static void fail(ChannelPromise promise, Throwable cause) {
+        // voidPromise 的失败会触发 exceptionCaught，这里只是放弃写出，不视为连接异常
+        if (!promise.isVoid()) {
+            promise.tryFailure(cause);
+        }
+    }
+
+    private void scheduleSlowConsumerCheck(ChannelHandlerContext ctx) {
+        if (slowConsumerCheck != null || slowConsumerTimeoutNanos <= 0) {
+            return;
+        }
+        slowConsumerCheck = ctx.executor().schedule(() -> {
+            slowConsumerCheck = null;
+            if (!ctx.channel().isWritable()) {
+                log.warn("Closing slow consumer {}: unwritable for {} ms with {} queued messages",
+                        ctx.channel().id(), TimeUnit.NANOSECONDS.toMillis(slowConsumerTimeoutNanos), queue.size());
+                manager.slowConsumerDisconnected();
+                ctx.close();
+            }
+        }, slowConsumerTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void cancelSlowConsumerCheck() {
+        if (slowConsumerCheck != null) {
+            slowConsumerCheck.cancel(false);
+            slowConsumerCheck = null;
+        }
+    }
+
+    private static final class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+        }
+    }
+}
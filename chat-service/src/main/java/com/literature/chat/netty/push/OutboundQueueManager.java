@@ -0,0 +1,151 @@
+package com.literature.chat.netty.push;
+
+import com.literature.chat.config.NettyProperties;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.service.OfflineMessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.Channel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 出站队列的创建、溢出与指标
+ * <p>
+ * 溢出的单聊消息写入接收方的 Redis 离线队列，用户重连时补推；群聊帧及其他控制消息直接丢弃并计数，
+ * 群聊依赖 SYNC 按会话游标补齐。{@link DeliveryAckHandler} 断开时溢出未确认消息也采用同样的规则。Redis 写入在单线程执行器上串行完成，既不阻塞 EventLoop，也保持溢出顺序。
+ */
+@Slf4j
+@Component
+public class OutboundQueueManager {
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final ExecutorService spillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chat-outbound-spill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter spilledCounter;
+    private final Counter droppedCounter;
+    private final Counter slowConsumerCounter;
+
+    @Autowired
+    private NettyProperties nettyProperties;
+
+    @Autowired
+    private OfflineMessageService offlineMessageService;
+
+    public OutboundQueueManager(MeterRegistry meterRegistry) {
+        Gauge.builder("chat.outbound.queue.depth", queueDepth, AtomicLong::get)
+                .description("Messages waiting in per-channel outbound queues")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("chat.outbound.spilled")
+                .description("Messages spilled from outbound queues to the offline queue")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("chat.outbound.dropped")
+                .description("Overflowed messages without an offline fallback (group frames, control messages)")
+                .register(meterRegistry);
+        this.slowConsumerCounter = Counter.builder("chat.outbound.slow_consumer.disconnects")
+                .description("Connections closed for staying unwritable too long")
+                .register(meterRegistry);
+    }
+
+    public OutboundQueueHandler newHandler() {
+        NettyProperties.Outbound outbound = nettyProperties.getOutbound();
+        return new OutboundQueueHandler(this, outbound.getMaxQueueSize(),
+                outbound.getSlowConsumerTimeout().toNanos());
+    }
+
+    void queued(int delta) {
+        if (delta != 0) {
+            queueDepth.addAndGet(delta);
+        }
+    }
+
+    void slowConsumerDisconnected() {
+        slowConsumerCounter.increment();
+    }
+
+    /**
+     * 在 EventLoop 上调用: 只做转换，Redis 写入交给溢出线程。调用方负责释放 {@code messages}。
+     */
+    void spill(Channel channel, List<Object> messages) {
+        Map<Long, List<ChatMessageDTO>> byUser = new LinkedHashMap<>();
+        int dropped = 0;
+        for (Object msg : messages) {
+            ChatMessageDTO dto = toOfflineMessage(msg);
+            if (dto == null) {
+                dropped++;
+            } else {
+                byUser.computeIfAbsent(dto.getTargetUserId(), k -> new ArrayList<>()).add(dto);
+            }
+        }
+        droppedCounter.increment(dropped);
+        if (byUser.isEmpty()) {
+            return;
+        }
+        int spilled = messages.size() - dropped;
+        try {
+            spillExecutor.execute(() -> byUser.forEach(offlineMessageService::pushAllToOfflineQueue));
+            spilledCounter.increment(spilled);
+            log.debug("Spilled {} outbound messages of channel {} to offline queue", spilled, channel.id());
+        } catch (RejectedExecutionException e) {
+            droppedCounter.increment(spilled);
+            log.warn("Dropped {} outbound messages of channel {}: spill executor shut down", spilled, channel.id());
+        }
+    }
+
+    /**
+     * 溢出时是否会写入离线队列 (只有单聊消息)
+     */
+    static boolean isSpillable(Object msg) {
+        return toOfflineMessage(msg) != null;
+    }
+
+    private static ChatMessageDTO toOfflineMessage(Object msg) {
+        if (!(msg instanceof NettyMessage) || !(((NettyMessage) msg).getBody() instanceof ChatPayload)) {
+            return null;
+        }
+        NettyMessage message = (NettyMessage) msg;
+        return toOfflineMessage(message.getHeader().getCmdType(), (ChatPayload) message.getBody());
+    }
+
+    /**
+     * 出站队列溢出与未确认消息溢出共用的转换: 单聊转为接收方的离线消息，群聊及其他指令返回 null (依赖 SYNC 补齐)
+     */
+    static ChatMessageDTO toOfflineMessage(byte cmdType, ChatPayload payload) {
+        if (cmdType != CmdType.SINGLE_CHAT_VALUE) {
+            return null;
+        }
+        ChatMessageDTO dto = new ChatMessageDTO();
+        dto.setMessageId(payload.getMessageId() != 0 ? payload.getMessageId() : null);
+        dto.setSeq(payload.getSeq() != 0 ? payload.getSeq() : null);
+        dto.setSenderId(payload.getSenderId());
+        dto.setTargetUserId(payload.getTargetId());
+        dto.setType(1);
+        dto.setContent(payload.getContent());
+        dto.setTimestamp(payload.getTimestamp());
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        spillExecutor.shutdown();
+    }
+}
@@ -0,0 +1,160 @@
+package com.literature.chat.netty.session;
+
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+/**
+ * 以原始 long 为键的分段并发 Map
+ * <p>
+ * 每个分段是一个 Netty {@link LongObjectHashMap} (开放寻址，键存放在 long[] 中，无装箱、无 Entry 对象)，
+ * 由 {@link StampedLock} 保护。读操作先走乐观读，校验失败时退化为读锁，正常情况下既不加锁也不分配对象。
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    /**
+     * 在分段写锁内执行的原子更新函数，返回 null 表示删除该键
+     */
+    @FunctionalInterface
+    public interface Remapper<V> {
+        V apply(long key, V current);
+    }
+
+    private final Segment<V>[] segments;
+    private final int mask;
+
+    public ConcurrentLongObjectMap() {
+        this(64, 1024);
+    }
+
+    /**
+     * @param concurrency     分段数，向上取整为 2 的幂
+     * @param initialCapacity 预计总容量，平均分配到各分段
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrency, int initialCapacity) {
+        int size = 1;
+        while (size < concurrency) {
+            size <<= 1;
+        }
+        segments = new Segment[size];
+        int segmentCapacity = Math.max(8, initialCapacity / size);
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        mask = size - 1;
+    }
+
+    public V get(long key) {
+        Segment<V> segment = segmentFor(key);
+        StampedLock lock = segment.lock;
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                V value = segment.map.get(key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                // 与写操作并发 (如扩容) 时可能读到不一致的数组，退化为读锁重试
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return segment.map.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public V put(long key, V value) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.put(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(long key) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.remove(key);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 原子地更新一个键。{@code remapper} 在分段写锁内执行，应当简短且不能访问本 Map
+     *
+     * @return 更新后的值，已删除时返回 null
+     */
+    public V compute(long key, Remapper<V> remapper) {
+        Segment<V> segment = segmentFor(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            V current = segment.map.get(key);
+            V updated = remapper.apply(key, current);
+            if (updated == null) {
+                if (current != null) {
+                    segment.map.remove(key);
+                }
+            } else if (updated != current) {
+                segment.map.put(key, updated);
+            }
+            return updated;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 逐个分段遍历全部键，{@code action} 在该分段的读锁内执行，应当简短且不能修改本 Map。
+     * 不是整体快照: 遍历期间其他分段上的并发修改可能看到也可能看不到
+     */
+    public void forEachKey(LongConsumer action) {
+        for (Segment<V> segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (LongObjectMap.PrimitiveEntry<V> entry : segment.map.entries()) {
+                    action.accept(entry.key());
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    private Segment<V> segmentFor(long key) {
+        // 与 LongObjectHashMap 内部的取模使用不同的位，避免同一分段内哈希聚集
+        long h = key * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 40) & mask];
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private final LongObjectHashMap<V> map;
+
+        private Segment(int initialCapacity) {
+            this.map = new LongObjectHashMap<>(initialCapacity);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.literature.chat.netty.session;
+
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 群会话 -> 本节点在线成员连接的倒排索引
+ * <p>
+ * sessionId -> Channel[] 存放在 {@link ConcurrentLongObjectMap} 中 (写时复制)，Channel 加入的会话记录在
+ * {@link #GROUPS} 属性上，断开时据此反向清理。群消息扇出直接取本节点的成员连接，代价与本节点在线成员数成正比，
+ * 与群总人数无关。
+ * <p>
+ * 索引在认证完成 ({@link #addChannel})、连接断开 ({@link #removeChannel}) 以及成员变更事件
+ * ({@link #memberJoined} / {@link #memberLeft}) 时维护。
+ */
+@Component
+public class GroupChannelIndex {
+
+    public static final AttributeKey<long[]> GROUPS = AttributeKey.valueOf("chat.groups");
+
+    private static final Channel[] NO_CHANNELS = new Channel[0];
+    private static final long[] NO_GROUPS = new long[0];
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    private final ConcurrentLongObjectMap<Channel[]> sessionChannels = new ConcurrentLongObjectMap<>(64, 1 << 14);
+
+    /**
+     * 认证完成后登记连接所属的全部群会话
+     */
+    public void addChannel(Channel channel, long[] sessionIds) {
+        for (long sessionId : sessionIds) {
+            join(channel, sessionId);
+        }
+        if (!channel.isActive()) {
+            // 与 channelInactive 并发: 清理可能已先于登记执行
+            removeChannel(channel);
+        }
+    }
+
+    /**
+     * 连接断开时从其所属的全部群会话中移除
+     */
+    public void removeChannel(Channel channel) {
+        long[] groups = channel.attr(GROUPS).getAndSet(NO_GROUPS);
+        if (groups == null) {
+            return;
+        }
+        for (long sessionId : groups) {
+            sessionChannels.compute(sessionId, (key, current) -> without(current, channel));
+        }
+    }
+
+    /**
+     * 群会话在本节点的在线成员连接，返回值是共享快照，不得修改
+     */
+    public Channel[] getChannels(long sessionId) {
+        Channel[] channels = sessionChannels.get(sessionId);
+        return channels == null ? NO_CHANNELS : channels;
+    }
+
+    /**
+     * 成员加入事件: 用户在本节点的连接加入该会话
+     */
+    public void memberJoined(long sessionId, long userId) {
+        for (Channel channel : sessionManager.getChannels(userId)) {
+            join(channel, sessionId);
+            if (!channel.isActive()) {
+                removeChannel(channel);
+            }
+        }
+    }
+
+    /**
+     * 成员退出事件: 用户在本节点的连接离开该会话
+     */
+    public void memberLeft(long sessionId, long userId) {
+        for (Channel channel : sessionManager.getChannels(userId)) {
+            Attribute<long[]> attribute = channel.attr(GROUPS);
+            long[] current;
+            do {
+                current = attribute.get();
+                if (current == null || indexOf(current, sessionId) < 0) {
+                    break;
+                }
+            } while (!attribute.compareAndSet(current, remove(current, sessionId)));
+            sessionChannels.compute(sessionId, (key, channels) -> without(channels, channel));
+        }
+    }
+
+    /**
+     * 本节点有在线成员的群会话数
+     */
+    public int getSessionCount() {
+        return sessionChannels.size();
+    }
+
+    private void join(Channel channel, long sessionId) {
+        Attribute<long[]> attribute = channel.attr(GROUPS);
+        long[] current;
+        do {
+            current = attribute.get();
+            if (current != null && indexOf(current, sessionId) >= 0) {
+                return;
+            }
+        } while (!attribute.compareAndSet(current, append(current, sessionId)));
+        sessionChannels.compute(sessionId, (key, channels) -> {
+            if (channels == null) {
+                return new Channel[] {channel};
+            }
+            for (Channel existing : channels) {
+                if (existing == channel) {
+                    return channels;
+                }
+            }
+            Channel[] updated = new Channel[channels.length + 1];
+            System.arraycopy(channels, 0, updated, 0, channels.length);
+            updated[channels.length] = channel;
+            return updated;
+        });
+    }
+
+    private static Channel[] without(Channel[] channels, Channel channel) {
+        if (channels == null) {
+            return null;
+        }
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i] == channel) {
+                if (channels.length == 1) {
+                    return null;
+                }
+                Channel[] updated = new Channel[channels.length - 1];
+                System.arraycopy(channels, 0, updated, 0, i);
+                System.arraycopy(channels, i + 1, updated, i, channels.length - i - 1);
+                return updated;
+            }
+        }
+        return channels;
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] append(long[] values, long value) {
+        if (values == null) {
+            return new long[] {value};
+        }
+        long[] updated = new long[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, values.length);
+        updated[values.length] = value;
+        return updated;
+    }
+
+    private static long[] remove(long[] values, long value) {
+        int index = indexOf(values, value);
+        long[] updated = new long[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, index);
+        System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+        return updated;
+    }
+}
@@ -1,49 +1,193 @@
 package com.literature.chat.netty.session;
 
 import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 
 /**
  * 会话管理器
+ * <p>
+ * userId -> Channel[] 存放在以原始 long 为键的 {@link ConcurrentLongObjectMap} 中，一个用户可同时持有多台设备的连接；
+ * Channel -> userId 不再维护反向 Map，而是在认证时写入 Channel 的 {@link #SESSION} 属性。
+ * 查询接口 ({@link #getChannels(long)}、{@link #getUserId(Channel)}) 不做任何分配。
  */
 @Slf4j
 @Component
 public class SessionManager {
 
+    public static final AttributeKey<ChannelSession> SESSION = AttributeKey.valueOf("chat.session");
+
+    private static final Channel[] NO_CHANNELS = new Channel[0];
+
     /**
-     * userId -> Channel
+     * userId -> 该用户在本节点的全部连接 (写时复制，读取方不得修改返回的数组)
      */
-    private final Map<Long, Channel> userChannelMap = new ConcurrentHashMap<>();
+    private final ConcurrentLongObjectMap<Channel[]> userChannels = new ConcurrentLongObjectMap<>(64, 1 << 16);
 
     /**
-     * ChannelId -> userId
+     * 注册连接。同一设备重复登录时，旧连接被替换并关闭
      */
-    private final Map<String, Long> channelUserMap = new ConcurrentHashMap<>();
+    public void addSession(long userId, String deviceId, Channel channel) {
+        ChannelSession session = new ChannelSession(userId, deviceId == null ? "" : deviceId);
+        channel.attr(SESSION).set(session);
+        Channel[] replaced = new Channel[1];
+        userChannels.compute(userId, (key, current) -> {
+            if (current == null) {
+                return new Channel[] {channel};
+            }
+            int same = indexOfDevice(current, session.getDeviceId());
+            if (same >= 0) {
+                replaced[0] = current[same];
+                Channel[] updated = current.clone();
+                updated[same] = channel;
+                return updated;
+            }
+            Channel[] updated = new Channel[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = channel;
+            return updated;
+        });
+        if (replaced[0] != null && replaced[0] != channel) {
+            log.info("User {} re-logged in on device '{}', closing previous channel {}",
+                    userId, session.getDeviceId(), replaced[0].id());
+            replaced[0].close();
+        }
+        log.info("User {} connected, channel: {}", userId, channel.id());
+    }
 
     public void addSession(Long userId, Channel channel) {
-        userChannelMap.put(userId, channel);
-        channelUserMap.put(channel.id().asLongText(), userId);
-        log.info("User {} connected, channel: {}", userId, channel.id());
+        addSession(userId, "", channel);
     }
 
-    public void removeSession(Channel channel) {
-        String channelId = channel.id().asLongText();
-        Long userId = channelUserMap.remove(channelId);
-        if (userId != null) {
-            userChannelMap.remove(userId);
-            log.info("User {} disconnected, channel: {}", userId, channelId);
+    /**
+     * 移除连接
+     *
+     * @return 该用户在本节点已无任何连接时返回 userId；仍有其他设备在线，或该连接已被替换时返回 null
+     */
+    public Long removeSession(Channel channel) {
+        ChannelSession session = channel.attr(SESSION).get();
+        if (session == null) {
+            return null;
+        }
+        boolean[] removed = new boolean[1];
+        Channel[] remaining = userChannels.compute(session.getUserId(), (key, current) -> {
+            int index = indexOf(current, channel);
+            if (index < 0) {
+                return current;
+            }
+            removed[0] = true;
+            if (current.length == 1) {
+                return null;
+            }
+            Channel[] updated = new Channel[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            return updated;
+        });
+        if (!removed[0]) {
+            return null;
         }
+        log.info("User {} disconnected, channel: {}", session.getUserId(), channel.id());
+        return remaining == null ? session.getBoxedUserId() : null;
     }
 
-    public Channel getChannel(Long userId) {
-        return userChannelMap.get(userId);
+    /**
+     * 用户在本节点的全部连接，不在线时返回空数组。返回值是共享快照，不得修改
+     */
+    public Channel[] getChannels(long userId) {
+        Channel[] channels = userChannels.get(userId);
+        return channels == null ? NO_CHANNELS : channels;
+    }
+
+    /**
+     * 用户最近登录的一个连接，不在线时返回 null
+     */
+    public Channel getChannel(long userId) {
+        Channel[] channels = userChannels.get(userId);
+        return channels == null ? null : channels[channels.length - 1];
+    }
+
+    public boolean isOnline(long userId) {
+        return userChannels.get(userId) != null;
     }
 
     public Long getUserId(Channel channel) {
-        return channelUserMap.get(channel.id().asLongText());
+        ChannelSession session = channel.attr(SESSION).get();
+        return session == null ? null : session.getBoxedUserId();
+    }
+
+    /**
+     * 本节点在线用户数
+     */
+    public int getUserCount() {
+        return userChannels.size();
+    }
+
+    /**
+     * 遍历本节点全部在线用户 (例如重建路由 Hash)，不是整体快照
+     */
+    public void forEachUser(LongConsumer action) {
+        userChannels.forEachKey(action);
+    }
+
+    private static int indexOf(Channel[] channels, Channel channel) {
+        if (channels != null) {
+            for (int i = 0; i < channels.length; i++) {
+                if (channels[i] == channel) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfDevice(Channel[] channels, String deviceId) {
+        for (int i = 0; i < channels.length; i++) {
+            ChannelSession session = channels[i].attr(SESSION).get();
+            if (session != null && session.getDeviceId().equals(deviceId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 绑定在 Channel 上的会话信息
+     */
+    public static final class ChannelSession {
+        private final long userId;
+        private final Long boxedUserId;
+        private final String deviceId;
+        private final long authenticatedAt;
+
+        ChannelSession(long userId, String deviceId) {
+            this.userId = userId;
+            // 装箱一次并缓存，getUserId(Channel) 因此不再分配
+            this.boxedUserId = userId;
+            this.deviceId = deviceId;
+            this.authenticatedAt = System.currentTimeMillis();
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public Long getBoxedUserId() {
+            return boxedUserId;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        /**
+         * 认证完成 (注册会话) 的时刻，epoch 毫秒
+         */
+        public long getAuthenticatedAt() {
+            return authenticatedAt;
+        }
     }
 }
@@ -1,9 +1,10 @@
 package com.literature.chat.repository;
 
 import com.literature.chat.entity.ChatMessageDoc;
-import org.springframework.data.domain.Page;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,11 +12,6 @@ import java.util.List;
 @Repository
 public interface ChatMessageMongoRepository extends MongoRepository<ChatMessageDoc, String> {
 
-    /**
-     * 查询会话历史消息
-     */
-    Page<ChatMessageDoc> findBySessionIdOrderByTimestampDesc(Long sessionId, Pageable pageable);
-
     /**
      * 查询离线消息 (时间戳大于 lastAckTime)
      */
@@ -25,4 +21,19 @@ public interface ChatMessageMongoRepository extends MongoRepository<ChatMessageD
      * 查询用户作为接收者的离线单聊消息
      */
     List<ChatMessageDoc> findByTargetUserIdAndTimestampGreaterThan(Long targetUserId, Long lastAckTime);
+
+    /**
+     * 按 (timestamp, _id) 键集翻页查询会话中游标之后的消息，时间升序；同一毫秒内的消息按 _id 区分。
+     * 排序由 idx_session_timestamp_id 反向扫描提供，不做内存排序
+     */
+    @Query(value = "{ 'sessionId': ?0, '$or': [ { 'timestamp': { '$gt': ?1 } }, { 'timestamp': ?1, '_id': { '$gt': ?2 } } ] }",
+            sort = "{ 'timestamp': 1, '_id': 1 }")
+    List<ChatMessageDoc> findSessionMessagesAfter(Long sessionId, Long timestamp, ObjectId lastId, Pageable pageable);
+
+    /**
+     * 按 (timestamp, _id) 键集翻页查询发给用户的单聊消息，时间升序；排序由 idx_target_type_timestamp_id 提供
+     */
+    @Query(value = "{ 'targetUserId': ?0, 'type': 1, '$or': [ { 'timestamp': { '$gt': ?1 } }, { 'timestamp': ?1, '_id': { '$gt': ?2 } } ] }",
+            sort = "{ 'timestamp': 1, '_id': 1 }")
+    List<ChatMessageDoc> findDirectMessagesAfter(Long targetUserId, Long timestamp, ObjectId lastId, Pageable pageable);
 }
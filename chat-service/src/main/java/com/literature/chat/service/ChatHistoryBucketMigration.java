@@ -0,0 +1,139 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageDoc;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 把 chat_messages 中的历史搬入桶集合 (chat.history.migration-enabled)
+ * <p>
+ * 启动完成后在后台线程中按 _id 升序分批读取，经 {@link ChatMessageBucketStore#append} 写入桶，每批之后把进度
+ * (最后一条的 _id) 记在 chat_migrations 中，重启后从断点继续。多节点通过 Redis 租约 {@link #LOCK_KEY} 保证只有一个
+ * 节点在迁移。只迁移 _id 早于 migration-lag 的消息，给仍在 MESSAGE 模式下的节点的写入缓冲留出落库时间；
+ * 追平后退出，之后再启动会继续补上新增的部分。源集合不做删除，确认切换到 BUCKET 后再手工清理。
+ * <p>
+ * 一批写入成功但进度未保存时崩溃，重跑会让这一批消息重复写入，读取时按 id 去重。
+ */
+@Slf4j
+@Service
+public class ChatHistoryBucketMigration {
+
+    public static final String LOCK_KEY = "chat:history:migration:lock";
+
+    private static final String PROGRESS_COLLECTION = "chat_migrations";
+    private static final String PROGRESS_ID = "chat_message_buckets";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(1);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ChatMessageBucketStore bucketStore;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private NodePresenceService nodePresenceService;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    private final Counter migratedCounter;
+    private volatile boolean running = true;
+
+    public ChatHistoryBucketMigration(MeterRegistry meterRegistry) {
+        this.migratedCounter = Counter.builder("chat.history.migration.migrated")
+                .description("Messages copied from chat_messages into buckets")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!chatProperties.getHistory().isMigrationEnabled()) {
+            return;
+        }
+        Thread worker = new Thread(this::run, "chat-history-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void run() {
+        String nodeId = nodePresenceService.getNodeId();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, LOCK_TTL))) {
+            log.info("Chat history migration is already running on {}", redisTemplate.opsForValue().get(LOCK_KEY));
+            return;
+        }
+        try {
+            migrate(nodeId);
+        } catch (Exception e) {
+            log.error("Chat history migration stopped, it resumes from the saved position on next start", e);
+        } finally {
+            redisTemplate.execute(MessageIdGenerator.RELEASE_SCRIPT, List.of(LOCK_KEY), nodeId);
+        }
+    }
+
+    private void migrate(String nodeId) {
+        ChatProperties.History config = chatProperties.getHistory();
+        Document progress = mongoTemplate.findById(PROGRESS_ID, Document.class, PROGRESS_COLLECTION);
+        ObjectId lastId = progress != null ? progress.getObjectId("lastId") : null;
+        long migrated = progress != null ? ((Number) progress.get("migrated")).longValue() : 0L;
+        ObjectId upperBound = ObjectId.getSmallestWithDate(Date.from(Instant.now().minus(config.getMigrationLag())));
+        log.info("Chat history migration started after {} ({} messages migrated so far)", lastId, migrated);
+
+        while (running) {
+            Long renewed = redisTemplate.execute(MessageIdGenerator.RENEW_SCRIPT, List.of(LOCK_KEY), nodeId,
+                    String.valueOf(LOCK_TTL.toMillis()));
+            if (renewed == null || renewed != 1) {
+                log.warn("Lost chat history migration lease, stopping at {}", lastId);
+                return;
+            }
+            Criteria range = Criteria.where("_id").lt(upperBound);
+            if (lastId != null) {
+                range = range.gt(lastId);
+            }
+            Query batch = new Query(range).with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(Math.max(1, config.getMigrationBatchSize()));
+            List<ChatMessageDoc> docs = mongoTemplate.find(batch, ChatMessageDoc.class);
+            if (docs.isEmpty()) {
+                log.info("Chat history migration caught up: {} messages migrated", migrated);
+                return;
+            }
+            int written = bucketStore.append(docs);
+            if (written < docs.size()) {
+                log.warn("Skipped {} chat history documents without session or target user", docs.size() - written);
+            }
+            lastId = new ObjectId(docs.get(docs.size() - 1).getId());
+            migrated += docs.size();
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(PROGRESS_ID)),
+                    new Update().set("lastId", lastId).set("migrated", migrated).set("updatedAt", new Date()),
+                    PROGRESS_COLLECTION);
+            migratedCounter.increment(written);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,144 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.dto.ChatHistoryPageDTO;
+import com.literature.chat.entity.ChatMessageDoc;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 会话历史翻页 (时间倒序，键集游标)
+ * <p>
+ * 与 SYNC 使用同一个键集 (timestamp, _id)，只是方向相反: 游标为上一页最后一条的 (timestamp, _id)，下一页取
+ * {@code timestamp < t OR (timestamp = t AND _id < lastId)}，按 {@code {timestamp: -1, _id: -1}} 排序。
+ * 条件写成 {@code timestamp <= t AND (timestamp < t OR _id < lastId)}，每页是 idx_session_timestamp_id 上的一段
+ * 连续范围扫描，顺序由索引提供，不做内存排序；多取一条判断是否还有下一页，不做 count，也不用 skip，
+ * 翻到多深代价都相同，同一毫秒内的多条消息也有确定的顺序。
+ * <p>
+ * 游标对客户端不透明 (URL 安全的 Base64)。客户端首次也可以直接传毫秒时间戳作为 before，从该时刻之前开始翻。
+ * before 不接受 seq: 序号按节点领取号段发放，跨节点时与时间顺序不一致，也没有可用于定位的索引。
+ * BUCKET 存储下游标含义相同，由 {@link ChatMessageBucketStore#findBefore} 逐个桶读取。
+ */
+@Service
+public class ChatHistoryQueryService {
+
+    /**
+     * 列表只返回客户端展示需要的字段
+     */
+    private static final String[] FIELDS = {"messageId", "seq", "senderId", "targetUserId", "type", "content", "timestamp"};
+
+    private static final String INDEX = "idx_session_timestamp_id";
+    private static final int OBJECT_ID_BYTES = 12;
+    private static final int CURSOR_BYTES = Long.BYTES + OBJECT_ID_BYTES;
+
+    /**
+     * 小于任何真实 _id，游标只有时间戳时 {@code _id < lastId} 不匹配任何消息，等价于 {@code timestamp < t}
+     */
+    private static final ObjectId BEFORE_ALL_IDS = new ObjectId("000000000000000000000000");
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMessageBucketStore bucketStore;
+    private final ChatProperties chatProperties;
+
+    public ChatHistoryQueryService(MongoTemplate mongoTemplate, ChatMessageBucketStore bucketStore,
+                                   ChatProperties chatProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketStore = bucketStore;
+        this.chatProperties = chatProperties;
+    }
+
+    /**
+     * 查询游标之前的一页历史
+     *
+     * @param before 上一页返回的 nextCursor，或毫秒时间戳，为空时从最新一条开始
+     * @throws IllegalArgumentException 游标无法解析
+     */
+    public ChatHistoryPageDTO page(long sessionId, String before, Integer limit) {
+        ChatProperties.History config = chatProperties.getHistory();
+        int pageSize = limit == null || limit <= 0 ? config.getPageSize() : Math.min(limit, config.getMaxPageSize());
+        Cursor cursor = Cursor.parse(before);
+        List<ChatMessageDoc> docs = config.getStorage() == ChatProperties.Storage.BUCKET
+                ? bucketStore.findBefore(2, sessionId, cursor != null ? cursor.timestamp : null,
+                        cursor != null ? cursor.lastId.toHexString() : null, pageSize + 1)
+                : mongoTemplate.find(query(sessionId, cursor != null ? cursor.timestamp : null,
+                        cursor != null ? cursor.lastId : null, pageSize + 1), ChatMessageDoc.class);
+
+        ChatHistoryPageDTO page = new ChatHistoryPageDTO();
+        boolean hasMore = docs.size() > pageSize;
+        if (hasMore) {
+            docs = docs.subList(0, pageSize);
+            ChatMessageDoc last = docs.get(docs.size() - 1);
+            page.setNextCursor(new Cursor(last.getTimestamp(), new ObjectId(last.getId())).encode());
+        }
+        page.setMessages(docs);
+        return page;
+    }
+
+    /**
+     * 一页历史的查询 (包内可见，供执行计划检查复用)
+     *
+     * @param timestamp 游标时间戳，为 null 时从最新一条开始
+     * @param lastId    游标 _id，与 timestamp 同时给出
+     */
+    static Query query(long sessionId, Long timestamp, ObjectId lastId, int limit) {
+        Criteria criteria = Criteria.where("sessionId").is(sessionId);
+        if (timestamp != null) {
+            criteria = criteria.and("timestamp").lte(timestamp)
+                    .orOperator(Criteria.where("timestamp").lt(timestamp), Criteria.where("_id").lt(lastId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+                .limit(limit)
+                .withHint(INDEX);
+        query.fields().include(FIELDS);
+        return query;
+    }
+
+    /**
+     * (timestamp, _id)，上一页最后一条
+     */
+    private static final class Cursor {
+        private final long timestamp;
+        private final ObjectId lastId;
+
+        private Cursor(long timestamp, ObjectId lastId) {
+            this.timestamp = timestamp;
+            this.lastId = lastId;
+        }
+
+        private static Cursor parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            if (value.chars().allMatch(Character::isDigit)) {
+                // 纯时间戳: 只要严格早于该时刻的消息
+                return new Cursor(Long.parseLong(value), BEFORE_ALL_IDS);
+            }
+            byte[] bytes;
+            try {
+                bytes = Base64.getUrlDecoder().decode(value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed history cursor: " + value, e);
+            }
+            if (bytes.length != CURSOR_BYTES) {
+                throw new IllegalArgumentException("Malformed history cursor: " + value);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long timestamp = buffer.getLong();
+            return new Cursor(timestamp, new ObjectId(buffer));
+        }
+
+        private String encode() {
+            byte[] bytes = ByteBuffer.allocate(CURSOR_BYTES).putLong(timestamp).put(lastId.toByteArray()).array();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageDoc;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天历史 write-behind 写入
+ * <p>
+ * 消息先进入有界缓冲区，由固定数量的写线程攒批后以无序 bulk insert (insertMany, ordered=false) 写入 MongoDB:
+ * 满 {@code batch-size} 条或第一条消息等待满 {@code flush-interval} 即写出。
+ * <ul>
+ *   <li>反压: 缓冲区满时调用方先等待 {@code offer-timeout}，仍无空间则记录反压并阻塞到有空间为止，消息不会被丢弃；</li>
+ *   <li>重试: 文档 ID 在入队时生成，重试是幂等的 (重复键视为已写入)。连接、超时等暂时性错误整批无限重试并指数退避；
+ *       单条文档级错误最多重试 {@value #MAX_DOCUMENT_ATTEMPTS} 次后记录错误日志并计数；</li>
+ *   <li>中断: 线程被中断时不再重试 (否则中断标记让退避等待立即返回，重试变成空转)，未写出的消息放回缓冲区，
+ *       写线程随即退出，由其余写线程或停机流程写出；</li>
+ *   <li>停机: 停止接收新消息，写线程写完缓冲区后退出，最多等待 {@code shutdown-timeout}；写线程都已提前退出时
+ *       由停机线程在剩余时间内写出缓冲区。</li>
+ * </ul>
+ * {@code storage = BUCKET} 时同一批中属于同一个桶的消息合并为一次 upsert (见 {@link ChatMessageBucketStore})，
+ * 批量、反压、重试逻辑不变，只是失败与重试的单位从一条消息变为一个桶的一组消息。
+ */
+@Slf4j
+@Service
+public class ChatHistoryWriter {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_DOCUMENT_ATTEMPTS = 3;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMessageBucketStore bucketStore;
+    private final ChatProperties.History config;
+    private final BlockingQueue<Pending> buffer;
+
+    private final Timer persistLatency;
+    private final DistributionSummary batchSizes;
+    private final Counter insertedCounter;
+    private final Counter backpressureCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    private Thread[] writers;
+
+    public ChatHistoryWriter(MongoTemplate mongoTemplate, ChatMessageBucketStore bucketStore,
+                             ChatProperties chatProperties, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketStore = bucketStore;
+        this.config = chatProperties.getHistory();
+        this.buffer = new ArrayBlockingQueue<>(config.getBufferCapacity());
+        this.persistLatency = Timer.builder("chat.history.persist.latency")
+                .description("Time from a message entering the write-behind buffer to MongoDB acknowledging it")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.history.batch.size")
+                .description("Messages per bulk write")
+                .register(meterRegistry);
+        this.insertedCounter = meterRegistry.counter("chat.history.inserted");
+        this.backpressureCounter = Counter.builder("chat.history.backpressure")
+                .description("Writes that found the buffer full and blocked the caller")
+                .register(meterRegistry);
+        this.retryCounter = meterRegistry.counter("chat.history.retries");
+        this.failedCounter = Counter.builder("chat.history.failed")
+                .description("Documents rejected by MongoDB after all attempts")
+                .register(meterRegistry);
+        Gauge.builder("chat.history.buffer.size", buffer, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writers = new Thread[Math.max(1, config.getWriters())];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(this::runWriter, "chat-history-writer-" + i);
+            writers[i].setDaemon(true);
+            writers[i].start();
+        }
+        log.info("Chat history writer started: {} storage, {} writers, batch {}, flush every {}",
+                config.getStorage(), writers.length, config.getBatchSize(), config.getFlushInterval());
+    }
+
+    /**
+     * 写入一条历史消息。缓冲区满时阻塞调用方
+     */
+    public void write(ChatMessageDoc doc) {
+        if (doc.getId() == null) {
+            // 客户端生成 ID，重试时重复插入会得到重复键错误而不是两条记录
+            doc.setId(new ObjectId().toHexString());
+        }
+        Pending pending = new Pending(doc);
+        if (!accepting) {
+            // 停机过程中到达的消息直接同步写入
+            requeue(flush(new ArrayList<>(List.of(pending)), NO_DEADLINE));
+            return;
+        }
+        try {
+            if (!buffer.offer(pending, config.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                backpressureCounter.increment();
+                buffer.put(pending);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            requeue(List.of(pending));
+        }
+    }
+
+    private void runWriter() {
+        int batchSize = Math.max(1, config.getBatchSize());
+        long flushIntervalNanos = config.getFlushInterval().toNanos();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 以第一条消息的入队时间计算截止时间，保证单条消息的等待不超过 flush-interval
+                long deadline = first.enqueuedAt + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                List<Pending> unwritten = flush(batch, NO_DEADLINE);
+                if (!unwritten.isEmpty()) {
+                    // 只有被中断时才会留下未写出的消息
+                    requeue(unwritten);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Chat history writer failed to flush {} messages", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写出一批消息，暂时性错误按退避重试
+     *
+     * @param deadline System.nanoTime() 截止时间，{@link #NO_DEADLINE} 表示不限
+     * @return 线程被中断或到达截止时间时尚未写出的消息，全部写出 (或已放弃) 时为空
+     */
+    private List<Pending> flush(List<Pending> batch, long deadline) {
+        batchSizes.record(batch.size());
+        List<Pending> pending = bucketed() ? bucketable(batch) : batch;
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (!pending.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()
+                    || (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0)) {
+                return pending;
+            }
+            List<List<Pending>> units = units(pending);
+            try {
+                bulkWrite(units);
+                completed(pending, Collections.emptySet());
+                return Collections.emptyList();
+            } catch (BulkOperationException e) {
+                // 无序写入: 除报错的写操作外其余均已写入
+                Set<Pending> unfinished = Collections.newSetFromMap(new IdentityHashMap<>());
+                List<Pending> retry = new ArrayList<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        // 上一次尝试实际已写入
+                        continue;
+                    }
+                    for (Pending p : units.get(error.getIndex())) {
+                        unfinished.add(p);
+                        if (++p.attempts < MAX_DOCUMENT_ATTEMPTS) {
+                            retry.add(p);
+                        } else {
+                            failedCounter.increment();
+                            log.error("Giving up on chat history document after {} attempts (code {}): {}",
+                                    p.attempts, error.getCode(), p.doc);
+                        }
+                    }
+                }
+                completed(pending, unfinished);
+                pending = retry;
+            } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+                // 连接中断、超时、主从切换: 整批重试，不丢消息
+                retryCounter.increment();
+                log.warn("MongoDB unavailable, retrying {} history messages in {} ms: {}",
+                        pending.size(), backoff, e.getMessage());
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, config.getMaxRetryBackoff().toMillis());
+            } catch (DataAccessException e) {
+                retryCounter.increment();
+                List<Pending> retry = new ArrayList<>();
+                for (Pending p : pending) {
+                    if (++p.attempts < MAX_DOCUMENT_ATTEMPTS) {
+                        retry.add(p);
+                    } else {
+                        failedCounter.increment();
+                        log.error("Giving up on chat history document after {} attempts: {}", p.attempts, p.doc, e);
+                    }
+                }
+                pending = retry;
+                sleep(backoff);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 放回缓冲区 (不阻塞)，没有空间的计为失败
+     */
+    private void requeue(List<Pending> unwritten) {
+        for (Pending p : unwritten) {
+            if (!buffer.offer(p)) {
+                failedCounter.increment();
+                log.error("Chat history buffer full, dropping unwritten document: {}", p.doc);
+            }
+        }
+    }
+
+    private boolean bucketed() {
+        return config.getStorage() == ChatProperties.Storage.BUCKET;
+    }
+
+    private List<Pending> bucketable(List<Pending> batch) {
+        List<Pending> accepted = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            if (bucketStore.accepts(p.doc)) {
+                accepted.add(p);
+            } else {
+                failedCounter.increment();
+                log.error("Chat history document has no session or target user, cannot be bucketed: {}", p.doc);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 拆分为写操作: MESSAGE 模式每条消息一个 insert，BUCKET 模式每个桶一个 upsert
+     */
+    private List<List<Pending>> units(List<Pending> pending) {
+        if (bucketed()) {
+            return bucketStore.group(pending, p -> p.doc, new ArrayList<>());
+        }
+        List<List<Pending>> units = new ArrayList<>(pending.size());
+        for (Pending p : pending) {
+            units.add(List.of(p));
+        }
+        return units;
+    }
+
+    private void bulkWrite(List<List<Pending>> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        if (bucketed()) {
+            BulkOperations bulk = bucketStore.bulkOps();
+            for (List<Pending> unit : units) {
+                List<ChatMessageDoc> docs = new ArrayList<>(unit.size());
+                for (Pending p : unit) {
+                    docs.add(p.doc);
+                }
+                bucketStore.push(bulk, docs);
+            }
+            bulk.execute();
+        } else {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessageDoc.class);
+            for (List<Pending> unit : units) {
+                bulk.insert(unit.get(0).doc);
+            }
+            bulk.execute();
+        }
+    }
+
+    private void completed(List<Pending> batch, Set<Pending> unfinished) {
+        long now = System.nanoTime();
+        int count = 0;
+        for (Pending p : batch) {
+            if (!unfinished.contains(p)) {
+                persistLatency.record(now - p.enqueuedAt, TimeUnit.NANOSECONDS);
+                count++;
+            }
+        }
+        insertedCounter.increment(count);
+    }
+
+    /**
+     * 退避等待。被中断时保留中断标记，由 {@link #flush} 的循环检查后退出
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        running = false;
+        long deadline = System.nanoTime() + config.getShutdownTimeout().toNanos();
+        boolean writersAlive = false;
+        for (Thread writer : writers) {
+            writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            writersAlive |= writer.isAlive();
+        }
+        if (!writersAlive && !buffer.isEmpty()) {
+            // 写线程被中断提前退出，剩余消息在停机线程上写出
+            List<Pending> rest = new ArrayList<>(buffer.size());
+            buffer.drainTo(rest);
+            requeue(flush(rest, deadline));
+        }
+        if (!buffer.isEmpty()) {
+            log.error("Chat history writer stopped with {} messages still buffered", buffer.size());
+        } else {
+            log.info("Chat history writer drained");
+        }
+    }
+
+    private static final class Pending {
+        private final ChatMessageDoc doc;
+        private final long enqueuedAt = System.nanoTime();
+        private int attempts;
+
+        private Pending(ChatMessageDoc doc) {
+            this.doc = doc;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageBucket;
+import com.literature.chat.entity.ChatMessageDoc;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 聊天历史桶存储 (chat.history.storage = BUCKET)
+ * <p>
+ * 写入: 同一桶的消息合并为一次 upsert，{@code $push $each} 追加到 count 仍有余量的桶，没有时新建一个桶；
+ * 一批消息对同一个桶只产生一次更新。
+ * 读取: 按 windowStart 在 idx_owner_window 上顺序读取桶 (游标每批只取少量桶)，逐个窗口在内存中按 (timestamp, id)
+ * 排序后截取，取满一页即停止，翻到多深都只读取游标附近的几个桶。
+ * <p>
+ * upsert 没有唯一键可依赖，结果未知的重试 (例如写入后连接中断) 可能让同一条消息出现两次；重复消息只可能落在
+ * 同一窗口内，读取时按 id 去重。
+ */
+@Service
+public class ChatMessageBucketStore {
+
+    private static final String INDEX = "idx_owner_window";
+
+    /**
+     * 读取时每批从服务端取回的桶数
+     */
+    private static final int CURSOR_BATCH_SIZE = 8;
+
+    private static final Comparator<ChatMessageBucket.Entry> ASCENDING = Comparator
+            .comparingLong((ChatMessageBucket.Entry e) -> timestampOf(e))
+            .thenComparing(ChatMessageBucket.Entry::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatProperties.History config;
+
+    public ChatMessageBucketStore(MongoTemplate mongoTemplate, ChatProperties chatProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.config = chatProperties.getHistory();
+    }
+
+    /**
+     * 按桶分组: 同一 (type, owner, 时间窗口) 的消息为一组，每组不超过 bucket-capacity 条。
+     * 缺少 owner (群聊无 sessionId、单聊无 targetUserId) 的消息无法归桶，放入 rejected
+     */
+    public <T> List<List<T>> group(List<T> items, Function<T, ChatMessageDoc> docOf, List<T> rejected) {
+        Map<BucketKey, List<T>> buckets = new LinkedHashMap<>();
+        for (T item : items) {
+            BucketKey key = keyOf(docOf.apply(item));
+            if (key == null) {
+                rejected.add(item);
+            } else {
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+            }
+        }
+        int capacity = Math.max(1, config.getBucketCapacity());
+        List<List<T>> groups = new ArrayList<>(buckets.size());
+        for (List<T> bucket : buckets.values()) {
+            for (int from = 0; from < bucket.size(); from += capacity) {
+                groups.add(bucket.subList(from, Math.min(bucket.size(), from + capacity)));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * 消息是否能归入某个桶
+     */
+    public boolean accepts(ChatMessageDoc doc) {
+        return keyOf(doc) != null;
+    }
+
+    public BulkOperations bulkOps() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessageBucket.class);
+    }
+
+    /**
+     * 向 bulk 追加一次 upsert，docs 必须是 {@link #group} 分出的同一组
+     */
+    public void push(BulkOperations bulk, List<ChatMessageDoc> docs) {
+        ChatMessageDoc head = docs.get(0);
+        BucketKey key = keyOf(head);
+        List<Document> entries = new ArrayList<>(docs.size());
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (ChatMessageDoc doc : docs) {
+            entries.add(toEntry(doc));
+            long timestamp = doc.getTimestamp() != null ? doc.getTimestamp() : 0L;
+            first = Math.min(first, timestamp);
+            last = Math.max(last, timestamp);
+        }
+        Query bucket = new Query(Criteria.where("owner").is(key.owner)
+                .and("type").is(key.type)
+                .and("windowStart").is(key.windowStart)
+                .and("count").lte(Math.max(1, config.getBucketCapacity()) - docs.size()));
+        Update update = new Update()
+                .push("messages").each(entries.toArray())
+                .inc("count", docs.size())
+                .min("firstTimestamp", first)
+                .max("lastTimestamp", last);
+        bulk.upsert(bucket, update);
+    }
+
+    /**
+     * 直接写入一批消息 (迁移用)，返回写入的条数；无法归桶的消息被跳过
+     */
+    public int append(List<ChatMessageDoc> docs) {
+        List<ChatMessageDoc> rejected = new ArrayList<>();
+        List<List<ChatMessageDoc>> groups = group(docs, Function.identity(), rejected);
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = bulkOps();
+        for (List<ChatMessageDoc> group : groups) {
+            push(bulk, group);
+        }
+        bulk.execute();
+        return docs.size() - rejected.size();
+    }
+
+    /**
+     * 时间倒序读取: (timestamp, id) 严格小于游标的消息，最多 limit 条
+     *
+     * @param timestamp 为 null 时从最新一条开始
+     */
+    public List<ChatMessageDoc> findBefore(int type, long owner, Long timestamp, String lastId, int limit) {
+        Criteria criteria = Criteria.where("owner").is(owner).and("type").is(type);
+        if (timestamp != null) {
+            criteria = criteria.and("windowStart").lte(windowOf(timestamp));
+        }
+        Predicate<ChatMessageBucket.Entry> filter = timestamp == null ? e -> true : e -> timestampOf(e) < timestamp
+                || (timestampOf(e) == timestamp && e.getId() != null && e.getId().compareTo(lastId) < 0);
+        return scan(new Query(criteria).with(Sort.by(Sort.Direction.DESC, "windowStart")), type, owner,
+                ASCENDING.reversed(), filter, limit);
+    }
+
+    /**
+     * 时间正序读取: (timestamp, id) 严格大于游标的消息，最多 limit 条
+     */
+    public List<ChatMessageDoc> findAfter(int type, long owner, long timestamp, String lastId, int limit) {
+        Criteria criteria = Criteria.where("owner").is(owner).and("type").is(type)
+                .and("windowStart").gte(windowOf(timestamp));
+        Predicate<ChatMessageBucket.Entry> filter = e -> timestampOf(e) > timestamp
+                || (timestampOf(e) == timestamp && e.getId() != null && e.getId().compareTo(lastId) > 0);
+        return scan(new Query(criteria).with(Sort.by(Sort.Direction.ASC, "windowStart")), type, owner,
+                ASCENDING, filter, limit);
+    }
+
+    private List<ChatMessageDoc> scan(Query query, int type, long owner, Comparator<ChatMessageBucket.Entry> order,
+                                      Predicate<ChatMessageBucket.Entry> filter, int limit) {
+        query.cursorBatchSize(CURSOR_BATCH_SIZE).withHint(INDEX);
+        query.fields().include("windowStart", "messages");
+        Page page = new Page(type, owner, order, filter, limit);
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            Iterator<ChatMessageBucket> it = buckets.iterator();
+            // 同一窗口可能有多个桶，且时间范围互相重叠，凑齐一个窗口再排序
+            List<ChatMessageBucket.Entry> window = new ArrayList<>();
+            Long windowStart = null;
+            while (it.hasNext()) {
+                ChatMessageBucket bucket = it.next();
+                if (windowStart != null && !windowStart.equals(bucket.getWindowStart())) {
+                    page.addWindow(window);
+                    window.clear();
+                    if (page.isFull()) {
+                        return page.result;
+                    }
+                }
+                windowStart = bucket.getWindowStart();
+                if (bucket.getMessages() != null) {
+                    window.addAll(bucket.getMessages());
+                }
+            }
+            page.addWindow(window);
+        }
+        return page.result;
+    }
+
+    private long windowOf(long timestamp) {
+        long window = Math.max(1, config.getBucketWindow().toMillis());
+        return timestamp - Math.floorMod(timestamp, window);
+    }
+
+    private BucketKey keyOf(ChatMessageDoc doc) {
+        int type = doc.getType() != null ? doc.getType() : 1;
+        Long owner = type == 2 ? doc.getSessionId() : doc.getTargetUserId();
+        if (owner == null) {
+            return null;
+        }
+        return new BucketKey(type, owner, windowOf(doc.getTimestamp() != null ? doc.getTimestamp() : 0L));
+    }
+
+    private static Document toEntry(ChatMessageDoc doc) {
+        Document entry = new Document("i", doc.getId());
+        if (doc.getMessageId() != null) {
+            entry.append("m", doc.getMessageId());
+        }
+        if (doc.getSeq() != null) {
+            entry.append("q", doc.getSeq());
+        }
+        if (doc.getSenderId() != null) {
+            entry.append("s", doc.getSenderId());
+        }
+        if (doc.getContent() != null) {
+            entry.append("c", doc.getContent());
+        }
+        return entry.append("t", doc.getTimestamp() != null ? doc.getTimestamp() : 0L);
+    }
+
+    private static ChatMessageDoc toDoc(int type, long owner, ChatMessageBucket.Entry entry) {
+        ChatMessageDoc doc = new ChatMessageDoc();
+        doc.setId(entry.getId());
+        doc.setMessageId(entry.getMessageId());
+        doc.setSeq(entry.getSeq());
+        doc.setSenderId(entry.getSenderId());
+        doc.setType(type);
+        if (type == 2) {
+            doc.setSessionId(owner);
+        } else {
+            doc.setTargetUserId(owner);
+        }
+        doc.setContent(entry.getContent());
+        doc.setTimestamp(entry.getTimestamp());
+        return doc;
+    }
+
+    private static long timestampOf(ChatMessageBucket.Entry entry) {
+        return entry.getTimestamp() != null ? entry.getTimestamp() : 0L;
+    }
+
+    private record BucketKey(int type, long owner, long windowStart) {
+    }
+
+    /**
+     * 按窗口依次收集一页结果
+     */
+    private static final class Page {
+        private final int type;
+        private final long owner;
+        private final Comparator<ChatMessageBucket.Entry> order;
+        private final Predicate<ChatMessageBucket.Entry> filter;
+        private final int limit;
+        private final List<ChatMessageDoc> result = new ArrayList<>();
+
+        private Page(int type, long owner, Comparator<ChatMessageBucket.Entry> order,
+                     Predicate<ChatMessageBucket.Entry> filter, int limit) {
+            this.type = type;
+            this.owner = owner;
+            this.order = order;
+            this.filter = filter;
+            this.limit = limit;
+        }
+
+        private void addWindow(List<ChatMessageBucket.Entry> window) {
+            window.sort(order);
+            Set<String> ids = new HashSet<>();
+            for (ChatMessageBucket.Entry entry : window) {
+                if (isFull()) {
+                    return;
+                }
+                if (!filter.test(entry) || (entry.getId() != null && !ids.add(entry.getId()))) {
+                    continue;
+                }
+                result.add(toDoc(type, owner, entry));
+            }
+        }
+
+        private boolean isFull() {
+            return result.size() >= limit;
+        }
+    }
+}
@@ -103,4 +103,36 @@ public interface ChatSessionService {
      * @return 成员ID列表
      */
     java.util.List<Long> getSessionMemberIds(Long sessionId);
+
+    /**
+     * 获取会话成员ID (进程内缓存)
+     *
+     * @param sessionId 会话ID
+     * @return 升序排列的成员ID，共享快照，调用方不得修改
+     */
+    long[] getSessionMembers(Long sessionId);
+
+    /**
+     * 获取用户加入的群会话ID列表
+     *
+     * @param userId 用户ID
+     * @return 群会话ID列表
+     */
+    java.util.List<Long> getUserGroupSessionIds(Long userId);
+
+    /**
+     * 添加会话成员，并广播成员变更事件
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     */
+    void addMember(Long sessionId, Long userId);
+
+    /**
+     * 移除会话成员，并广播成员变更事件
+     *
+     * @param sessionId 会话ID
+     * @param userId    用户ID
+     */
+    void removeMember(Long sessionId, Long userId);
 }
@@ -0,0 +1,175 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 消息ID生成器 (Snowflake)
+ * <p>
+ * 64 位: 1 位符号 | 41 位毫秒时间戳 (自 {@link #EPOCH_MILLIS}) | 10 位 workerId | 12 位序号。
+ * 时间戳与序号打包在一个 AtomicLong 中，每次取 {@code max(当前毫秒 << 12, 上一个值 + 1)}，一次 CAS 完成，无锁；
+ * 同一毫秒内序号用尽或时钟回拨时逻辑时间继续向前，ID 在本节点内严格递增。
+ * <p>
+ * workerId 从 Redis 租用 ({@link #WORKER_KEY_PREFIX}{id} = nodeId)，随节点心跳续约。续约发现被他人占用时重新租用；
+ * 超过租期未能续约 (例如 Redis 不可用) 时拒绝生成，避免与接手该 workerId 的节点产生重复。
+ */
+@Slf4j
+@Service
+public class MessageIdGenerator {
+
+    public static final String WORKER_KEY_PREFIX = "chat:snowflake:worker:";
+
+    /**
+     * 2024-01-01T00:00:00Z，41 位时间戳可用到 2093 年
+     */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_WORKERS = 1 << WORKER_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = WORKER_BITS + SEQUENCE_BITS;
+
+    /**
+     * 从 ARGV[3] 开始依次尝试，返回第一个空闲 (或已属于本节点) 的 workerId，全部被占用时返回 -1。
+     * ARGV[1]=nodeId, ARGV[2]=租期(ms), ARGV[3]=起始ID, ARGV[4]=key 前缀, ARGV[5]=workerId 个数
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local start = tonumber(ARGV[3])\n"
+                    + "local count = tonumber(ARGV[5])\n"
+                    + "for i = 0, count - 1 do\n"
+                    + "  local id = (start + i) % count\n"
+                    + "  local key = ARGV[4] .. id\n"
+                    + "  local owner = redis.call('GET', key)\n"
+                    + "  if owner == ARGV[1] or (not owner and redis.call('SET', key, ARGV[1], 'PX', ARGV[2], 'NX')) then\n"
+                    + "    redis.call('PEXPIRE', key, ARGV[2])\n"
+                    + "    return id\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "return -1",
+            Long.class);
+
+    /**
+     * KEYS[1] 的值等于 ARGV[1] (仍由本节点持有) 时把租期重置为 ARGV[2] 毫秒，返回 1；否则返回 0
+     */
+    static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n"
+                    + "return 0",
+            Long.class);
+
+    /**
+     * KEYS[1] 的值等于 ARGV[1] 时删除
+     */
+    static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n"
+                    + "return 0",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private NodePresenceService nodePresenceService;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    /**
+     * (毫秒时间戳 - EPOCH) << 12 | 序号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile int workerId = -1;
+
+    /**
+     * 租约在本地视角下的有效期 (System.nanoTime)，按续约请求发出的时刻计算，偏保守
+     */
+    private volatile long leaseValidUntil;
+
+    @PostConstruct
+    public void start() {
+        acquire();
+        long interval = chatProperties.getPresence().getHeartbeatInterval().toMillis();
+        nodePresenceService.getScheduler()
+                .scheduleWithFixedDelay(this::renewQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 生成一个全局唯一、本节点内递增的消息ID
+     */
+    public long nextId() {
+        if (System.nanoTime() - leaseValidUntil > 0) {
+            throw new IllegalStateException("Snowflake worker lease of node " + nodePresenceService.getNodeId()
+                    + " has expired");
+        }
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = state.accumulateAndGet(now, (prev, current) -> Math.max(current, prev + 1));
+        return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | (long) workerId << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+    }
+
+    public int getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 从消息ID中取出生成时刻 (epoch 毫秒)
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    private void acquire() {
+        String nodeId = nodePresenceService.getNodeId();
+        long requestedAt = System.nanoTime();
+        // 从节点名 (不含 incarnation) 的哈希处开始找，节点重启时大概率拿回原来的 workerId
+        int start = Math.floorMod(nodePresenceService.getNodeName().hashCode(), MAX_WORKERS);
+        Long id = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(), nodeId, leaseMillis(), String.valueOf(start),
+                WORKER_KEY_PREFIX, String.valueOf(MAX_WORKERS));
+        if (id == null || id < 0) {
+            throw new IllegalStateException("No free snowflake worker id for chat node " + nodeId);
+        }
+        workerId = id.intValue();
+        leaseValidUntil = requestedAt + chatProperties.getMessageId().getWorkerLeaseTtl().toNanos();
+        log.info("Chat node {} leased snowflake worker id {}", nodeId, workerId);
+    }
+
+    private void renewQuietly() {
+        try {
+            long requestedAt = System.nanoTime();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(WORKER_KEY_PREFIX + workerId),
+                    nodePresenceService.getNodeId(), leaseMillis());
+            if (renewed != null && renewed == 1) {
+                leaseValidUntil = requestedAt + chatProperties.getMessageId().getWorkerLeaseTtl().toNanos();
+            } else {
+                log.warn("Snowflake worker id {} was lost, leasing a new one", workerId);
+                acquire();
+            }
+        } catch (Exception e) {
+            log.error("Failed to renew snowflake worker id {}", workerId, e);
+        }
+    }
+
+    private String leaseMillis() {
+        return String.valueOf(chatProperties.getMessageId().getWorkerLeaseTtl().toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(WORKER_KEY_PREFIX + workerId), nodePresenceService.getNodeId());
+        } catch (Exception e) {
+            log.warn("Failed to release snowflake worker id {}", workerId, e);
+        }
+    }
+}
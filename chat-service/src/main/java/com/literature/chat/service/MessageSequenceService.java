@@ -0,0 +1,102 @@
+package com.literature.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.literature.chat.config.ChatProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话内消息序号
+ * <p>
+ * 群聊按会话 ({@link #SESSION_SEQ_PREFIX}{sessionId})、单聊按接收者收件箱 ({@link #USER_SEQ_PREFIX}{userId}) 计数。
+ * 每个节点用 INCRBY 一次领取 {@code sequence-block-size} 个号段，在本地依次发放，热路径上不访问 Redis。
+ * 序号全局唯一且在同一节点内递增；多个节点同时向一个会话写入时，各自号段交错，
+ * 未用完就被淘汰 (空闲超时或节点重启) 的号段会留下空洞，客户端应把空洞当作"可能有遗漏"的提示而非确定的丢失。
+ */
+@Slf4j
+@Service
+public class MessageSequenceService {
+
+    public static final String SESSION_SEQ_PREFIX = "chat:seq:session:";
+    public static final String USER_SEQ_PREFIX = "chat:seq:user:";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    private Cache<Long, Range> sessionRanges;
+    private Cache<Long, Range> userRanges;
+
+    @PostConstruct
+    public void init() {
+        ChatProperties.MessageId config = chatProperties.getMessageId();
+        sessionRanges = newCache(config);
+        userRanges = newCache(config);
+    }
+
+    /**
+     * 群会话的下一个序号
+     */
+    public long nextSessionSeq(long sessionId) {
+        return next(sessionRanges, SESSION_SEQ_PREFIX, sessionId);
+    }
+
+    /**
+     * 用户收件箱 (发给该用户的单聊) 的下一个序号
+     */
+    public long nextUserSeq(long userId) {
+        return next(userRanges, USER_SEQ_PREFIX, userId);
+    }
+
+    private long next(Cache<Long, Range> ranges, String prefix, long id) {
+        Range range = ranges.getIfPresent(id);
+        while (true) {
+            if (range != null) {
+                long seq = range.next.getAndIncrement();
+                if (seq <= range.last) {
+                    return seq;
+                }
+            }
+            // 号段用尽: 同一 key 的 compute 串行执行，只有一个线程去 Redis 领取新号段
+            range = ranges.asMap().compute(id, (key, current) ->
+                    current != null && current.next.get() <= current.last ? current : fetch(prefix, key));
+        }
+    }
+
+    private Range fetch(String prefix, long id) {
+        int blockSize = Math.max(1, chatProperties.getMessageId().getSequenceBlockSize());
+        Long last = redisTemplate.opsForValue().increment(prefix + id, blockSize);
+        if (last == null) {
+            throw new IllegalStateException("Failed to allocate sequence block for " + prefix + id);
+        }
+        return new Range(last - blockSize + 1, last);
+    }
+
+    private static Cache<Long, Range> newCache(ChatProperties.MessageId config) {
+        return Caffeine.newBuilder()
+                .maximumSize(config.getSequenceCacheSize())
+                .expireAfterAccess(config.getSequenceIdleTimeout())
+                .build();
+    }
+
+    /**
+     * 本节点持有的号段 [next, last]
+     */
+    private static final class Range {
+        private final AtomicLong next;
+        private final long last;
+
+        private Range(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 节点租约
+ * <p>
+ * 每个聊天节点在 ZSET {@link #NODES_KEY} 中持有一条租约 (score 为到期时间，取 Redis 服务器时间)，由心跳定期续约。
+ * 节点上的用户绑定存放在 Hash {@code NODE_ROUTES_PREFIX + nodeId} 中，并在 {@code USER_ROUTES_PREFIX + userId}
+ * 中保留反向索引 (见 {@link SessionRouteService})，路由查询只认租约有效的节点:
+ * 节点宕机后租约到期，它上面的全部路由在同一时刻失效，无需逐个删除。
+ * 续约时顺带移除已过期的节点并广播节点下线事件，谁先移除到谁负责广播，并通知 {@link #onNodeExpired} 的监听者回收其路由。
+ * <p>
+ * 路由相关的 key 使用同一个 hash tag {@code {routes}}，Redis Cluster 下落在同一个 slot，脚本只访问 KEYS 中声明的 key。
+ * <p>
+ * 本节点若因 Redis 抖动或长时间 GC 停顿错过续约，租约可能已被其他节点清理、路由 Hash 随之删除，而连接仍然在线。
+ * 续约脚本会报告续约前本节点的租约是否已失效，此时通知 {@link #onLeaseRestored} 的监听者重建路由。
+ * 心跳线程只用于租约续约，其他定时任务使用各自的线程，避免拖慢续约。
+ * <p>
+ * 节点ID = 节点名 + {@code #} + 进程启动时刻 (incarnation)。同名节点重启后是一个新节点，上一个进程的租约、路由与
+ * 节点专属 Topic 按已离开节点回收，不会被新进程误认或误删。
+ */
+@Slf4j
+@Service
+public class NodePresenceService {
+
+    public static final String NODES_KEY = "chat:{routes}:nodes";
+    public static final String NODE_ROUTES_PREFIX = "chat:{routes}:node:";
+    public static final String USER_ROUTES_PREFIX = "chat:{routes}:user:";
+
+    /**
+     * 续约并移除过期节点。KEYS[1]=节点 ZSET, KEYS[2]=本节点路由 Hash; ARGV[1]=节点ID, ARGV[2]=租约(ms)。
+     * 返回值第一项为 '1' 表示续约前本节点的租约已过期或已被清理 (路由可能已被回收)，其余为本次移除的节点
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n"
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n"
+                    + "local ttl = tonumber(ARGV[2])\n"
+                    + "local score = redis.call('ZSCORE', KEYS[1], ARGV[1])\n"
+                    + "local lost = '0'\n"
+                    + "if not score or tonumber(score) <= now then lost = '1' end\n"
+                    + "redis.call('ZADD', KEYS[1], now + ttl, ARGV[1])\n"
+                    + "redis.call('PEXPIRE', KEYS[2], ttl * 2)\n"
+                    + "local result = {lost}\n"
+                    + "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now)\n"
+                    + "for _, node in ipairs(expired) do\n"
+                    + "  redis.call('ZREM', KEYS[1], node)\n"
+                    + "  result[#result + 1] = node\n"
+                    + "end\n"
+                    + "return result",
+            List.class);
+
+    /**
+     * 节点租约是否有效 (按 Redis 服务器时间)。KEYS[1]=节点 ZSET, ARGV[1]=节点ID
+     */
+    private static final RedisScript<Long> LEASE_ACTIVE_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n"
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n"
+                    + "local score = redis.call('ZSCORE', KEYS[1], ARGV[1])\n"
+                    + "if score and tonumber(score) > now then return 1 end\n"
+                    + "return 0",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    @Value("${netty.port:9090}")
+    private int port;
+
+    private String nodeName;
+    private String nodeId;
+    private String routesKey;
+    private ScheduledExecutorService scheduler;
+    private final List<Runnable> leaseRestoredListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> nodeExpiredListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void start() throws UnknownHostException {
+        ChatProperties.Presence config = chatProperties.getPresence();
+        nodeName = config.getNodeId() == null || config.getNodeId().isBlank()
+                ? InetAddress.getLocalHost().getHostAddress() + ":" + port
+                : config.getNodeId();
+        nodeId = nodeName + "#" + Long.toString(System.currentTimeMillis(), 36);
+        routesKey = NODE_ROUTES_PREFIX + nodeId;
+        renew(false);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-node-presence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getHeartbeatInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::renewQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Chat node {} joined with a {} lease", nodeId, config.getLeaseTtl());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 节点名 (配置的 node-id 或 本机IP:netty端口)，不含 incarnation，重启前后不变
+     */
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * 节点租约是否仍有效。已过期但尚未被清理的租约视为无效
+     */
+    public boolean isLeaseActive(String node) {
+        Long active = redisTemplate.execute(LEASE_ACTIVE_SCRIPT, List.of(NODES_KEY), node);
+        return active != null && active == 1L;
+    }
+
+    /**
+     * 本节点的路由 Hash key
+     */
+    public String getRoutesKey() {
+        return routesKey;
+    }
+
+    /**
+     * 心跳线程，只供其他租约 (如 Snowflake workerId) 随节点心跳续约，不要在上面运行可能阻塞的任务
+     */
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 注册租约恢复监听: 本节点的租约曾失效 (路由 Hash 可能已被删除) 并在续约时重新加入后调用。
+     * 监听者在心跳线程上被调用，耗时的工作应转交给自己的线程
+     */
+    public void onLeaseRestored(Runnable listener) {
+        leaseRestoredListeners.add(listener);
+    }
+
+    /**
+     * 注册节点过期监听: 本节点在续约时移除了某个过期节点后调用，参数为该节点ID，每个过期节点只有一个节点收到。
+     * 监听者在心跳线程上被调用，耗时的工作应转交给自己的线程
+     */
+    public void onNodeExpired(Consumer<String> listener) {
+        nodeExpiredListeners.add(listener);
+    }
+
+    private void renewQuietly() {
+        try {
+            renew(true);
+        } catch (Exception e) {
+            log.error("Failed to renew lease of chat node {}", nodeId, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void renew(boolean notify) {
+        List<String> result = redisTemplate.execute(RENEW_SCRIPT, List.of(NODES_KEY, routesKey),
+                nodeId, String.valueOf(chatProperties.getPresence().getLeaseTtl().toMillis()));
+        if (result == null || result.isEmpty()) {
+            return;
+        }
+        for (String node : result.subList(1, result.size())) {
+            log.warn("Lease of chat node {} expired, all of its routes are now invalid", node);
+            SessionRouteService.publishNodeDown(redisTemplate, node);
+            for (Consumer<String> listener : nodeExpiredListeners) {
+                try {
+                    listener.accept(node);
+                } catch (Exception e) {
+                    log.error("Node expired listener of chat node {} failed", nodeId, e);
+                }
+            }
+        }
+        if (notify && "1".equals(result.get(0))) {
+            log.warn("Lease of chat node {} had expired before this renewal, rebuilding its routes", nodeId);
+            for (Runnable listener : leaseRestoredListeners) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    log.error("Lease restored listener of chat node {} failed", nodeId, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        // 正常下线: 立即释放租约，不等到期；路由已由 SessionRouteService 关闭时回收，残留的随 Hash 过期或查询时清除
+        try {
+            redisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+            SessionRouteService.publishNodeDown(redisTemplate, nodeId);
+            log.info("Chat node {} left", nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to release lease of chat node {}", nodeId, e);
+        }
+    }
+}
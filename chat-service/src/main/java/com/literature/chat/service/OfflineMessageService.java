@@ -2,21 +2,28 @@ package com.literature.chat.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.config.ChatProperties;
 import com.literature.chat.entity.ChatMessageDoc;
+import com.literature.chat.mq.RelayMessageDeserializer;
+import com.literature.chat.mq.RelayMessageSerializer;
 import com.literature.chat.netty.protocol.ChatPayload;
 import com.literature.chat.netty.protocol.CmdType;
 import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.protocol.RelayMessage;
 import com.literature.chat.netty.session.SessionManager;
-import com.literature.chat.repository.ChatMessageMongoRepository;
 import io.netty.channel.Channel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Slf4j
@@ -24,7 +31,7 @@ import java.util.List;
 public class OfflineMessageService {
 
     @Autowired
-    private ChatMessageMongoRepository messageRepository;
+    private ChatHistoryWriter chatHistoryWriter;
 
     @Autowired
     private SessionManager sessionManager;
@@ -34,21 +41,39 @@ public class OfflineMessageService {
     // Circular with ChatMessageConsumer? No, Consumer uses this.
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ChatProperties chatProperties;
+
     private static final String OFFLINE_QUEUE_PREFIX = "offline:queue:";
 
     /**
-     * 保存离线消息 (异步)
+     * 单次脚本调用追加的最大条数 (Lua unpack 受栈深度限制)
+     */
+    private static final int PUSH_CHUNK_SIZE = 1000;
+
+    /**
+     * KEYS[1] = 队列, ARGV[1] = 保留条数, ARGV[2..] = protobuf 编码的消息；追加后截断为最近 N 条
+     */
+    private static final RedisScript<Long> PUSH_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('RPUSH', KEYS[1], unpack(ARGV, 2)) "
+                    + "redis.call('LTRIM', KEYS[1], -tonumber(ARGV[1]), -1) "
+                    + "return redis.call('LLEN', KEYS[1])",
+            Long.class);
+
+    /**
+     * 保存离线消息 (写入 write-behind 缓冲区，由 {@link ChatHistoryWriter} 批量落库)
      */
-    @Async
     public void saveOfflineMessage(ChatMessageDTO message) {
         try {
             // 1. Save to MongoDB (History)
             ChatMessageDoc doc = new ChatMessageDoc();
+            doc.setMessageId(message.getMessageId());
+            doc.setSeq(message.getSeq());
             doc.setSessionId(message.getSessionId());
             doc.setSenderId(message.getSenderId());
             doc.setTargetUserId(message.getTargetUserId());
@@ -58,8 +83,8 @@ public class OfflineMessageService {
             doc.setCreatedAt(LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(message.getTimestamp()),
                     ZoneId.systemDefault()));
 
-            messageRepository.save(doc);
-            log.debug("Saved offline message to MongoDB: {}", doc);
+            chatHistoryWriter.write(doc);
+            log.debug("Queued offline message for MongoDB: {}", doc);
 
             // 2. If Single Chat and user offline, save to Redis Queue (Push mechanism)
             // Note: This method is called by ChatMessageHandler.
@@ -80,13 +105,32 @@ public class OfflineMessageService {
         if (message.getType() != 1) {
             return; // Group chat relies on history pull
         }
+        pushAllToOfflineQueue(targetUserId, List.of(message));
+    }
+
+    /**
+     * 批量推送消息到同一用户的 Redis 离线队列 (出站队列溢出时使用)
+     * <p>
+     * 追加与截断在一个 Lua 脚本里完成，一次往返；超出上限的部分本来就会被截掉，不再发送。
+     */
+    public void pushAllToOfflineQueue(Long targetUserId, List<ChatMessageDTO> messages) {
         try {
             String key = OFFLINE_QUEUE_PREFIX + targetUserId;
-            String json = objectMapper.writeValueAsString(message);
-            redisTemplate.opsForList().rightPush(key, json);
-            // Limit queue size (e.g., 50)
-            redisTemplate.opsForList().trim(key, -50, -1);
-            log.debug("Pushed offline message to Redis queue for user {}", targetUserId);
+            int maxLength = chatProperties.getOfflineQueue().getMaxLength();
+            List<ChatMessageDTO> kept = messages.size() > maxLength
+                    ? messages.subList(messages.size() - maxLength, messages.size())
+                    : messages;
+            byte[] limit = Integer.toString(maxLength).getBytes(StandardCharsets.US_ASCII);
+            for (int from = 0; from < kept.size(); from += PUSH_CHUNK_SIZE) {
+                List<ChatMessageDTO> chunk = kept.subList(from, Math.min(from + PUSH_CHUNK_SIZE, kept.size()));
+                Object[] args = new Object[chunk.size() + 1];
+                args[0] = limit;
+                for (int i = 0; i < chunk.size(); i++) {
+                    args[i + 1] = RelayMessageSerializer.toRelayMessage(chunk.get(i)).toByteArray();
+                }
+                binaryRedisTemplate.execute(PUSH_SCRIPT, List.of(key), args);
+            }
+            log.debug("Pushed {} offline messages to Redis queue for user {}", kept.size(), targetUserId);
         } catch (Exception e) {
             log.error("Failed to push to offline queue", e);
         }
@@ -94,46 +138,83 @@ public class OfflineMessageService {
 
     /**
      * 拉取并推送离线消息 (用户上线时调用)
+     * <p>
+     * 用 LPOP count 分页原子弹出，弹出与新消息追加之间不存在竞态；
+     * 若补推过程中用户已断开，本页消息放回队首，等下次上线再推。
      */
     public void pullAndPushOfflineMessages(Long userId) {
+        Channel[] channels = sessionManager.getChannels(userId);
+        if (channels.length == 0) {
+            return;
+        }
+        String key = OFFLINE_QUEUE_PREFIX + userId;
+        int pageSize = Math.max(1, chatProperties.getOfflineQueue().getDrainBatchSize());
+        int pushed = 0;
         try {
-            String key = OFFLINE_QUEUE_PREFIX + userId;
-            List<String> list = redisTemplate.opsForList().range(key, 0, -1);
-            if (list == null || list.isEmpty()) {
-                return;
+            while (true) {
+                List<byte[]> page = binaryRedisTemplate.opsForList().leftPop(key, pageSize);
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                boolean written = false;
+                for (byte[] value : page) {
+                    NettyMessage nettyMessage = decode(userId, value);
+                    if (nettyMessage == null) {
+                        continue;
+                    }
+                    for (Channel channel : channels) {
+                        if (channel.isActive()) {
+                            channel.write(nettyMessage, channel.voidPromise());
+                            written = true;
+                        }
+                    }
+                }
+                if (!written) {
+                    List<byte[]> restore = new ArrayList<>(page);
+                    Collections.reverse(restore);
+                    binaryRedisTemplate.opsForList().leftPushAll(key, restore);
+                    break;
+                }
+                // 每页只 flush 一次
+                for (Channel channel : channels) {
+                    channel.flush();
+                }
+                pushed += page.size();
+                if (page.size() < pageSize) {
+                    break;
+                }
             }
-
-            Channel channel = sessionManager.getChannel(userId);
-            if (channel == null || !channel.isActive()) {
-                return;
+            if (pushed > 0) {
+                log.info("Pushed {} offline messages to user {}", pushed, userId);
             }
+        } catch (Exception e) {
+            log.error("Failed to pull offline messages", e);
+        }
+    }
 
-            for (String json : list) {
-                ChatMessageDTO dto = objectMapper.readValue(json, ChatMessageDTO.class);
-
-                ChatPayload payload = ChatPayload.newBuilder()
-                        .setSenderId(dto.getSenderId())
-                        .setTargetId(dto.getTargetUserId())
-                        .setContent(dto.getContent())
-                        .setTimestamp(dto.getTimestamp())
-                        .build();
-
-                NettyMessage nettyMessage = new NettyMessage();
-                NettyMessage.Header header = new NettyMessage.Header();
-                header.setMagic((short) 0xCAFE);
-                header.setVersion((byte) 1);
-                header.setCmdType((byte) CmdType.SINGLE_CHAT_VALUE);
-                nettyMessage.setHeader(header);
-                nettyMessage.setBody(payload);
-
-                channel.writeAndFlush(nettyMessage);
+    private NettyMessage decode(Long userId, byte[] value) {
+        try {
+            // 升级前写入的是 JSON (总以 '{' 开头)，protobuf 的首字节是字段 tag，二者不会混淆
+            ChatMessageDTO dto = value.length > 0 && value[0] == '{'
+                    ? objectMapper.readValue(value, ChatMessageDTO.class)
+                    : RelayMessageDeserializer.fromRelayMessage(RelayMessage.parseFrom(value));
+            // 未确认而转入队列的群消息按群消息下发，target_id 为会话ID
+            boolean group = dto.getType() != null && dto.getType() == 2 && dto.getSessionId() != null;
+            ChatPayload.Builder payload = ChatPayload.newBuilder()
+                    .setSenderId(dto.getSenderId())
+                    .setTargetId(group ? dto.getSessionId() : dto.getTargetUserId() != null ? dto.getTargetUserId() : userId)
+                    .setContent(dto.getContent())
+                    .setTimestamp(dto.getTimestamp());
+            if (dto.getMessageId() != null) {
+                payload.setMessageId(dto.getMessageId());
             }
-
-            // Clear queue after pushing
-            redisTemplate.delete(key);
-            log.info("Pushed {} offline messages to user {}", list.size(), userId);
+            if (dto.getSeq() != null) {
+                payload.setSeq(dto.getSeq());
+            }
+            return NettyMessage.of(group ? CmdType.GROUP_CHAT_VALUE : CmdType.SINGLE_CHAT_VALUE, payload.build());
         } catch (Exception e) {
-            log.error("Failed to pull offline messages", e);
+            log.warn("Dropping malformed offline message for user {}", userId, e);
+            return null;
         }
     }
 }
@@ -0,0 +1,185 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageDoc;
+import com.literature.chat.netty.executor.OrderedTaskExecutor;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.protocol.SyncCursor;
+import com.literature.chat.netty.protocol.SyncRequest;
+import com.literature.chat.netty.protocol.SyncResponse;
+import com.literature.chat.netty.session.SessionManager;
+import com.literature.chat.repository.ChatMessageMongoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重连后的离线同步 (CmdType.SYNC)
+ * <p>
+ * MongoDB 中的聊天历史是离线消息的唯一来源。客户端认证后为每个会话上报最后收到的位置
+ * ({@link SyncCursor}, session_id = 0 表示发给自己的单聊)，服务端按 (timestamp, _id) 键集从索引中取一页返回，
+ * 每个会话一帧 {@link SyncResponse}。每个游标每次请求只返回一页，客户端处理完再带着新游标请求下一页，
+ * 积压再多也不会一次灌满连接；连接不可写时剩余游标原样返回并标记 has_more。
+ * <p>
+ * timestamp 是服务端接收时刻 (取自 Snowflake 消息ID)，不是客户端上报的时间。消息经 write-behind 缓冲落库，
+ * 落库顺序与 timestamp 顺序不一致: 认证之后收到的消息会实时推送，认证之前收到的消息最迟在
+ * {@code flush-interval + settle-margin} 内落库，因此认证后不满这段时间到达的 SYNC 推迟到期满再查询，
+ * 此后翻页不会越过尚未落库的消息。Redis 离线队列与 SYNC 各自独立，SYNC 追平时不清空它
+ * (队列中可能仍有未落库的消息)，重复的消息由客户端按 message_id 去重。
+ */
+@Slf4j
+@Service
+public class OfflineSyncService {
+
+    /**
+     * 客户端未带 last_id 时使用: 同一毫秒的消息视为已收到，只取更晚的
+     */
+    private static final ObjectId AFTER_ALL_IDS = new ObjectId("ffffffffffffffffffffffff");
+
+    @Autowired
+    private ChatMessageMongoRepository messageRepository;
+
+    @Autowired
+    private ChatSessionService chatSessionService;
+
+    @Autowired
+    private OrderedTaskExecutor orderedTaskExecutor;
+
+    @Autowired
+    private ChatMessageBucketStore bucketStore;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    private final Counter syncedMessages;
+    private final DistributionSummary pageSizes;
+
+    public OfflineSyncService(MeterRegistry meterRegistry) {
+        this.syncedMessages = Counter.builder("chat.sync.messages")
+                .description("Messages replayed to reconnecting clients")
+                .register(meterRegistry);
+        this.pageSizes = DistributionSummary.builder("chat.sync.page.size")
+                .description("Messages per SYNC response frame")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 处理一个 SYNC 请求，在业务执行器上按 userId 串行调用
+     */
+    public void sync(Channel channel, long userId, SyncRequest request) {
+        ChatProperties.Sync config = chatProperties.getSync();
+        SessionManager.ChannelSession session = channel.attr(SessionManager.SESSION).get();
+        long settledAt = session == null ? 0L : session.getAuthenticatedAt()
+                + chatProperties.getHistory().getFlushInterval().toMillis() + config.getSettleMargin().toMillis();
+        long delay = settledAt - System.currentTimeMillis();
+        if (delay > 0) {
+            // 认证前收到的消息可能还在 write-behind 缓冲中，期满后再回到该用户的执行队列
+            channel.eventLoop().schedule(() -> orderedTaskExecutor.execute(userId, () -> sync(channel, userId, request)),
+                    delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        int pageSize = request.getPageSize() > 0
+                ? Math.min(request.getPageSize(), config.getMaxPageSize())
+                : config.getDefaultPageSize();
+        List<SyncCursor> cursors = request.getCursorsList();
+        int handled = 0;
+        for (SyncCursor cursor : cursors) {
+            if (!channel.isActive()) {
+                return;
+            }
+            if (handled >= config.getMaxCursorsPerRequest() || !channel.isWritable()) {
+                // 超出单次上限或连接积压: 不查询，原样返回让客户端稍后再同步
+                channel.write(NettyMessage.of(CmdType.SYNC_VALUE,
+                        SyncResponse.newBuilder().setCursor(cursor).setHasMore(true).build()), channel.voidPromise());
+                continue;
+            }
+            handled++;
+            channel.write(NettyMessage.of(CmdType.SYNC_VALUE, page(userId, cursor, pageSize)), channel.voidPromise());
+        }
+        channel.flush();
+    }
+
+    private SyncResponse page(long userId, SyncCursor cursor, int pageSize) {
+        long sessionId = cursor.getSessionId();
+        if (sessionId != 0 && Arrays.binarySearch(chatSessionService.getSessionMembers(sessionId), userId) < 0) {
+            log.warn("User {} tried to sync session {} without being a member", userId, sessionId);
+            // 游标原样返回并标记拒绝，客户端不必等待这个会话
+            return SyncResponse.newBuilder().setCursor(cursor).setDenied(true).build();
+        }
+        ObjectId lastId = ObjectId.isValid(cursor.getLastId()) ? new ObjectId(cursor.getLastId()) : AFTER_ALL_IDS;
+        // 多取一条判断是否还有下一页，不做 count
+        List<ChatMessageDoc> docs;
+        if (chatProperties.getHistory().getStorage() == ChatProperties.Storage.BUCKET) {
+            docs = sessionId == 0
+                    ? bucketStore.findAfter(1, userId, cursor.getTimestamp(), lastId.toHexString(), pageSize + 1)
+                    : bucketStore.findAfter(2, sessionId, cursor.getTimestamp(), lastId.toHexString(), pageSize + 1);
+        } else {
+            PageRequest limit = PageRequest.of(0, pageSize + 1);
+            docs = sessionId == 0
+                    ? messageRepository.findDirectMessagesAfter(userId, cursor.getTimestamp(), lastId, limit)
+                    : messageRepository.findSessionMessagesAfter(sessionId, cursor.getTimestamp(), lastId, limit);
+        }
+        boolean hasMore = docs.size() > pageSize;
+        if (hasMore) {
+            docs = docs.subList(0, pageSize);
+        }
+
+        SyncResponse.Builder response = SyncResponse.newBuilder().setHasMore(hasMore);
+        for (ChatMessageDoc doc : docs) {
+            response.addMessages(toPayload(doc));
+        }
+        if (docs.isEmpty()) {
+            response.setCursor(cursor);
+        } else {
+            ChatMessageDoc last = docs.get(docs.size() - 1);
+            response.setCursor(SyncCursor.newBuilder()
+                    .setSessionId(sessionId)
+                    .setTimestamp(last.getTimestamp())
+                    .setLastId(last.getId()));
+        }
+        syncedMessages.increment(docs.size());
+        pageSizes.record(docs.size());
+        return response.build();
+    }
+
+    private static ChatPayload toPayload(ChatMessageDoc doc) {
+        boolean group = doc.getType() != null && doc.getType() == 2;
+        ChatPayload.Builder payload = ChatPayload.newBuilder()
+                .setCmd(group ? CmdType.GROUP_CHAT : CmdType.SINGLE_CHAT);
+        if (doc.getSessionId() != null) {
+            payload.setSessionId(doc.getSessionId());
+        }
+        if (doc.getSenderId() != null) {
+            payload.setSenderId(doc.getSenderId());
+        }
+        Long targetId = group ? doc.getSessionId() : doc.getTargetUserId();
+        if (targetId != null) {
+            payload.setTargetId(targetId);
+        }
+        if (doc.getContent() != null) {
+            payload.setContent(doc.getContent());
+        }
+        if (doc.getTimestamp() != null) {
+            payload.setTimestamp(doc.getTimestamp());
+        }
+        if (doc.getMessageId() != null) {
+            payload.setMessageId(doc.getMessageId());
+        }
+        if (doc.getSeq() != null) {
+            payload.setSeq(doc.getSeq());
+        }
+        return payload.build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.literature.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.literature.chat.config.ChatProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * 会话成员的进程内缓存
+ * <p>
+ * 每个会话的成员存为有序 long[] (无装箱，可二分查找)，按成员总数限制容量。每条缓存带版本号:
+ * 成员写入时对 {@link #VERSION_KEY_PREFIX} 执行 INCR 并随变更事件广播新版本，各节点收到后
+ * 若本地版本恰好落后一个版本则直接应用增量，否则丢弃该条缓存，下次读取时回源。
+ * 回源前先读版本，因此与并发写入交错时缓存的版本只会偏旧，后续事件仍能正确覆盖。
+ */
+@Slf4j
+@Service
+public class SessionMemberCache {
+
+    public static final String VERSION_KEY_PREFIX = "chat:session:members:ver:";
+
+    /**
+     * 每条缓存除成员数组外的估算开销: Caffeine 节点 + Long 键 + MemberSet + 数组头
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 64 + 16 + 24 + 16;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, MemberSet> cache;
+
+    @PostConstruct
+    public void init() {
+        ChatProperties.MemberCache config = chatProperties.getMemberCache();
+        if (!config.isEnabled()) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaximumMembers())
+                .weigher((Long sessionId, MemberSet members) -> Math.max(1, members.ids.length))
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        Gauge.builder("chat.member.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Hit ratio of the in-process session member cache")
+                .register(meterRegistry);
+        Gauge.builder("chat.member.cache.members", this, SessionMemberCache::cachedMembers)
+                .description("Member ids held in the in-process session member cache")
+                .register(meterRegistry);
+        Gauge.builder("chat.member.cache.bytes.per.member", this, SessionMemberCache::bytesPerMember)
+                .description("Estimated heap bytes per cached member id, including per-session overhead")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取会话成员，未命中时通过 {@code loader} 回源
+     *
+     * @return 升序排列的成员ID，共享快照，不得修改
+     */
+    public long[] get(long sessionId, LongFunction<long[]> loader) {
+        if (cache == null) {
+            return sorted(loader.apply(sessionId));
+        }
+        return cache.get(sessionId, key -> {
+            long version = currentVersion(key);
+            return new MemberSet(version, sorted(loader.apply(key)));
+        }).ids;
+    }
+
+    /**
+     * 成员变更事件
+     *
+     * @param version 写入方 INCR 后的版本号，旧格式事件没有版本时传 0，直接丢弃缓存
+     */
+    public void apply(long sessionId, long userId, boolean joined, long version) {
+        if (cache == null) {
+            return;
+        }
+        cache.asMap().computeIfPresent(sessionId, (key, current) -> {
+            if (version > 0 && current.version >= version) {
+                // 重复或过期的事件
+                return current;
+            }
+            if (version == 0 || current.version != version - 1) {
+                // 中间漏掉了事件，无法增量更新
+                return null;
+            }
+            int index = Arrays.binarySearch(current.ids, userId);
+            if (joined == index >= 0) {
+                return new MemberSet(version, current.ids);
+            }
+            long[] ids;
+            if (joined) {
+                int insert = -index - 1;
+                ids = new long[current.ids.length + 1];
+                System.arraycopy(current.ids, 0, ids, 0, insert);
+                ids[insert] = userId;
+                System.arraycopy(current.ids, insert, ids, insert + 1, current.ids.length - insert);
+            } else {
+                ids = new long[current.ids.length - 1];
+                System.arraycopy(current.ids, 0, ids, 0, index);
+                System.arraycopy(current.ids, index + 1, ids, index, current.ids.length - index - 1);
+            }
+            return new MemberSet(version, ids);
+        });
+    }
+
+    /**
+     * 写入方递增版本号
+     */
+    public long nextVersion(long sessionId) {
+        Long version = redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + sessionId);
+        return version == null ? 0 : version;
+    }
+
+    private long currentVersion(long sessionId) {
+        String version = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + sessionId);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    private double cachedMembers() {
+        long members = 0;
+        for (MemberSet set : cache.asMap().values()) {
+            members += set.ids.length;
+        }
+        return members;
+    }
+
+    private double bytesPerMember() {
+        long entries = 0;
+        long members = 0;
+        for (MemberSet set : cache.asMap().values()) {
+            entries++;
+            members += set.ids.length;
+        }
+        return members == 0 ? 0 : (entries * ENTRY_OVERHEAD_BYTES + members * 8.0) / members;
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static final class MemberSet {
+        private final long version;
+        private final long[] ids;
+
+        private MemberSet(long version, long[] ids) {
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+}
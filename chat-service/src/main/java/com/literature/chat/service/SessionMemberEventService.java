@@ -0,0 +1,82 @@
+package com.literature.chat.service;
+
+import com.literature.chat.netty.session.GroupChannelIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 会话成员变更事件 (基于 Redis Pub/Sub)
+ * <p>
+ * 成员加入 / 退出后向 {@link #MEMBER_EVENTS_CHANNEL} 广播，所有节点 (包括自己) 据此更新本地的
+ * {@link GroupChannelIndex} 与 {@link SessionMemberCache}。消息格式: {@code sessionId:userId:+:version} (加入) /
+ * {@code sessionId:userId:-:version} (退出)，version 为写入方递增后的成员版本号。
+ */
+@Slf4j
+@Service
+public class SessionMemberEventService implements MessageListener {
+
+    public static final String MEMBER_EVENTS_CHANNEL = "chat:session:member:events";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private GroupChannelIndex groupChannelIndex;
+
+    @Autowired
+    private SessionMemberCache sessionMemberCache;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(MEMBER_EVENTS_CHANNEL));
+    }
+
+    public void publishJoined(Long sessionId, Long userId) {
+        publish(sessionId, userId, "+");
+    }
+
+    public void publishLeft(Long sessionId, Long userId) {
+        publish(sessionId, userId, "-");
+    }
+
+    private void publish(Long sessionId, Long userId, String change) {
+        long version = sessionMemberCache.nextVersion(sessionId);
+        redisTemplate.convertAndSend(MEMBER_EVENTS_CHANNEL, sessionId + ":" + userId + ":" + change + ":" + version);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(":");
+        if (parts.length < 3) {
+            log.warn("Ignoring malformed member event: {}", body);
+            return;
+        }
+        try {
+            long sessionId = Long.parseLong(parts[0]);
+            long userId = Long.parseLong(parts[1]);
+            boolean joined = "+".equals(parts[2]);
+            long version = parts.length > 3 ? Long.parseLong(parts[3]) : 0;
+            sessionMemberCache.apply(sessionId, userId, joined, version);
+            if (joined) {
+                groupChannelIndex.memberJoined(sessionId, userId);
+            } else {
+                groupChannelIndex.memberLeft(sessionId, userId);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed member event: {}", body);
+        }
+    }
+}
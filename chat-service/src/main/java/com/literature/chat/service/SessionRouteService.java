@@ -1,56 +1,528 @@
 package com.literature.chat.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.netty.session.SessionManager;
+import com.literature.chat.netty.session.ConcurrentLongObjectMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 会话路由服务 (基于 Redis)
+ * <p>
+ * 用户绑定写在所在节点的路由 Hash 中 (见 {@link NodePresenceService})，同时写入用户的反向索引 Hash
+ * ({@code USER_ROUTES_PREFIX + userId}: 节点ID -> 标记)。查询只读目标用户的反向索引，按租约过滤，代价与节点数无关；
+ * 节点宕机后其路由随租约一起失效，反向索引中的残留由过期节点的回收 ({@link NodePresenceService#onNodeExpired})
+ * 或查询时顺带清除。同一用户的多台设备可能连在不同节点上，查询返回持有该用户路由的全部节点。
+ * 所有脚本访问的 key 都在 KEYS 中声明，且带同一个 hash tag，可以在 Redis Cluster 上执行。下线解绑在本地聚合，按 {@code removal-flush-interval} 批量条件删除:
+ * 只删除仍是本次登录写入的绑定，不会误删随后的重新登录。
+ * 本节点的租约失效后重新加入时 (见 {@link NodePresenceService#onLeaseRestored})，按 {@link SessionManager} 中
+ * 仍在线的用户重建路由 Hash。批量解绑与重建在同一个独立线程上串行执行，不占用节点心跳线程。
+ * <p>
+ * 查询结果 (包括"离线") 缓存在节点本地的 Caffeine 缓存中。路由变更时发布 {@link #ROUTE_EVENTS_CHANNEL}
+ * 事件，所有节点 (包括自己) 收到后失效对应条目；缓存 TTL 作为丢失事件时的兜底。
+ * 为避免"读到旧值 -> 失效事件到达 -> 旧值写入缓存"的竞争，回源前记录失效计数，期间有任何失效发生则不写缓存。
  */
 @Slf4j
 @Service
-public class SessionRouteService {
+public class SessionRouteService implements MessageListener {
 
-    private static final String USER_ROUTE_KEY = "chat:route:user:";
+    /**
+     * 路由变更事件频道，消息格式: {@code userId[,userId...]:发布时间戳(ms)}；节点下线为 {@code @nodeId:发布时间戳(ms)}
+     */
+    public static final String ROUTE_EVENTS_CHANNEL = "chat:route:events";
+
+    /**
+     * 缓存中表示"用户不在线"的占位值
+     */
+    private static final List<String> OFFLINE = List.of();
+
+    private static final int REMOVAL_BATCH_SIZE = 1000;
+
+    /**
+     * 查询，返回值第 i 项为第 i 个用户所在的有效节点列表；反向索引中租约已被移除的节点顺带删除。
+     * KEYS[1]=节点 ZSET, KEYS[2..]=用户反向索引
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LOOKUP_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n"
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n"
+                    + "local result = {}\n"
+                    + "for i = 2, #KEYS do\n"
+                    + "  local nodes = {}\n"
+                    + "  for _, node in ipairs(redis.call('HKEYS', KEYS[i])) do\n"
+                    + "    local score = redis.call('ZSCORE', KEYS[1], node)\n"
+                    + "    if not score then\n"
+                    + "      redis.call('HDEL', KEYS[i], node)\n"
+                    + "    elseif tonumber(score) > now then\n"
+                    + "      nodes[#nodes + 1] = node\n"
+                    + "    end\n"
+                    + "  end\n"
+                    + "  result[i - 1] = nodes\n"
+                    + "end\n"
+                    + "return result",
+            List.class);
+
+    /**
+     * 登录绑定。KEYS[1]=本节点路由 Hash, KEYS[2]=用户反向索引; ARGV[1]=userId, ARGV[2]=节点ID, ARGV[3]=标记
+     */
+    private static final RedisScript<Long> REGISTER_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])\n"
+                    + "redis.call('HSET', KEYS[2], ARGV[2], ARGV[3])\n"
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 条件批量解绑: 仅当字段值仍是登录时写入的标记才删除。
+     * KEYS[1]=本节点路由 Hash, KEYS[1 + i]=第 i 个用户的反向索引; ARGV[1]=节点ID, 之后为 userId, 标记, userId, 标记...
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local removed = 0\n"
+                    + "for i = 2, #KEYS do\n"
+                    + "  local user = ARGV[2 * i - 2]\n"
+                    + "  if redis.call('HGET', KEYS[1], user) == ARGV[2 * i - 1] then\n"
+                    + "    redis.call('HDEL', KEYS[1], user)\n"
+                    + "    redis.call('HDEL', KEYS[i], ARGV[1])\n"
+                    + "    removed = removed + 1\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "return removed",
+            Long.class);
+
+    /**
+     * 重建路由: 只补写缺失的字段，已存在的绑定 (重建期间的重新登录) 保持不变。
+     * KEYS 与 ARGV 的排列同 {@link #REMOVE_SCRIPT}
+     */
+    private static final RedisScript<Long> RESTORE_SCRIPT = new DefaultRedisScript<>(
+            "local restored = 0\n"
+                    + "for i = 2, #KEYS do\n"
+                    + "  restored = restored + redis.call('HSETNX', KEYS[1], ARGV[2 * i - 2], ARGV[2 * i - 1])\n"
+                    + "  redis.call('HSETNX', KEYS[i], ARGV[1], ARGV[2 * i - 1])\n"
+                    + "end\n"
+                    + "return restored",
+            Long.class);
+
+    /**
+     * 回收节点的路由: 从各用户的反向索引中删除该节点，最后一批删除节点路由 Hash。
+     * KEYS[1]=节点路由 Hash, KEYS[2..]=用户反向索引; ARGV[1]=节点ID, ARGV[2]='1' 表示最后一批
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #KEYS do\n"
+                    + "  redis.call('HDEL', KEYS[i], ARGV[1])\n"
+                    + "end\n"
+                    + "if ARGV[2] == '1' then redis.call('DEL', KEYS[1]) end\n"
+                    + "return #KEYS - 1",
+            Long.class);
 
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private NodePresenceService nodePresenceService;
+
+    @Autowired
+    private SessionManager sessionManager;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, List<String>> routeCache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * 本节点用户的绑定标记 (userId -> 登录时写入 Hash 的值)，用于条件解绑
+     */
+    private final ConcurrentLongObjectMap<String> registrations = new ConcurrentLongObjectMap<>();
+    private final AtomicLong registrationSequence = new AtomicLong(System.currentTimeMillis() << 20);
+    private final ConcurrentLinkedQueue<PendingRemoval> pendingRemovals = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService maintenance;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter redisCallCounter;
+    private Counter redisSavedCounter;
+    private Timer invalidationLag;
+
+    @PostConstruct
+    public void init() {
+        ChatProperties.RouteCache config = chatProperties.getRouteCache();
+        if (config.isEnabled()) {
+            routeCache = Caffeine.newBuilder()
+                    .maximumSize(config.getMaximumSize())
+                    .expireAfterWrite(config.getTtl())
+                    .recordStats()
+                    .build();
+            listenerContainer.addMessageListener(this, new ChannelTopic(ROUTE_EVENTS_CHANNEL));
+            Gauge.builder("chat.route.cache.hit.ratio", routeCache, cache -> cache.stats().hitRate())
+                    .description("Hit ratio of the node-local user route cache")
+                    .register(meterRegistry);
+            Gauge.builder("chat.route.cache.size", routeCache, Cache::estimatedSize)
+                    .register(meterRegistry);
+        }
+        hitCounter = meterRegistry.counter("chat.route.lookups", "result", "hit");
+        missCounter = meterRegistry.counter("chat.route.lookups", "result", "miss");
+        redisCallCounter = meterRegistry.counter("chat.route.redis.calls");
+        redisSavedCounter = meterRegistry.counter("chat.route.redis.saved");
+        invalidationLag = Timer.builder("chat.route.invalidation.lag")
+                .description("Delay between a route change and its invalidation on this node")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chat.route.removal.pending", pendingRemovals, ConcurrentLinkedQueue::size)
+                .register(meterRegistry);
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-route-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = chatProperties.getPresence().getRemovalFlushInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::flushRemovalsQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        nodePresenceService.onLeaseRestored(() -> maintenance.execute(this::restoreRoutesQuietly));
+        nodePresenceService.onNodeExpired(node -> maintenance.execute(() -> releaseRoutesQuietly(node)));
+    }
+
     /**
-     * 用户登录时注册路由
+     * 用户登录时把用户绑定到本节点
      *
-     * @param userId        用户ID
-     * @param serverAddress 当前服务器地址 (IP:Port)
+     * @param userId 用户ID
      */
-    public void registerUserRoute(Long userId, String serverAddress) {
-        redisTemplate.opsForValue().set(
-                USER_ROUTE_KEY + userId,
-                serverAddress,
-                Duration.ofHours(24) // 24小时过期，心跳保活时可续期
-        );
-        log.info("Registered route for user {}: {}", userId, serverAddress);
+    public void registerUserRoute(Long userId) {
+        String marker = Long.toString(registrationSequence.incrementAndGet());
+        registrations.put(userId, marker);
+        redisTemplate.execute(REGISTER_SCRIPT,
+                List.of(nodePresenceService.getRoutesKey(), NodePresenceService.USER_ROUTES_PREFIX + userId),
+                userId.toString(), nodePresenceService.getNodeId(), marker);
+        publishRouteChange(userId.toString());
+        log.info("Registered route for user {}: {}", userId, nodePresenceService.getNodeId());
     }
 
     /**
-     * 查询用户所在服务器
+     * 查询用户所在的全部节点 (用户的多台设备可能连在不同节点上)
      *
      * @param userId 用户ID
-     * @return 服务器地址，如果离线则返回 null
+     * @return 节点ID列表，离线或所在节点租约均已过期时为空列表
      */
-    public String getUserRoute(Long userId) {
-        return redisTemplate.opsForValue().get(USER_ROUTE_KEY + userId);
+    public List<String> getUserNodes(Long userId) {
+        if (routeCache != null) {
+            List<String> cached = routeCache.getIfPresent(userId);
+            if (cached != null) {
+                hitCounter.increment();
+                redisSavedCounter.increment();
+                return cached;
+            }
+            missCounter.increment();
+        }
+        long generation = invalidations.get();
+        redisCallCounter.increment();
+        List<?> found = redisTemplate.execute(LOOKUP_SCRIPT,
+                List.of(NodePresenceService.NODES_KEY, NodePresenceService.USER_ROUTES_PREFIX + userId));
+        List<String> nodes = toNodes(found == null || found.isEmpty() ? null : (List<?>) found.get(0));
+        cache(userId, nodes, generation);
+        return nodes;
     }
 
     /**
-     * 用户下线时移除路由
+     * 批量查询 (多目标发送): 这些用户所在节点的并集。未命中的用户每 {@code lookup-batch-size} 个一次脚本调用取回
+     *
+     * @return 至少持有其中一个用户路由的节点ID
+     */
+    public Set<String> getUserNodes(long[] userIds) {
+        Set<String> nodes = new HashSet<>();
+        int[] missIndexes = new int[userIds.length];
+        int misses = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            List<String> cached = routeCache == null ? null : routeCache.getIfPresent(userIds[i]);
+            if (cached != null) {
+                nodes.addAll(cached);
+            } else {
+                missIndexes[misses++] = i;
+            }
+        }
+        if (routeCache != null) {
+            hitCounter.increment(userIds.length - misses);
+            missCounter.increment(misses);
+        }
+        if (misses == 0) {
+            redisSavedCounter.increment(userIds.length);
+            return nodes;
+        }
+
+        long generation = invalidations.get();
+        int batchSize = Math.max(1, chatProperties.getRouteCache().getLookupBatchSize());
+        int batches = 0;
+        for (int from = 0; from < misses; from += batchSize) {
+            int to = Math.min(misses, from + batchSize);
+            List<String> keys = new ArrayList<>(to - from + 1);
+            keys.add(NodePresenceService.NODES_KEY);
+            for (int j = from; j < to; j++) {
+                keys.add(NodePresenceService.USER_ROUTES_PREFIX + userIds[missIndexes[j]]);
+            }
+            List<?> values = redisTemplate.execute(LOOKUP_SCRIPT, keys);
+            batches++;
+            for (int j = from; j < to; j++) {
+                int index = missIndexes[j];
+                Object value = values == null || j - from >= values.size() ? null : values.get(j - from);
+                List<String> userNodes = toNodes(value instanceof List<?> list ? list : null);
+                nodes.addAll(userNodes);
+                cache(userIds[index], userNodes, generation);
+            }
+        }
+        redisCallCounter.increment(batches);
+        // 逐个查询需要 userIds.length 次往返
+        redisSavedCounter.increment(userIds.length - batches);
+        return nodes;
+    }
+
+    /**
+     * 用户下线时解绑。只记入本地队列，由定时任务批量写入 Redis
      *
      * @param userId 用户ID
      */
     public void removeUserRoute(Long userId) {
-        redisTemplate.delete(USER_ROUTE_KEY + userId);
-        log.info("Removed route for user {}", userId);
+        String marker = registrations.remove(userId);
+        if (marker != null) {
+            pendingRemovals.add(new PendingRemoval(userId, marker));
+        }
+    }
+
+    /**
+     * 路由变更事件
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator <= 0) {
+            log.warn("Ignoring malformed route event: {}", body);
+            return;
+        }
+        try {
+            long publishedAt = Long.parseLong(body.substring(separator + 1));
+            invalidations.incrementAndGet();
+            if (body.charAt(0) == '@') {
+                // 节点下线: 丢弃所有指向该节点的缓存
+                String nodeId = body.substring(1, separator);
+                routeCache.asMap().values().removeIf(nodes -> nodes.contains(nodeId));
+            } else {
+                int start = 0;
+                while (start < separator) {
+                    int end = body.indexOf(',', start);
+                    if (end < 0 || end > separator) {
+                        end = separator;
+                    }
+                    routeCache.invalidate(Long.parseLong(body.substring(start, end)));
+                    start = end + 1;
+                }
+            }
+            invalidationLag.record(Math.max(0, System.currentTimeMillis() - publishedAt), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed route event: {}", body);
+        }
+    }
+
+    /**
+     * 广播节点下线事件，所有节点丢弃指向该节点的缓存路由
+     */
+    static void publishNodeDown(StringRedisTemplate redisTemplate, String nodeId) {
+        redisTemplate.convertAndSend(ROUTE_EVENTS_CHANNEL, "@" + nodeId + ":" + System.currentTimeMillis());
+    }
+
+    private void flushRemovalsQuietly() {
+        try {
+            flushRemovals();
+        } catch (Exception e) {
+            log.error("Failed to flush route removals", e);
+        }
+    }
+
+    private void flushRemovals() {
+        while (!pendingRemovals.isEmpty()) {
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>();
+            keys.add(nodePresenceService.getRoutesKey());
+            args.add(nodePresenceService.getNodeId());
+            StringBuilder userIds = new StringBuilder();
+            PendingRemoval removal;
+            while (keys.size() <= REMOVAL_BATCH_SIZE && (removal = pendingRemovals.poll()) != null) {
+                keys.add(NodePresenceService.USER_ROUTES_PREFIX + removal.userId);
+                args.add(Long.toString(removal.userId));
+                args.add(removal.marker);
+                if (userIds.length() > 0) {
+                    userIds.append(',');
+                }
+                userIds.append(removal.userId);
+            }
+            if (keys.size() == 1) {
+                return;
+            }
+            Long removed = redisTemplate.execute(REMOVE_SCRIPT, keys, args.toArray());
+            publishRouteChange(userIds.toString());
+            log.debug("Removed {} of {} routes in one batch", removed, keys.size() - 1);
+        }
+    }
+
+    private void restoreRoutesQuietly() {
+        try {
+            restoreRoutes();
+        } catch (Exception e) {
+            log.error("Failed to restore routes of chat node {}", nodePresenceService.getNodeId(), e);
+        }
+    }
+
+    /**
+     * 把本节点仍在线用户的绑定写回路由 Hash，并广播失效 (其他节点可能已把这些用户缓存为离线)。
+     * 与 {@link #flushRemovals} 在同一线程上执行: 读到标记之后才下线的用户，其解绑排在本次重建之后
+     */
+    private void restoreRoutes() {
+        List<String> pairs = new ArrayList<>();
+        sessionManager.forEachUser(userId -> {
+            // 没有标记的用户尚未完成 registerUserRoute，会自行写入
+            String marker = registrations.get(userId);
+            if (marker != null) {
+                pairs.add(Long.toString(userId));
+                pairs.add(marker);
+            }
+        });
+        long restored = 0;
+        for (int from = 0; from < pairs.size(); from += REMOVAL_BATCH_SIZE * 2) {
+            List<String> batch = pairs.subList(from, Math.min(pairs.size(), from + REMOVAL_BATCH_SIZE * 2));
+            List<String> keys = new ArrayList<>(batch.size() / 2 + 1);
+            List<String> args = new ArrayList<>(batch.size() + 1);
+            keys.add(nodePresenceService.getRoutesKey());
+            args.add(nodePresenceService.getNodeId());
+            args.addAll(batch);
+            StringBuilder userIds = new StringBuilder();
+            for (int i = 0; i < batch.size(); i += 2) {
+                keys.add(NodePresenceService.USER_ROUTES_PREFIX + batch.get(i));
+                if (userIds.length() > 0) {
+                    userIds.append(',');
+                }
+                userIds.append(batch.get(i));
+            }
+            Long count = redisTemplate.execute(RESTORE_SCRIPT, keys, args.toArray());
+            restored += count == null ? 0 : count;
+            publishRouteChange(userIds.toString());
+        }
+        log.warn("Restored {} of {} routes of chat node {}", restored, pairs.size() / 2, nodePresenceService.getNodeId());
+    }
+
+    private void releaseRoutesQuietly(String node) {
+        try {
+            releaseRoutes(node);
+        } catch (Exception e) {
+            // 残留的反向索引不影响查询 (按租约过滤)，会在查询时清除；节点路由 Hash 随过期时间删除
+            log.error("Failed to release routes of chat node {}", node, e);
+        }
+    }
+
+    /**
+     * 回收已离开节点 (或本节点关闭时) 的路由: 分批从用户反向索引中删除该节点，最后删除节点路由 Hash
+     */
+    private void releaseRoutes(String node) {
+        String routesKey = NodePresenceService.NODE_ROUTES_PREFIX + node;
+        List<String> users = new ArrayList<>();
+        for (Object user : redisTemplate.opsForHash().keys(routesKey)) {
+            users.add((String) user);
+        }
+        int from = 0;
+        do {
+            int to = Math.min(users.size(), from + REMOVAL_BATCH_SIZE);
+            List<String> keys = new ArrayList<>(to - from + 1);
+            keys.add(routesKey);
+            for (String user : users.subList(from, to)) {
+                keys.add(NodePresenceService.USER_ROUTES_PREFIX + user);
+            }
+            redisTemplate.execute(RELEASE_SCRIPT, keys, node, to == users.size() ? "1" : "0");
+            from = to;
+        } while (from < users.size());
+        log.info("Released {} routes of chat node {}", users.size(), node);
+    }
+
+    private void publishRouteChange(String userIds) {
+        if (routeCache != null) {
+            // 本节点立即失效，不依赖自己发布的事件回环
+            invalidations.incrementAndGet();
+            int start = 0;
+            while (start < userIds.length()) {
+                int end = userIds.indexOf(',', start);
+                if (end < 0) {
+                    end = userIds.length();
+                }
+                routeCache.invalidate(Long.parseLong(userIds.substring(start, end)));
+                start = end + 1;
+            }
+        }
+        // 本节点关闭缓存时其他节点仍可能开启，始终广播
+        redisTemplate.convertAndSend(ROUTE_EVENTS_CHANNEL, userIds + ":" + System.currentTimeMillis());
+    }
+
+    private void cache(long userId, List<String> nodes, long generation) {
+        if (routeCache != null && invalidations.get() == generation) {
+            routeCache.put(userId, nodes);
+        }
+    }
+
+    private static List<String> toNodes(List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return OFFLINE;
+        }
+        List<String> nodes = new ArrayList<>(values.size());
+        for (Object value : values) {
+            nodes.add((String) value);
+        }
+        return List.copyOf(nodes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (maintenance != null) {
+            maintenance.shutdown();
+        }
+        // 先写出尚未提交的解绑，再回收本节点剩余的路由 (租约随后由 NodePresenceService 释放)
+        flushRemovalsQuietly();
+        releaseRoutesQuietly(nodePresenceService.getNodeId());
+    }
+
+    private static final class PendingRemoval {
+        private final long userId;
+        private final String marker;
+
+        private PendingRemoval(long userId, String marker) {
+            this.userId = userId;
+            this.marker = marker;
+        }
     }
 }
@@ -0,0 +1,90 @@
+package com.literature.chat.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 禁言 / 封禁变更事件 (基于 Redis Pub/Sub)
+ * <p>
+ * 后台操作提交后向 {@link #SANCTION_EVENTS_CHANNEL} 广播，所有节点 (包括自己) 据此更新本地的
+ * {@link SessionSanctionIndex}。消息格式: {@code sessionId:userId:mute:mutedUntil} (epoch 毫秒) /
+ * {@code sessionId:userId:unmute} / {@code sessionId:userId:ban} / {@code sessionId:userId:unban}。
+ */
+@Slf4j
+@Service
+public class SessionSanctionEventService implements MessageListener {
+
+    public static final String SANCTION_EVENTS_CHANNEL = "chat:session:sanction:events";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private SessionSanctionIndex sessionSanctionIndex;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(SANCTION_EVENTS_CHANNEL));
+    }
+
+    public void publishMuted(Long sessionId, Long userId, long mutedUntil) {
+        publish(sessionId + ":" + userId + ":mute:" + mutedUntil);
+    }
+
+    public void publishUnmuted(Long sessionId, Long userId) {
+        publish(sessionId + ":" + userId + ":unmute");
+    }
+
+    public void publishBanned(Long sessionId, Long userId) {
+        publish(sessionId + ":" + userId + ":ban");
+    }
+
+    public void publishUnbanned(Long sessionId, Long userId) {
+        publish(sessionId + ":" + userId + ":unban");
+    }
+
+    private void publish(String event) {
+        redisTemplate.convertAndSend(SANCTION_EVENTS_CHANNEL, event);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(":");
+        if (parts.length < 3) {
+            log.warn("Ignoring malformed sanction event: {}", body);
+            return;
+        }
+        try {
+            long sessionId = Long.parseLong(parts[0]);
+            long userId = Long.parseLong(parts[1]);
+            switch (parts[2]) {
+                case "mute" -> {
+                    if (parts.length < 4) {
+                        log.warn("Ignoring malformed sanction event: {}", body);
+                        return;
+                    }
+                    sessionSanctionIndex.muted(sessionId, userId, Long.parseLong(parts[3]));
+                }
+                case "unmute" -> sessionSanctionIndex.unmuted(sessionId, userId);
+                case "ban" -> sessionSanctionIndex.banned(sessionId, userId);
+                case "unban" -> sessionSanctionIndex.unbanned(sessionId, userId);
+                default -> log.warn("Ignoring unknown sanction event: {}", body);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed sanction event: {}", body);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatBan;
+import com.literature.chat.entity.ChatMute;
+import com.literature.chat.mapper.ChatBanMapper;
+import com.literature.chat.mapper.ChatMuteMapper;
+import com.literature.chat.netty.session.ConcurrentLongObjectMap;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.collection.LongObjectHashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 禁言 / 封禁的进程内索引
+ * <p>
+ * sessionId -> (userId -> {@link Sanction}) 存放在 {@link ConcurrentLongObjectMap} 中，内层 {@link LongObjectHashMap}
+ * 写时复制，发送路径上的 {@link #check} 是两次原始 long 键的哈希查找，既不加锁也不分配对象。
+ * 启动时从数据库全量加载，之后由 {@link SessionSanctionEventService} 广播的变更事件增量更新，并每隔
+ * {@code reload-interval} 全量重建一次，兜底 Pub/Sub 丢失的事件。全量重建是一次较慢的 MySQL 查询，在独立线程上执行。
+ * <p>
+ * 禁言是否生效在检查时直接与 mutedUntil 比较，不依赖清理的及时性；到期的条目由 {@link HashedWheelTimer} 在
+ * mutedUntil 之后清除，避免索引只增不减。
+ */
+@Slf4j
+@Service
+public class SessionSanctionIndex {
+
+    public static final int ALLOWED = 0;
+    public static final int MUTED = 1;
+    public static final int BANNED = 2;
+
+    @Autowired
+    private ChatMuteMapper muteMapper;
+
+    @Autowired
+    private ChatBanMapper banMapper;
+
+    @Autowired
+    private ChatProperties chatProperties;
+
+    private volatile ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> sessions = newMap();
+
+    private HashedWheelTimer expiryTimer;
+    private ScheduledExecutorService reloader;
+
+    /**
+     * 全量重建期间到达的变更，切换到新索引后重放
+     */
+    private List<Runnable> pendingChanges;
+
+    @PostConstruct
+    public void init() {
+        ChatProperties.Sanction config = chatProperties.getSanction();
+        expiryTimer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "chat-sanction-expiry");
+            thread.setDaemon(true);
+            return thread;
+        }, config.getExpiryTick().toMillis(), TimeUnit.MILLISECONDS);
+        reload();
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-sanction-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getReloadInterval().toMillis();
+        reloader.scheduleWithFixedDelay(this::reloadQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 发送前检查，返回 {@link #ALLOWED} / {@link #MUTED} / {@link #BANNED}
+     */
+    public int check(long sessionId, long userId) {
+        LongObjectHashMap<Sanction> users = sessions.get(sessionId);
+        if (users == null) {
+            return ALLOWED;
+        }
+        Sanction sanction = users.get(userId);
+        if (sanction == null) {
+            return ALLOWED;
+        }
+        if (sanction.banned) {
+            return BANNED;
+        }
+        return sanction.mutedUntil > System.currentTimeMillis() ? MUTED : ALLOWED;
+    }
+
+    /**
+     * 禁言截止时间 (epoch 毫秒)，未禁言时为 0
+     */
+    public long mutedUntil(long sessionId, long userId) {
+        LongObjectHashMap<Sanction> users = sessions.get(sessionId);
+        Sanction sanction = users == null ? null : users.get(userId);
+        return sanction == null ? 0 : sanction.mutedUntil;
+    }
+
+    public synchronized void muted(long sessionId, long userId, long mutedUntil) {
+        record(() -> muted(sessionId, userId, mutedUntil));
+        update(sessions, sessionId, userId, current -> {
+            // 同一用户可能有多条有效禁言记录，以最晚的为准
+            long until = current == null ? mutedUntil : Math.max(current.mutedUntil, mutedUntil);
+            if (current != null && current.mutedUntil == until) {
+                return current;
+            }
+            cancelExpiry(current);
+            return new Sanction(until, current != null && current.banned, scheduleExpiry(sessionId, userId, until));
+        });
+    }
+
+    public synchronized void unmuted(long sessionId, long userId) {
+        record(() -> unmuted(sessionId, userId));
+        update(sessions, sessionId, userId, current -> {
+            cancelExpiry(current);
+            return current == null || !current.banned ? null : new Sanction(0, true, null);
+        });
+    }
+
+    public synchronized void banned(long sessionId, long userId) {
+        record(() -> banned(sessionId, userId));
+        update(sessions, sessionId, userId, current -> current == null
+                ? new Sanction(0, true, null)
+                : new Sanction(current.mutedUntil, true, current.expiry));
+    }
+
+    public synchronized void unbanned(long sessionId, long userId) {
+        record(() -> unbanned(sessionId, userId));
+        update(sessions, sessionId, userId, current -> current == null || current.mutedUntil <= System.currentTimeMillis()
+                ? null
+                : new Sanction(current.mutedUntil, false, current.expiry));
+    }
+
+    /**
+     * 从数据库全量重建索引。查询在锁外执行，期间到达的变更先作用于旧索引，切换后在新索引上重放
+     */
+    public void reload() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        List<ChatMute> mutes;
+        List<ChatBan> bans;
+        try {
+            mutes = muteMapper.selectAllActiveMutes(LocalDateTime.now());
+            bans = banMapper.selectAllActiveBans();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> previous = sessions;
+        ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> rebuilt = newMap();
+        for (ChatMute mute : mutes) {
+            long sessionId = mute.getSessionId();
+            long userId = mute.getUserId();
+            long until = toEpochMillis(mute.getMutedUntil());
+            update(rebuilt, sessionId, userId, current -> {
+                long mutedUntil = current == null ? until : Math.max(current.mutedUntil, until);
+                return new Sanction(mutedUntil, false, reuseExpiry(previous, sessionId, userId, mutedUntil));
+            });
+        }
+        for (ChatBan ban : bans) {
+            update(rebuilt, ban.getSessionId(), ban.getUserId(), current -> current == null
+                    ? new Sanction(0, true, null)
+                    : new Sanction(current.mutedUntil, true, current.expiry));
+        }
+
+        List<Runnable> replay;
+        synchronized (this) {
+            sessions = rebuilt;
+            replay = pendingChanges;
+            pendingChanges = null;
+            for (Runnable change : replay) {
+                change.run();
+            }
+        }
+        log.info("Loaded {} active mutes and {} active bans ({} changes replayed)", mutes.size(), bans.size(),
+                replay.size());
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload chat mutes and bans", e);
+        }
+    }
+
+    private void record(Runnable change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    /**
+     * 写时复制地更新一个 (sessionId, userId)，updater 返回 null 表示删除
+     */
+    private static void update(ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> map, long sessionId, long userId,
+                               SanctionUpdater updater) {
+        map.compute(sessionId, (key, users) -> {
+            Sanction current = users == null ? null : users.get(userId);
+            Sanction updated = updater.apply(current);
+            if (updated == current) {
+                return users;
+            }
+            LongObjectHashMap<Sanction> copy = new LongObjectHashMap<>(users == null ? 4 : users.size() + 1);
+            if (users != null) {
+                copy.putAll(users);
+            }
+            if (updated == null) {
+                copy.remove(userId);
+            } else {
+                copy.put(userId, updated);
+            }
+            return copy.isEmpty() ? null : copy;
+        });
+    }
+
+    private Timeout scheduleExpiry(long sessionId, long userId, long mutedUntil) {
+        long delay = Math.max(0, mutedUntil - System.currentTimeMillis());
+        return expiryTimer.newTimeout(timeout -> expire(sessionId, userId), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 重建时沿用旧索引中截止时间相同的到期任务，避免每次重建都为全部禁言重新排期
+     */
+    private Timeout reuseExpiry(ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> previous,
+                                long sessionId, long userId, long mutedUntil) {
+        LongObjectHashMap<Sanction> users = previous.get(sessionId);
+        Sanction old = users == null ? null : users.get(userId);
+        if (old != null && old.mutedUntil == mutedUntil && old.expiry != null && !old.expiry.isExpired()) {
+            return old.expiry;
+        }
+        return scheduleExpiry(sessionId, userId, mutedUntil);
+    }
+
+    private synchronized void expire(long sessionId, long userId) {
+        long now = System.currentTimeMillis();
+        update(sessions, sessionId, userId, current -> {
+            if (current == null || current.mutedUntil > now) {
+                // 已解除，或禁言被延长 (由新的到期任务负责)
+                return current;
+            }
+            return current.banned ? new Sanction(0, true, null) : null;
+        });
+    }
+
+    private static void cancelExpiry(Sanction sanction) {
+        if (sanction != null && sanction.expiry != null) {
+            sanction.expiry.cancel();
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static ConcurrentLongObjectMap<LongObjectHashMap<Sanction>> newMap() {
+        return new ConcurrentLongObjectMap<>(64, 1024);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reloader != null) {
+            reloader.shutdown();
+        }
+        if (expiryTimer != null) {
+            expiryTimer.stop();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SanctionUpdater {
+        Sanction apply(Sanction current);
+    }
+
+    /**
+     * 某用户在某会话中的处罚状态，不可变
+     */
+    private static final class Sanction {
+        /**
+         * 禁言截止时间 (epoch 毫秒)，0 表示未禁言
+         */
+        private final long mutedUntil;
+        private final boolean banned;
+        private final Timeout expiry;
+
+        private Sanction(long mutedUntil, boolean banned, Timeout expiry) {
+            this.mutedUntil = mutedUntil;
+            this.banned = banned;
+            this.expiry = expiry;
+        }
+    }
+}
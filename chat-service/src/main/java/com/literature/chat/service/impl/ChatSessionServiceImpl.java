@@ -21,8 +21,12 @@ import com.literature.common.core.model.PageResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -112,16 +116,19 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         mute.setCreatedAt(LocalDateTime.now());
 
         muteMapper.insert(mute);
+        long mutedUntil = mute.getMutedUntil().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        afterCommit(() -> sessionSanctionEventService.publishMuted(sessionId, userId, mutedUntil));
         return MuteVO.fromEntity(mute);
     }
 
     @Override
     @Transactional
     public void unmuteUser(Long sessionId, Long userId, Long operatorId) {
-        ChatMute mute = muteMapper.selectActiveMute(sessionId, userId, LocalDateTime.now());
-        if (mute != null) {
-            mute.setMutedUntil(LocalDateTime.now());
-            muteMapper.updateById(mute);
+        // 同一用户可能有多条有效禁言记录，一条 UPDATE 全部结束，与各节点索引中整体解除一致。
+        // muted_until 只精确到秒且 MySQL 会四舍五入，截断到秒，保证写入的值不晚于当前时刻
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (muteMapper.endActiveMutes(sessionId, userId, now) > 0) {
+            afterCommit(() -> sessionSanctionEventService.publishUnmuted(sessionId, userId));
         }
     }
 
@@ -153,6 +160,7 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         ban.setCreatedAt(LocalDateTime.now());
 
         banMapper.insert(ban);
+        afterCommit(() -> sessionSanctionEventService.publishBanned(sessionId, userId));
         return BanVO.fromEntity(ban);
     }
 
@@ -163,6 +171,7 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         if (ban != null) {
             ban.lift(operatorId);
             banMapper.updateById(ban);
+            afterCommit(() -> sessionSanctionEventService.publishUnbanned(sessionId, userId));
         }
     }
 
@@ -179,35 +188,122 @@ public class ChatSessionServiceImpl implements ChatSessionService {
     @Autowired
     private org.springframework.data.redis.core.StringRedisTemplate redisTemplate;
 
+    @Autowired
+    private com.literature.chat.service.SessionMemberEventService sessionMemberEventService;
+
+    @Autowired
+    private com.literature.chat.service.SessionMemberCache sessionMemberCache;
+
+    @Autowired
+    private com.literature.chat.service.SessionSanctionEventService sessionSanctionEventService;
+
     private static final String SESSION_MEMBERS_KEY_PREFIX = "chat:session:members:";
 
     @Override
     public List<Long> getSessionMemberIds(Long sessionId) {
+        long[] members = getSessionMembers(sessionId);
+        List<Long> memberIds = new java.util.ArrayList<>(members.length);
+        for (long member : members) {
+            memberIds.add(member);
+        }
+        return memberIds;
+    }
+
+    @Override
+    public long[] getSessionMembers(Long sessionId) {
+        return sessionMemberCache.get(sessionId, this::loadSessionMembers);
+    }
+
+    /**
+     * 进程内缓存未命中时回源: Redis 成员集合，再到数据库
+     */
+    private long[] loadSessionMembers(long sessionId) {
         String key = SESSION_MEMBERS_KEY_PREFIX + sessionId;
 
         // 1. Check Redis
         java.util.Set<String> members = redisTemplate.opsForSet().members(key);
         if (members != null && !members.isEmpty()) {
-            return members.stream().map(Long::valueOf).collect(Collectors.toList());
+            long[] memberIds = new long[members.size()];
+            int i = 0;
+            for (String member : members) {
+                memberIds[i++] = Long.parseLong(member);
+            }
+            return memberIds;
         }
 
         // 2. Query DB
-        List<Long> memberIds = memberMapper.selectList(
-                new LambdaQueryWrapper<ChatSessionMember>()
-                        .eq(ChatSessionMember::getSessionId, sessionId)
-                        .select(ChatSessionMember::getUserId))
-                .stream()
-                .map(ChatSessionMember::getUserId)
-                .collect(Collectors.toList());
+        List<Long> memberIds = memberMapper.selectUserIdsBySessionId(sessionId);
 
-        // 3. Cache to Redis (TTL 1 hour)
+        // 3. Cache to Redis (TTL 1 hour, 成员变更时删除)
         if (!memberIds.isEmpty()) {
-            String[] values = memberIds.stream().map(String::valueOf).toArray(String[]::new);
+            String[] values = new String[memberIds.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = memberIds.get(i).toString();
+            }
             redisTemplate.opsForSet().add(key, values);
             redisTemplate.expire(key, 1, java.util.concurrent.TimeUnit.HOURS);
         }
 
-        return memberIds;
+        long[] result = new long[memberIds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = memberIds.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Long> getUserGroupSessionIds(Long userId) {
+        return memberMapper.selectGroupSessionIdsByUserId(userId);
+    }
+
+    @Override
+    @Transactional
+    public void addMember(Long sessionId, Long userId) {
+        if (sessionMapper.selectById(sessionId) == null) {
+            throw new IllegalArgumentException("会话不存在: " + sessionId);
+        }
+        if (memberMapper.existsBySessionIdAndUserId(sessionId, userId)) {
+            return;
+        }
+        ChatSessionMember member = new ChatSessionMember();
+        member.setSessionId(sessionId);
+        member.setUserId(userId);
+        member.setRole(ChatSessionMember.ROLE_MEMBER);
+        memberMapper.insert(member);
+        // 成员缓存整体删除，下次读取时回源，避免向不存在的 key 写入残缺集合
+        afterCommit(() -> {
+            redisTemplate.delete(SESSION_MEMBERS_KEY_PREFIX + sessionId);
+            sessionMemberEventService.publishJoined(sessionId, userId);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void removeMember(Long sessionId, Long userId) {
+        if (memberMapper.deleteBySessionIdAndUserId(sessionId, userId) == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            redisTemplate.delete(SESSION_MEMBERS_KEY_PREFIX + sessionId);
+            sessionMemberEventService.publishLeft(sessionId, userId);
+        });
+    }
+
+    /**
+     * 事务提交后再失效缓存、广播事件，避免其他节点回源读到未提交的数据
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
     }
 
     /**
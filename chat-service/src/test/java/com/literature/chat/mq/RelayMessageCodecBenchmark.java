@@ -0,0 +1,136 @@
+package com.literature.chat.mq;
+
+import com.literature.chat.dto.ChatMessageDTO;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转发消息编解码基准: Spring JsonSerializer/JsonDeserializer (旧实现) 与 RelayMessage Protobuf (新实现) 对比
+ * <p>
+ * 运行前先打印每条记录的字节数，以及 500 条一批经 lz4 压缩后的平均字节数 (近似生产者批压缩效果)。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.mq.RelayMessageCodecBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RelayMessageCodecBenchmark {
+
+    private static final String TOPIC = "chat-node-bench";
+    private static final int BATCH = 500;
+
+    @Param({"32", "256", "2048"})
+    private int contentSize;
+
+    private ChatMessageDTO message;
+    private JsonSerializer<ChatMessageDTO> jsonSerializer;
+    private JsonDeserializer<ChatMessageDTO> jsonDeserializer;
+    private RelayMessageSerializer protobufSerializer;
+    private RelayMessageDeserializer protobufDeserializer;
+    private byte[] jsonBytes;
+    private byte[] protobufBytes;
+
+    @Setup
+    public void setup() {
+        message = message(0, contentSize);
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(ChatMessageDTO.class);
+        jsonDeserializer.addTrustedPackages("*");
+        protobufSerializer = new RelayMessageSerializer();
+        protobufSerializer.configure(Map.of(), false);
+        protobufDeserializer = new RelayMessageDeserializer();
+        jsonBytes = jsonSerializer.serialize(TOPIC, message);
+        protobufBytes = protobufSerializer.serialize(TOPIC, message);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+        protobufSerializer.close();
+        protobufDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public byte[] protobufSerialize() {
+        return protobufSerializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public ChatMessageDTO jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, jsonBytes);
+    }
+
+    @Benchmark
+    public ChatMessageDTO protobufDeserialize() {
+        return protobufDeserializer.deserialize(TOPIC, protobufBytes);
+    }
+
+    private static ChatMessageDTO message(int i, int contentSize) {
+        ChatMessageDTO message = new ChatMessageDTO();
+        message.setMessageId(1_700_000_000_000L + i);
+        message.setSenderId(1_000_001L + i % 997);
+        message.setTargetUserId(1_000_002L + i % 991);
+        message.setType(1);
+        message.setContent(("消息内容 message " + i + " ").repeat(contentSize / 10 + 1).substring(0, contentSize));
+        message.setTimestamp(message.getMessageId());
+        return message;
+    }
+
+    private static void printWireSizes() {
+        LZ4Compressor lz4 = LZ4Factory.fastestInstance().fastCompressor();
+        try (JsonSerializer<ChatMessageDTO> json = new JsonSerializer<>();
+             RelayMessageSerializer protobuf = new RelayMessageSerializer()) {
+            protobuf.configure(Map.of(), false);
+            for (int contentSize : new int[] {32, 256, 2048}) {
+                ByteArrayOutputStream jsonBatch = new ByteArrayOutputStream();
+                ByteArrayOutputStream protobufBatch = new ByteArrayOutputStream();
+                for (int i = 0; i < BATCH; i++) {
+                    ChatMessageDTO message = message(i, contentSize);
+                    jsonBatch.writeBytes(json.serialize(TOPIC, message));
+                    protobufBatch.writeBytes(protobuf.serialize(TOPIC, message));
+                }
+                System.out.printf("content %4d chars: json %5d B/record (lz4 %5d), protobuf %5d B/record (lz4 %5d)%n",
+                        contentSize,
+                        jsonBatch.size() / BATCH, lz4.compress(jsonBatch.toByteArray()).length / BATCH,
+                        protobufBatch.size() / BATCH, lz4.compress(protobufBatch.toByteArray()).length / BATCH);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        printWireSizes();
+        new Runner(new OptionsBuilder()
+                .include(RelayMessageCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
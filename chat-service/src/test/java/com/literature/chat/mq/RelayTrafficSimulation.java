@@ -0,0 +1,92 @@
+package com.literature.chat.mq;
+
+import com.literature.chat.dto.ChatMessageDTO;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 节点间转发流量模型: 每节点消费字节数，广播 (每个节点读全部消息) 与按节点投递对比
+ * <p>
+ * 用户均匀分布在各节点，单聊目标随机，群聊成员随机；记录大小取真实序列化结果 (当前 value 序列化器 + 节点ID key)。
+ * 同节点内的单聊直接本地推送，不经过 Kafka。集群实测看各节点的 {@code chat.relay.consumed.bytes}。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.mq.RelayTrafficSimulation -Dexec.args="4 8 16"}
+ */
+public class RelayTrafficSimulation {
+
+    private static final int USERS_PER_NODE = 5_000;
+    private static final int MESSAGES = 200_000;
+    private static final double GROUP_RATIO = 0.2;
+    private static final int GROUP_SIZE = 20;
+
+    public static void main(String[] args) {
+        int[] clusterSizes = args.length == 0 ? new int[] {4, 8, 16} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            clusterSizes[i] = Integer.parseInt(args[i]);
+        }
+        try (RelayMessageSerializer serializer = new RelayMessageSerializer()) {
+            serializer.configure(Map.of(), false);
+            for (int nodes : clusterSizes) {
+                simulate(nodes, serializer);
+            }
+        }
+    }
+
+    private static void simulate(int nodes, RelayMessageSerializer serializer) {
+        Random random = new Random(42);
+        int users = nodes * USERS_PER_NODE;
+        long[] targeted = new long[nodes];
+        long broadcast = 0;
+        int keySize = "10.0.0.1:9090".length();
+        for (int i = 0; i < MESSAGES; i++) {
+            boolean group = random.nextDouble() < GROUP_RATIO;
+            ChatMessageDTO message = message(i, random, users, group);
+            long recordSize = serializer.serialize("relay", message).length + keySize;
+            int senderNode = (int) (message.getSenderId() % nodes);
+            if (group) {
+                broadcast += recordSize;
+                boolean[] hit = new boolean[nodes];
+                for (int m = 0; m < GROUP_SIZE; m++) {
+                    hit[random.nextInt(users) % nodes] = true;
+                }
+                for (int n = 0; n < nodes; n++) {
+                    if (hit[n]) {
+                        targeted[n] += recordSize;
+                    }
+                }
+            } else {
+                int targetNode = (int) (message.getTargetUserId() % nodes);
+                broadcast += recordSize;
+                if (targetNode != senderNode) {
+                    targeted[targetNode] += recordSize;
+                }
+            }
+        }
+        long max = 0;
+        long sum = 0;
+        for (long bytes : targeted) {
+            max = Math.max(max, bytes);
+            sum += bytes;
+        }
+        System.out.printf("%2d nodes: broadcast %,8.1f MB/node, node-targeted avg %,7.1f MB/node (max %,7.1f), "
+                        + "cluster total %,8.1f MB -> %,7.1f MB%n",
+                nodes, broadcast / 1048576.0, sum / (double) nodes / 1048576.0, max / 1048576.0,
+                broadcast * (double) nodes / 1048576.0, sum / 1048576.0);
+    }
+
+    private static ChatMessageDTO message(int i, Random random, int users, boolean group) {
+        ChatMessageDTO message = new ChatMessageDTO();
+        message.setMessageId(1_700_000_000_000L + i);
+        message.setSenderId(1_000_000L + random.nextInt(users));
+        message.setType(group ? 2 : 1);
+        if (group) {
+            message.setSessionId(9_000_000L + random.nextInt(10_000));
+        } else {
+            message.setTargetUserId(1_000_000L + random.nextInt(users));
+        }
+        message.setContent("message content " + i);
+        message.setTimestamp(message.getMessageId());
+        return message;
+    }
+}
@@ -0,0 +1,138 @@
+package com.literature.chat.netty.codec;
+
+import com.google.protobuf.MessageLite;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatProtocolEncoder 编码基准: toByteArray() + 拷贝 (旧实现) 与直接序列化进 direct buffer (新实现) 对比
+ * <p>
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.netty.codec.ChatProtocolEncoderBenchmark}，
+ * 加 {@code -prof gc} 可观察每帧分配字节数。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatProtocolEncoderBenchmark {
+
+    @Param({"64", "1024", "65536"})
+    private int payloadSize;
+
+    private NettyMessage message;
+    private EmbeddedChannel legacyChannel;
+    private EmbeddedChannel directChannel;
+
+    @Setup
+    public void setup() {
+        ChatPayload payload = ChatPayload.newBuilder()
+                .setCmd(CmdType.SINGLE_CHAT)
+                .setSenderId(10001L)
+                .setTargetId(10002L)
+                .setContent("x".repeat(payloadSize))
+                .setTimestamp(System.currentTimeMillis())
+                .build();
+
+        message = new NettyMessage();
+        NettyMessage.Header header = new NettyMessage.Header();
+        header.setMagic(FrameHeader.MAGIC);
+        header.setVersion((byte) 1);
+        header.setSerial((byte) 1);
+        header.setCmdType((byte) CmdType.SINGLE_CHAT_VALUE);
+        header.setReqId(1L);
+        message.setHeader(header);
+        message.setBody(payload);
+
+        legacyChannel = newChannel(new LegacyChatProtocolEncoder());
+        directChannel = newChannel(new ChatProtocolEncoder());
+    }
+
+    @TearDown
+    public void tearDown() {
+        legacyChannel.finishAndReleaseAll();
+        directChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int legacyToByteArray() {
+        return encode(legacyChannel);
+    }
+
+    @Benchmark
+    public int directCodedOutput() {
+        return encode(directChannel);
+    }
+
+    private int encode(EmbeddedChannel channel) {
+        channel.writeOutbound(message);
+        ByteBuf frame = channel.readOutbound();
+        int length = frame.readableBytes();
+        frame.release();
+        return length;
+    }
+
+    private static EmbeddedChannel newChannel(MessageToByteEncoder<NettyMessage> encoder) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+        channel.pipeline().addLast(encoder);
+        return channel;
+    }
+
+    /**
+     * 优化前的编码实现，仅用于对比
+     */
+    static class LegacyChatProtocolEncoder extends MessageToByteEncoder<NettyMessage> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, NettyMessage msg, ByteBuf out) {
+            NettyMessage.Header header = msg.getHeader();
+            out.writeShort(header.getMagic());
+            out.writeByte(header.getVersion());
+            out.writeByte(header.getSerial());
+            out.writeByte(header.getCmdType());
+            out.writeLong(header.getReqId());
+
+            byte[] bytes = null;
+            if (msg.getBody() instanceof MessageLite) {
+                bytes = ((MessageLite) msg.getBody()).toByteArray();
+            }
+            int length = bytes == null ? 0 : bytes.length;
+            out.writeInt(length);
+            if (bytes != null) {
+                out.writeBytes(bytes);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChatProtocolEncoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
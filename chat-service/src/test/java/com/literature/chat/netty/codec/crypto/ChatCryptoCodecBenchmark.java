@@ -0,0 +1,127 @@
+package com.literature.chat.netty.codec.crypto;
+
+import com.google.protobuf.ByteString;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.crypto.autoconfigure.CryptoProperties;
+import com.literature.crypto.core.AesGcmCrypto;
+import com.literature.crypto.core.KeyGenerator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ChatCryptoCodec 单核吞吐基准 (单线程 ops/s 即 消息数/秒/核)，每次操作为一条消息的加密 + 解密:
+ * 旧实现每条消息都做一次 PBKDF2 派生；新实现缓存派生密钥 (只解密上行消息)，或使用协商出的连接级会话密钥。
+ * <p>
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.netty.codec.crypto.ChatCryptoCodecBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class ChatCryptoCodecBenchmark {
+
+  private static final String SALT = "benchmark-salt";
+
+  private final AesGcmCrypto aesGcmCrypto = new AesGcmCrypto();
+  private final KeyGenerator keyGenerator = new KeyGenerator();
+  private byte[] content;
+  private ChatPayload payload;
+  private ChatPayload globalEncrypted;
+  private EmbeddedChannel derivedKeyChannel;
+  private EmbeddedChannel sessionKeyChannel;
+
+  @Setup
+  public void setup() {
+    CryptoProperties properties = new CryptoProperties();
+    properties.getNetty().setKeyDeriveSalt(SALT);
+    ChatCryptoCodec codec = new ChatCryptoCodec(properties, aesGcmCrypto, keyGenerator);
+
+    content = "hello, this is a typical short chat message".getBytes(StandardCharsets.UTF_8);
+    payload = ChatPayload.newBuilder()
+        .setCmd(CmdType.SINGLE_CHAT)
+        .setSenderId(1L)
+        .setTargetId(2L)
+        .setContent(new String(content, StandardCharsets.UTF_8))
+        .build();
+    // 下行只对协商了会话密钥的连接加密，全局密钥只用于解密上行消息
+    globalEncrypted = ChatPayload.newBuilder(payload)
+        .setEncrypted(true)
+        .setEncContent(ByteString.copyFrom(aesGcmCrypto.encrypt(content, legacyDeriveKey())))
+        .setContent("")
+        .build();
+
+    derivedKeyChannel = new EmbeddedChannel(codec);
+    sessionKeyChannel = new EmbeddedChannel(codec);
+    SecretKey sessionKey = keyGenerator.keyFromBase64(keyGenerator.generateBase64Key());
+    sessionKeyChannel.attr(ChatCryptoCodec.SESSION_KEY).set(sessionKey);
+  }
+
+  @TearDown
+  public void tearDown() {
+    derivedKeyChannel.finishAndReleaseAll();
+    sessionKeyChannel.finishAndReleaseAll();
+  }
+
+  @Benchmark
+  public byte[] legacyDerivePerMessage() {
+    SecretKey encryptKey = legacyDeriveKey();
+    byte[] encrypted = aesGcmCrypto.encrypt(content, encryptKey);
+    SecretKey decryptKey = legacyDeriveKey();
+    return aesGcmCrypto.decrypt(encrypted, decryptKey);
+  }
+
+  @Benchmark
+  public Object cachedDerivedKey() {
+    derivedKeyChannel.writeInbound(NettyMessage.of(CmdType.SINGLE_CHAT_VALUE, globalEncrypted));
+    NettyMessage decrypted = derivedKeyChannel.readInbound();
+    return decrypted.getBody();
+  }
+
+  @Benchmark
+  public Object sessionKey() {
+    return roundTrip(sessionKeyChannel);
+  }
+
+  private Object roundTrip(EmbeddedChannel channel) {
+    channel.writeOutbound(NettyMessage.of(CmdType.SINGLE_CHAT_VALUE, payload));
+    NettyMessage encrypted = channel.readOutbound();
+    channel.writeInbound(encrypted);
+    NettyMessage decrypted = channel.readInbound();
+    return decrypted.getBody();
+  }
+
+  private SecretKey legacyDeriveKey() {
+    String baseKey = Base64.getEncoder().encodeToString(SALT.getBytes(StandardCharsets.UTF_8));
+    return keyGenerator.deriveKey(baseKey, SALT);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ChatCryptoCodecBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
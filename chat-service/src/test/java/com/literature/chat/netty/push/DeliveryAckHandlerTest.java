@@ -0,0 +1,307 @@
+package com.literature.chat.netty.push;
+
+import com.literature.chat.config.NettyProperties;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.netty.protocol.ChatPayload;
+import com.literature.chat.netty.protocol.CmdType;
+import com.literature.chat.netty.protocol.NettyMessage;
+import com.literature.chat.netty.session.SessionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeliveryAckHandlerTest {
+
+    private static final long USER_ID = 7L;
+
+    private RecordingManager manager;
+    private DeliveryAckHandler handler;
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        manager = new RecordingManager();
+        // ack-timeout 为 0: 每次检查都重传全部未确认消息；最多重传 2 次
+        handler = new DeliveryAckHandler(manager, 4, 0L, 2);
+        channel = new EmbeddedChannel(handler);
+        new SessionManager().addSession(USER_ID, "test", channel);
+        handler.enable();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+        manager.shutdown();
+    }
+
+    @Test
+    void retransmitsUntilAcknowledged() {
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 1L, 0L));
+        Assertions.assertEquals(1L, messageIdOf(channel.readOutbound()));
+
+        runCheck();
+        Assertions.assertEquals(1L, messageIdOf(channel.readOutbound()), "unacknowledged message is resent");
+
+        channel.writeInbound(ack(1L));
+        Assertions.assertNull(channel.readInbound(), "ACK is consumed by the handler");
+        Assertions.assertTrue(manager.checks.isEmpty(), "no check pending once the window is empty");
+
+        channel.close();
+        Assertions.assertTrue(manager.spilled.isEmpty());
+    }
+
+    @Test
+    void cumulativeAckClearsEarlierWritesOfTheSession() {
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 1L, 1L));
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 2L, 2L));
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 3L, 3L));
+        NettyMessage group = message(CmdType.GROUP_CHAT_VALUE, 4L, 1L);
+        channel.writeOutbound(group);
+
+        // 单聊的会话为 0: 确认 seq 2 即确认了它及之前写出的单聊，群聊不受影响
+        channel.writeInbound(cumulativeAck(0L, 2L));
+        Assertions.assertTrue(handler.tracks(group));
+        channel.writeInbound(cumulativeAck(100L, 1L));
+        Assertions.assertFalse(handler.tracks(group));
+
+        channel.close();
+        Assertions.assertEquals(List.of(3L), spilledIds());
+    }
+
+    @Test
+    void cumulativeAckFollowsWriteOrderNotSeq() {
+        // 两个节点的 seq 号段交错: seq 101 先于 seq 2 写出
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 11L, 101L));
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 10L, 2L));
+
+        channel.writeInbound(cumulativeAck(0L, 101L));
+        // 未登记的 seq (重复或过期的 ACK) 不清除任何消息
+        channel.writeInbound(cumulativeAck(0L, 50L));
+
+        channel.close();
+        Assertions.assertEquals(List.of(10L), spilledIds());
+    }
+
+    @Test
+    void spillsUnacknowledgedOnInactive() {
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 3L, 0L));
+        channel.writeOutbound(message(CmdType.GROUP_CHAT_VALUE, 2L, 5L));
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 5L, 0L));
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 4L, 0L));
+        channel.writeInbound(ack(4L));
+
+        channel.close();
+        // 群聊与出站队列溢出同一规则，不进离线队列 (由 SYNC 补齐)
+        Assertions.assertEquals(List.of(3L, 5L), spilledIds(), "spilled in message id order");
+        ChatMessageDTO single = manager.spilled.get(0);
+        Assertions.assertEquals(1, single.getType());
+        Assertions.assertEquals(USER_ID, single.getTargetUserId());
+    }
+
+    @Test
+    void unwritableChannelSpillsEachMessageOnce() {
+        RecordingOutboundManager outboundManager = new RecordingOutboundManager();
+        DeliveryAckHandler ackHandler = new DeliveryAckHandler(manager, 16, 0L, 2);
+        // 与 NettyServerInitializer 相同的顺序: 出站消息先经过确认窗口，再进入出站队列
+        EmbeddedChannel unwritable = new EmbeddedChannel(new OutboundQueueHandler(outboundManager, 16, 0L), ackHandler);
+        new SessionManager().addSession(USER_ID, "test", unwritable);
+        ackHandler.enable();
+
+        unwritable.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 1L, 1L));
+        Assertions.assertEquals(1L, messageIdOf(unwritable.readOutbound()));
+
+        unwritable.unsafe().outboundBuffer().setUserDefinedWritability(1, false);
+        unwritable.runPendingTasks();
+        Assertions.assertFalse(unwritable.isWritable());
+        ChannelFuture tracked = unwritable.writeAndFlush(message(CmdType.SINGLE_CHAT_VALUE, 2L, 2L));
+        ChannelFuture group = unwritable.writeAndFlush(message(CmdType.GROUP_CHAT_VALUE, 3L, 1L));
+        // 没有 message_id，不进确认窗口，只能由出站队列溢出
+        ChannelFuture untracked = unwritable.writeAndFlush(message(CmdType.SINGLE_CHAT_VALUE, 0L, 0L));
+        Assertions.assertNull(unwritable.readOutbound(), "writes are queued while unwritable");
+
+        unwritable.close();
+        Assertions.assertEquals(List.of(1L, 2L), spilledIds(), "tracked messages are spilled by the ACK window");
+        Assertions.assertEquals(1, outboundManager.spilled.size(), "queued copies of tracked messages are skipped");
+        Assertions.assertEquals(0L, outboundManager.spilled.get(0).getMessageId());
+        Assertions.assertTrue(untracked.isSuccess(), "accepted by the offline queue");
+        Assertions.assertFalse(tracked.isSuccess());
+        Assertions.assertFalse(group.isSuccess());
+    }
+
+    @Test
+    void closesAfterMaxRetransmits() {
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 1L, 0L));
+        channel.readOutbound();
+
+        runCheck();
+        runCheck();
+        Assertions.assertTrue(channel.isActive());
+        runCheck();
+
+        Assertions.assertFalse(channel.isActive());
+        Assertions.assertEquals(List.of(1L), spilledIds());
+    }
+
+    @Test
+    void closesWhenWindowOverflows() {
+        for (long id = 1; id <= 4; id++) {
+            channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, id, 0L));
+        }
+        // 第 5 条超出上限，连接在写出前被关闭，写入本身失败
+        channel.writeOneOutbound(message(CmdType.SINGLE_CHAT_VALUE, 5L, 0L));
+        channel.runPendingTasks();
+        Assertions.assertFalse(channel.isActive());
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L, 5L), spilledIds());
+    }
+
+    @Test
+    void ignoresUntrackedMessages() {
+        EmbeddedChannel disabled = new EmbeddedChannel(new DeliveryAckHandler(manager, 4, 0L, 2));
+        disabled.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 1L, 0L));
+        disabled.close();
+
+        // 未开启 ACK 的连接、没有 message_id 的消息、非聊天指令都不登记
+        channel.writeOutbound(message(CmdType.SINGLE_CHAT_VALUE, 0L, 0L));
+        channel.writeOutbound(NettyMessage.of(CmdType.ERROR_VALUE,
+                ChatPayload.newBuilder().setMessageId(9L).build()));
+        Assertions.assertTrue(manager.checks.isEmpty());
+        channel.close();
+        Assertions.assertTrue(manager.spilled.isEmpty());
+    }
+
+    private void runCheck() {
+        TimerTask task = manager.checks.poll();
+        Assertions.assertNotNull(task, "a retransmit check is scheduled");
+        try {
+            task.run(null);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        channel.runPendingTasks();
+    }
+
+    private List<Long> spilledIds() {
+        List<Long> ids = new ArrayList<>();
+        for (ChatMessageDTO message : manager.spilled) {
+            ids.add(message.getMessageId());
+        }
+        return ids;
+    }
+
+    private static NettyMessage message(int cmdType, long messageId, long seq) {
+        ChatPayload payload = ChatPayload.newBuilder()
+                .setCmd(CmdType.forNumber(cmdType))
+                .setSenderId(1L)
+                .setTargetId(cmdType == CmdType.GROUP_CHAT_VALUE ? 100L : USER_ID)
+                .setContent("message " + messageId)
+                .setMessageId(messageId)
+                .setSeq(seq)
+                .build();
+        return NettyMessage.of(cmdType, payload);
+    }
+
+    private static NettyMessage ack(long messageId) {
+        return NettyMessage.of(CmdType.ACK_VALUE,
+                ChatPayload.newBuilder().setCmd(CmdType.ACK).setMessageId(messageId).build());
+    }
+
+    private static NettyMessage cumulativeAck(long sessionId, long seq) {
+        return NettyMessage.of(CmdType.ACK_VALUE,
+                ChatPayload.newBuilder().setCmd(CmdType.ACK).setSessionId(sessionId).setSeq(seq).build());
+    }
+
+    private static long messageIdOf(Object outbound) {
+        Assertions.assertNotNull(outbound);
+        return ((ChatPayload) ((NettyMessage) outbound).getBody()).getMessageId();
+    }
+
+    /**
+     * 记录出站队列溢出到离线队列的单聊消息，不访问 Redis
+     */
+    private static final class RecordingOutboundManager extends OutboundQueueManager {
+        private final List<ChatPayload> spilled = new ArrayList<>();
+
+        private RecordingOutboundManager() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        void spill(Channel channel, List<Object> messages) {
+            for (Object msg : messages) {
+                if (OutboundQueueManager.isSpillable(msg)) {
+                    spilled.add((ChatPayload) ((NettyMessage) msg).getBody());
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录重传检查与溢出，不启动时间轮，也不访问 Redis
+     */
+    private static final class RecordingManager extends DeliveryAckManager {
+        private final ArrayDeque<TimerTask> checks = new ArrayDeque<>();
+        private final List<ChatMessageDTO> spilled = new ArrayList<>();
+
+        private RecordingManager() {
+            super(new NettyProperties(), new SimpleMeterRegistry());
+        }
+
+        @Override
+        Timeout schedule(TimerTask task, long delayNanos) {
+            checks.add(task);
+            return new PendingCheck(task);
+        }
+
+        @Override
+        void spillUnacked(long userId, List<ChatMessageDTO> messages) {
+            spilled.addAll(messages);
+        }
+
+        private final class PendingCheck implements Timeout {
+            private final TimerTask task;
+            private boolean cancelled;
+
+            private PendingCheck(TimerTask task) {
+                this.task = task;
+            }
+
+            @Override
+            public Timer timer() {
+                return null;
+            }
+
+            @Override
+            public TimerTask task() {
+                return task;
+            }
+
+            @Override
+            public boolean isExpired() {
+                return false;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+
+            @Override
+            public boolean cancel() {
+                cancelled = true;
+                return checks.remove(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.literature.chat.netty.session;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelId;
+import io.netty.channel.DefaultChannelId;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.DefaultAttributeMap;
+
+import java.lang.ref.Reference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SessionManager 内存占用对比: 旧实现 (Map&lt;Long, Channel&gt; + Map&lt;asLongText, Long&gt;) 与
+ * 新实现 (ConcurrentLongObjectMap&lt;Channel[]&gt; + Channel 属性)
+ * <p>
+ * 只统计会话索引本身的增量，ChannelId 与每个连接的 AttributeMap 在基线中预先创建 (两种实现都有)。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.netty.session.SessionManagerFootprint -Dexec.args="100000 1000000"}，
+ * 1M 会话需要 {@code MAVEN_OPTS=-Xmx4g}。
+ */
+public class SessionManagerFootprint {
+
+    private static final AttributeKey<SessionManager.ChannelSession> SESSION = SessionManager.SESSION;
+
+    /**
+     * 所有会话共用一个 Channel 引用，只统计索引结构本身
+     */
+    private static final Channel CHANNEL = new EmbeddedChannel();
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[] {100_000, 1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        for (int size : sizes) {
+            ChannelId[] ids = new ChannelId[size];
+            DefaultAttributeMap[] attributes = new DefaultAttributeMap[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = DefaultChannelId.newInstance();
+                attributes[i] = new DefaultAttributeMap();
+            }
+            long legacy = measure(() -> legacyIndex(ids));
+            long current = measure(() -> currentIndex(attributes));
+            System.out.printf("%,9d sessions: legacy %,8.1f MB (%4d B/session), long-keyed %,8.1f MB (%4d B/session)%n",
+                    size, legacy / 1048576.0, legacy / size, current / 1048576.0, current / size);
+            // 基线对象必须存活到两次测量结束
+            Reference.reachabilityFence(ids);
+            Reference.reachabilityFence(attributes);
+        }
+    }
+
+    private static Object legacyIndex(ChannelId[] ids) {
+        Map<Long, Channel> userChannelMap = new ConcurrentHashMap<>();
+        Map<String, Long> channelUserMap = new ConcurrentHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            long userId = 1_000_000L + i;
+            userChannelMap.put(userId, CHANNEL);
+            channelUserMap.put(ids[i].asLongText(), userId);
+        }
+        return new Object[] {userChannelMap, channelUserMap};
+    }
+
+    private static Object currentIndex(DefaultAttributeMap[] attributes) {
+        ConcurrentLongObjectMap<Channel[]> userChannels = new ConcurrentLongObjectMap<>(64, 1 << 16);
+        for (int i = 0; i < attributes.length; i++) {
+            long userId = 1_000_000L + i;
+            attributes[i].attr(SESSION).set(new SessionManager.ChannelSession(userId, ""));
+            userChannels.put(userId, new Channel[] {CHANNEL});
+        }
+        return userChannels;
+    }
+
+    private static long measure(java.util.function.Supplier<Object> build) {
+        long before = usedMemory();
+        Object retained = build.get();
+        long after = usedMemory();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
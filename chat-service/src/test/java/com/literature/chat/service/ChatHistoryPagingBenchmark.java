@@ -0,0 +1,124 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageDoc;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 会话历史翻页基准: 旧接口 (skip/limit + count) 与键集游标在不同翻页深度下的单页耗时
+ * <p>
+ * 需要可用的 MongoDB (环境变量 {@code MONGODB_URI}，默认 {@code mongodb://localhost:27017})。首次运行向独立的
+ * chat_bench 库写入一个含 N 条消息的会话 (默认 1000 万条，每 {@value #PER_MILLI} 条共用一个毫秒时间戳)，
+ * 之后条数一致时直接复用；加参数 {@code --drop} 在结束后删除该库。每个深度取 {@value #ROUNDS} 次的中位数。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.service.ChatHistoryPagingBenchmark -Dexec.args="10000000"}
+ */
+public class ChatHistoryPagingBenchmark {
+
+    private static final String DATABASE = "chat_bench";
+    private static final long SESSION_ID = 1L;
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+    private static final int PER_MILLI = 4;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 21;
+    private static final int SEED_BATCH = 10_000;
+
+    public static void main(String[] args) {
+        long total = args.length > 0 && !args[0].startsWith("--") ? Long.parseLong(args[0]) : 10_000_000L;
+        boolean drop = Arrays.asList(args).contains("--drop");
+        String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+            seed(mongoTemplate.getCollection(mongoTemplate.getCollectionName(ChatMessageDoc.class)), total);
+
+            ChatProperties properties = new ChatProperties();
+            ChatHistoryQueryService keyset = new ChatHistoryQueryService(mongoTemplate,
+                    new ChatMessageBucketStore(mongoTemplate, properties), properties);
+            System.out.printf("%12s %18s %14s%n", "depth", "skip+count ms", "keyset ms");
+            for (long depth : new long[] {0, 1_000, 100_000, 1_000_000, total / 2, total - PAGE_SIZE}) {
+                if (depth < 0 || depth >= total) {
+                    continue;
+                }
+                // 深度 depth 处那条消息所在毫秒之后的时间戳，作为键集请求的 before
+                String before = String.valueOf(timestampOf(total - 1 - depth) + 1);
+                double offsetMs = median(() -> offsetPage(mongoTemplate, depth));
+                double keysetMs = median(() -> keyset.page(SESSION_ID, depth == 0 ? null : before, PAGE_SIZE));
+                System.out.printf("%12d %18.2f %14.2f%n", depth, offsetMs, keysetMs);
+            }
+            if (drop) {
+                client.getDatabase(DATABASE).drop();
+            }
+        }
+    }
+
+    /**
+     * 与原先 Page 接口等价: skip 到目标页，再 count 整个会话
+     */
+    private static void offsetPage(MongoTemplate mongoTemplate, long depth) {
+        Query query = new Query(Criteria.where("sessionId").is(SESSION_ID))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .skip(depth)
+                .limit(PAGE_SIZE);
+        mongoTemplate.find(query, ChatMessageDoc.class);
+        mongoTemplate.count(new Query(Criteria.where("sessionId").is(SESSION_ID)), ChatMessageDoc.class);
+    }
+
+    private static void seed(MongoCollection<Document> collection, long total) {
+        if (collection.countDocuments() == total) {
+            System.out.printf("Reusing %d seeded messages%n", total);
+            return;
+        }
+        collection.drop();
+        collection.createIndex(Indexes.compoundIndex(Indexes.ascending("sessionId"), Indexes.descending("timestamp"),
+                Indexes.descending("_id")), new IndexOptions().name("idx_session_timestamp_id"));
+        long start = System.nanoTime();
+        List<Document> batch = new ArrayList<>(SEED_BATCH);
+        for (long i = 0; i < total; i++) {
+            batch.add(new Document("messageId", i)
+                    .append("seq", i + 1)
+                    .append("sessionId", SESSION_ID)
+                    .append("senderId", i % 500)
+                    .append("type", 2)
+                    .append("content", "history message " + i)
+                    .append("timestamp", timestampOf(i)));
+            if (batch.size() == SEED_BATCH) {
+                collection.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+        System.out.printf("Seeded %d messages in %d s%n", total, (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    private static long timestampOf(long index) {
+        return BASE_TIMESTAMP + index / PER_MILLI;
+    }
+
+    private static double median(Runnable page) {
+        page.run();
+        double[] samples = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long begin = System.nanoTime();
+            page.run();
+            samples[i] = (System.nanoTime() - begin) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+}
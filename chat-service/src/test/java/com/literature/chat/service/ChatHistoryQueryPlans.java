@@ -0,0 +1,163 @@
+package com.literature.chat.service;
+
+import com.literature.chat.entity.ChatMessageDoc;
+import com.literature.chat.repository.ChatMessageMongoRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 聊天历史查询的执行计划检查: 按实体上声明的索引建索引，对 SYNC 与历史翻页的键集查询执行 explain，
+ * 打印获胜计划的各阶段，出现内存排序 (SORT) 或全表扫描 (COLLSCAN) 时以非零状态退出
+ * <p>
+ * SYNC 的查询条件与排序直接取自 {@link ChatMessageMongoRepository} 上的 {@code @Query}，历史翻页取自
+ * {@link ChatHistoryQueryService#query}，与线上保持一致。
+ * 需要可用的 MongoDB (环境变量 {@code MONGODB_URI}，默认 {@code mongodb://localhost:27017})，使用独立的
+ * chat_plans 库，结束后删除。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.service.ChatHistoryQueryPlans}
+ */
+public class ChatHistoryQueryPlans {
+
+    private static final String DATABASE = "chat_plans";
+    private static final long SESSION_ID = 1L;
+    private static final long USER_ID = 7L;
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+    private static final int MESSAGES = 20_000;
+    private static final int PER_MILLI = 4;
+    private static final int PAGE_SIZE = 50;
+
+    public static void main(String[] args) {
+        String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+        boolean clean = true;
+        try (MongoClient client = MongoClients.create(uri)) {
+            client.getDatabase(DATABASE).drop();
+            MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+            ensureIndexes(mongoTemplate, ChatMessageDoc.class);
+            MongoCollection<Document> collection =
+                    mongoTemplate.getCollection(mongoTemplate.getCollectionName(ChatMessageDoc.class));
+            seed(collection);
+
+            // 游标停在中间某一毫秒的某一条上
+            Document pivot = collection.find(Filters.eq("messageId", (long) MESSAGES / 2)).first();
+            long timestamp = pivot.getLong("timestamp");
+            ObjectId lastId = pivot.getObjectId("_id");
+
+            clean &= check(collection, "sync session", "findSessionMessagesAfter", SESSION_ID, timestamp, lastId);
+            clean &= check(collection, "sync direct", "findDirectMessagesAfter", USER_ID, timestamp, lastId);
+            clean &= check(collection, "history", ChatHistoryQueryService.query(SESSION_ID, timestamp, lastId, PAGE_SIZE + 1));
+            client.getDatabase(DATABASE).drop();
+        }
+        if (!clean) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(MongoCollection<Document> collection, String name, String method, Object... args) {
+        Query query = repositoryQuery(method);
+        Document filter = Document.parse(bind(query.value(), args));
+        Document sort = Document.parse(query.sort());
+        return check(name, collection.find(filter).sort(sort).limit(PAGE_SIZE + 1).explain());
+    }
+
+    private static boolean check(MongoCollection<Document> collection, String name,
+                                 org.springframework.data.mongodb.core.query.Query query) {
+        return check(name, collection.find(query.getQueryObject())
+                .projection(query.getFieldsObject())
+                .sort(query.getSortObject())
+                .limit(query.getLimit())
+                .hintString(query.getHint())
+                .explain());
+    }
+
+    private static boolean check(String name, Document explain) {
+        Object winningPlan = ((Document) explain.get("queryPlanner")).get("winningPlan");
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        boolean clean = !stages.contains("SORT") && !stages.contains("COLLSCAN");
+        System.out.printf("%-14s %-6s %s%n", name, clean ? "OK" : "FAIL", String.join(" <- ", stages));
+        return clean;
+    }
+
+    private static Query repositoryQuery(String method) {
+        for (Method candidate : ChatMessageMongoRepository.class.getMethods()) {
+            if (candidate.getName().equals(method)) {
+                return candidate.getAnnotation(Query.class);
+            }
+        }
+        throw new IllegalArgumentException("No repository method " + method);
+    }
+
+    /**
+     * 把 ?0、?1 ... 占位符替换为参数的扩展 JSON
+     */
+    private static String bind(String json, Object... args) {
+        for (int i = args.length - 1; i >= 0; i--) {
+            Object arg = args[i];
+            String value = arg instanceof ObjectId id ? "{ '$oid': '" + id.toHexString() + "' }" : String.valueOf(arg);
+            json = json.replace("?" + i, value);
+        }
+        return json;
+    }
+
+    /**
+     * 自顶向下收集计划树中的 stage (兼容经典引擎与 SBE 的 queryPlan 嵌套)
+     */
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage != null) {
+                stages.add(stage.toString());
+            }
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (!"stage".equals(entry.getKey())) {
+                    collectStages(entry.getValue(), stages);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                collectStages(item, stages);
+            }
+        }
+    }
+
+    private static void ensureIndexes(MongoTemplate mongoTemplate, Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity)
+                .forEach(indexOps::ensureIndex);
+    }
+
+    /**
+     * 一半群聊 (同一会话)、一半发给同一用户的单聊，每 {@value #PER_MILLI} 条共用一个毫秒时间戳
+     */
+    private static void seed(MongoCollection<Document> collection) {
+        List<Document> batch = new ArrayList<>(MESSAGES);
+        for (long i = 0; i < MESSAGES; i++) {
+            Document doc = new Document("messageId", i)
+                    .append("seq", i + 1)
+                    .append("senderId", 10_000 + i % 50)
+                    .append("content", "plan message " + i)
+                    .append("timestamp", BASE_TIMESTAMP + i / PER_MILLI);
+            if (i % 2 == 0) {
+                doc.append("sessionId", SESSION_ID).append("type", 2);
+            } else {
+                doc.append("targetUserId", USER_ID).append("type", 1);
+            }
+            batch.add(doc);
+        }
+        collection.insertMany(batch);
+    }
+}
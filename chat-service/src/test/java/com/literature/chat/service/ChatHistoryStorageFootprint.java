@@ -0,0 +1,112 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageBucket;
+import com.literature.chat.entity.ChatMessageDoc;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+/**
+ * 聊天历史存储布局对比: MESSAGE (每条消息一个文档) 与 BUCKET (按会话 + 时间窗口合并) 写入同样的消息后的
+ * 数据大小、磁盘占用、索引大小，以及 WiredTiger 实际写盘字节数 (写放大)
+ * <p>
+ * 需要可用的 MongoDB (环境变量 {@code MONGODB_URI}，默认 {@code mongodb://localhost:27017})，使用独立的
+ * chat_footprint 库，结束后删除。写盘字节取 serverStatus 中 block-manager 的 "bytes written" 在写入前后的差值
+ * (前后各做一次 fsync 触发 checkpoint)，同一实例上不要同时跑其他负载。
+ * 消息以每秒 {@value #MESSAGES_PER_SECOND} 条的模拟时间均匀分布到各会话，一半群聊一半单聊，均经过 write-behind 写入。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.service.ChatHistoryStorageFootprint -Dexec.args="2000000 1000"}
+ */
+public class ChatHistoryStorageFootprint {
+
+    private static final String DATABASE = "chat_footprint";
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+    private static final int MESSAGES_PER_SECOND = 200;
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoDatabase admin = client.getDatabase("admin");
+            System.out.printf("%d messages over %d sessions%n", total, sessions);
+            System.out.printf("%-8s %10s %12s %12s %12s %8s %14s %10s%n", "storage", "documents", "data MB",
+                    "storage MB", "index MB", "indexes", "written MB", "B/message");
+            for (ChatProperties.Storage storage : ChatProperties.Storage.values()) {
+                client.getDatabase(DATABASE).drop();
+                MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+                Class<?> entity = storage == ChatProperties.Storage.BUCKET ? ChatMessageBucket.class : ChatMessageDoc.class;
+                ensureIndexes(mongoTemplate, entity);
+
+                ChatProperties properties = new ChatProperties();
+                properties.getHistory().setStorage(storage);
+                ChatHistoryWriter writer = new ChatHistoryWriter(mongoTemplate,
+                        new ChatMessageBucketStore(mongoTemplate, properties), properties, new SimpleMeterRegistry());
+
+                admin.runCommand(new Document("fsync", 1));
+                long writtenBefore = bytesWritten(admin);
+                writer.start();
+                for (int i = 0; i < total; i++) {
+                    writer.write(message(i, sessions));
+                }
+                writer.shutdown();
+                admin.runCommand(new Document("fsync", 1));
+                long written = bytesWritten(admin) - writtenBefore;
+
+                Document stats = client.getDatabase(DATABASE)
+                        .runCommand(new Document("collStats", mongoTemplate.getCollectionName(entity)));
+                System.out.printf("%-8s %10d %12.1f %12.1f %12.1f %8d %14.1f %10.0f%n", storage,
+                        number(stats, "count"), megabytes(number(stats, "size")), megabytes(number(stats, "storageSize")),
+                        megabytes(number(stats, "totalIndexSize")), number(stats, "nindexes"), megabytes(written),
+                        (double) written / total);
+            }
+            client.getDatabase(DATABASE).drop();
+        }
+    }
+
+    private static void ensureIndexes(MongoTemplate mongoTemplate, Class<?> entity) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity)
+                .forEach(indexOps::ensureIndex);
+    }
+
+    private static ChatMessageDoc message(int i, int sessions) {
+        ChatMessageDoc doc = new ChatMessageDoc();
+        long peer = i % sessions;
+        doc.setMessageId((long) i);
+        doc.setSeq((long) (i / sessions + 1));
+        doc.setSenderId(10_000 + (i * 31L) % sessions);
+        if (peer % 2 == 0) {
+            doc.setType(2);
+            doc.setSessionId(peer);
+        } else {
+            doc.setType(1);
+            doc.setTargetUserId(peer);
+        }
+        doc.setContent("footprint message " + i);
+        doc.setTimestamp(BASE_TIMESTAMP + (long) i * 1_000 / MESSAGES_PER_SECOND);
+        return doc;
+    }
+
+    private static long bytesWritten(MongoDatabase admin) {
+        Document status = admin.runCommand(new Document("serverStatus", 1));
+        Document blockManager = (Document) ((Document) status.get("wiredTiger")).get("block-manager");
+        return ((Number) blockManager.get("bytes written")).longValue();
+    }
+
+    private static long number(Document stats, String key) {
+        Object value = stats.get(key);
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
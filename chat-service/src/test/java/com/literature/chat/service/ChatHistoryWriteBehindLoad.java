@@ -0,0 +1,120 @@
+package com.literature.chat.service;
+
+import com.literature.chat.config.ChatProperties;
+import com.literature.chat.entity.ChatMessageDoc;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 聊天历史写入压测: 逐条 save 与 write-behind 批量写入在目标速率下的吞吐与 p99 持久化延迟
+ * <p>
+ * 需要可用的 MongoDB (环境变量 {@code MONGODB_URI}，默认 {@code mongodb://localhost:27017})，写入独立的 chat_load 库，结束后删除。
+ * 生产者按目标速率匀速写入，每档持续 {@value #SECONDS} 秒。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.service.ChatHistoryWriteBehindLoad -Dexec.args="10000 50000 100000"}
+ */
+public class ChatHistoryWriteBehindLoad {
+
+    private static final int SECONDS = 10;
+    private static final int PRODUCERS = 8;
+    private static final String DATABASE = "chat_load";
+
+    public static void main(String[] args) throws Exception {
+        int[] rates = args.length == 0 ? new int[] {10_000, 50_000, 100_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            rates[i] = Integer.parseInt(args[i]);
+        }
+        String uri = System.getenv().getOrDefault("MONGODB_URI", "mongodb://localhost:27017");
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+            System.out.printf("%-12s %10s %14s %12s %12s%n", "mode", "target/s", "achieved/s", "p99 ms", "blocked");
+            for (int rate : rates) {
+                mongoTemplate.dropCollection(ChatMessageDoc.class);
+                run("per-message", rate, doc -> mongoTemplate.save(doc), null, null);
+
+                mongoTemplate.dropCollection(ChatMessageDoc.class);
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                ChatProperties properties = new ChatProperties();
+                ChatHistoryWriter writer = new ChatHistoryWriter(mongoTemplate,
+                        new ChatMessageBucketStore(mongoTemplate, properties), properties, registry);
+                writer.start();
+                run("write-behind", rate, writer::write, writer, registry);
+            }
+            client.getDatabase(DATABASE).drop();
+        }
+    }
+
+    private static void run(String mode, int rate, Sink sink, ChatHistoryWriter writer, SimpleMeterRegistry registry)
+            throws InterruptedException {
+        int total = rate * SECONDS;
+        int perProducer = total / PRODUCERS;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * PRODUCERS / rate;
+        Timer directLatency = Timer.builder("direct").publishPercentiles(0.99).register(new SimpleMeterRegistry());
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        long start = System.nanoTime();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long sender = p;
+            producers.execute(() -> {
+                long next = System.nanoTime();
+                for (int i = 0; i < perProducer; i++) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    next += intervalNanos;
+                    long begin = System.nanoTime();
+                    sink.write(message(sender, i));
+                    if (writer == null) {
+                        directLatency.record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+                    }
+                }
+            });
+        }
+        producers.shutdown();
+        producers.awaitTermination(1, TimeUnit.HOURS);
+        if (writer != null) {
+            writer.shutdown();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Timer latency = writer == null ? directLatency : registry.get("chat.history.persist.latency").timer();
+        double blocked = writer == null ? 0 : registry.get("chat.history.backpressure").counter().count();
+        System.out.printf("%-12s %10d %14.0f %12.2f %12.0f%n", mode, rate, perProducer * PRODUCERS / elapsed,
+                p99Millis(latency), blocked);
+    }
+
+    private static double p99Millis(Timer timer) {
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static ChatMessageDoc message(long sender, int seq) {
+        ChatMessageDoc doc = new ChatMessageDoc();
+        doc.setSessionId(sender * 1_000 + seq % 100);
+        doc.setSenderId(sender);
+        doc.setTargetUserId(sender + 1);
+        doc.setType(1);
+        doc.setContent("load message " + seq);
+        doc.setTimestamp(System.currentTimeMillis());
+        doc.setCreatedAt(LocalDateTime.now());
+        return doc;
+    }
+
+    private interface Sink {
+        void write(ChatMessageDoc doc);
+    }
+}
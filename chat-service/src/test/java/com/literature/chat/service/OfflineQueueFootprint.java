@@ -0,0 +1,63 @@
+package com.literature.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.literature.chat.dto.ChatMessageDTO;
+import com.literature.chat.mq.RelayMessageSerializer;
+
+import java.util.Random;
+
+/**
+ * 离线队列开销对比: 旧实现 (Jackson JSON, RPUSH + LTRIM, LRANGE + DEL) 与新实现 (protobuf, Lua 追加截断, LPOP count)
+ * <p>
+ * 每条消息的字节数取真实编码结果；往返次数按一次离线追加和一次上线补推 (队列装满) 计算，
+ * 实测看 Redis {@code INFO commandstats} 与 {@code MEMORY USAGE offline:queue:{userId}}。
+ * 运行: {@code mvn -pl chat-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.literature.chat.service.OfflineQueueFootprint -Dexec.args="50 20 200"}
+ * (queue length, drain page size, average content chars)
+ */
+public class OfflineQueueFootprint {
+
+    private static final int SAMPLES = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int queueLength = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int contentChars = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Random random = new Random(42);
+        long jsonBytes = 0;
+        long protobufBytes = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            ChatMessageDTO message = message(random, contentChars);
+            jsonBytes += objectMapper.writeValueAsBytes(message).length;
+            protobufBytes += RelayMessageSerializer.toRelayMessage(message).toByteArray().length;
+        }
+
+        int drainRoundTrips = (queueLength + pageSize - 1) / pageSize;
+        if (queueLength % pageSize == 0) {
+            // 最后一页恰好装满时还要再弹一次空页才知道取完了
+            drainRoundTrips++;
+        }
+        System.out.printf("%-10s %14s %16s %18s%n", "format", "bytes/message", "push round trips",
+                "drain round trips");
+        System.out.printf("%-10s %14.1f %16d %18d%n", "json", (double) jsonBytes / SAMPLES, 2, 2);
+        System.out.printf("%-10s %14.1f %16d %18d%n", "protobuf", (double) protobufBytes / SAMPLES, 1,
+                drainRoundTrips);
+    }
+
+    private static ChatMessageDTO message(Random random, int contentChars) {
+        ChatMessageDTO message = new ChatMessageDTO();
+        message.setMessageId(random.nextLong() >>> 1);
+        message.setSenderId(100_000L + random.nextInt(1_000_000));
+        message.setTargetUserId(100_000L + random.nextInt(1_000_000));
+        message.setType(1);
+        StringBuilder content = new StringBuilder(contentChars);
+        for (int i = 0; i < contentChars; i++) {
+            content.append((char) ('a' + random.nextInt(26)));
+        }
+        message.setContent(content.toString());
+        message.setTimestamp(System.currentTimeMillis());
+        return message;
+    }
+}
@@ -75,6 +75,7 @@ public class CryptoProperties {
   public static class Netty {
     private boolean enabled = true;
     private String keyDeriveSalt;
+    private boolean sessionKeyEnabled = true;
 
     public boolean isEnabled() {
       return enabled;
@@ -91,5 +92,13 @@ public class CryptoProperties {
     public void setKeyDeriveSalt(String keyDeriveSalt) {
       this.keyDeriveSalt = keyDeriveSalt;
     }
+
+    public boolean isSessionKeyEnabled() {
+      return sessionKeyEnabled;
+    }
+
+    public void setSessionKeyEnabled(boolean sessionKeyEnabled) {
+      this.sessionKeyEnabled = sessionKeyEnabled;
+    }
   }
 }
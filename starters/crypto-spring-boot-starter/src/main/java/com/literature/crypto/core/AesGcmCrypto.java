@@ -7,42 +7,137 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 
+/**
+ * AES-256-GCM，密文格式为 IV(12) || ciphertext || tag(16)。
+ * <p>
+ * Cipher 按线程缓存复用。IV 由每线程随机的 8 字节前缀加 4 字节计数器组成，
+ * 计数器回绕时重新生成前缀，热路径上不再访问共享的 SecureRandom。
+ * ByteBuffer 重载可直接作用于 direct buffer (如 Netty ByteBuf 的 NIO 视图)，不经过堆数组。
+ */
 public class AesGcmCrypto {
   private static final int IV_LENGTH_BYTES = 12;
+  private static final int IV_PREFIX_BYTES = 8;
   private static final int TAG_LENGTH_BITS = 128;
+  private static final int TAG_LENGTH_BYTES = TAG_LENGTH_BITS / 8;
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
   private final SecureRandom secureRandom = new SecureRandom();
+  private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(() -> new Engine(secureRandom));
 
   public byte[] encrypt(byte[] plaintext, SecretKey key) {
+    byte[] out = new byte[encryptedLength(plaintext.length)];
+    encrypt(ByteBuffer.wrap(plaintext), ByteBuffer.wrap(out), key);
+    return out;
+  }
+
+  public byte[] decrypt(byte[] ciphertextWithIv, SecretKey key) {
+    if (ciphertextWithIv.length < IV_LENGTH_BYTES + 1) {
+      throw new IllegalArgumentException("Ciphertext too short");
+    }
+    try {
+      Engine engine = engines.get();
+      Cipher cipher = engine.init(Cipher.DECRYPT_MODE, key, ciphertextWithIv, 0);
+      return cipher.doFinal(ciphertextWithIv, IV_LENGTH_BYTES, ciphertextWithIv.length - IV_LENGTH_BYTES);
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("AES-GCM decryption failed", ex);
+    }
+  }
+
+  /**
+   * 加密 {@code src} 的剩余字节，将 IV 与密文写入 {@code dst}。
+   * {@code dst} 至少需要 {@link #encryptedLength(int)} 字节剩余空间，且不能与 {@code src} 的区域重叠。
+   *
+   * @return 写入 {@code dst} 的字节数
+   */
+  public int encrypt(ByteBuffer src, ByteBuffer dst, SecretKey key) {
+    if (dst.remaining() < encryptedLength(src.remaining())) {
+      throw new IllegalArgumentException("Destination buffer too small");
+    }
     try {
-      byte[] iv = new byte[IV_LENGTH_BYTES];
-      secureRandom.nextBytes(iv);
-      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-      byte[] ciphertext = cipher.doFinal(plaintext);
-      ByteBuffer buffer = ByteBuffer.allocate(iv.length + ciphertext.length);
-      buffer.put(iv);
-      buffer.put(ciphertext);
-      return buffer.array();
+      Engine engine = engines.get();
+      byte[] iv = engine.nextIv();
+      Cipher cipher = engine.init(Cipher.ENCRYPT_MODE, key, iv, 0);
+      dst.put(iv);
+      return IV_LENGTH_BYTES + cipher.doFinal(src, dst);
     } catch (GeneralSecurityException ex) {
       throw new IllegalStateException("AES-GCM encryption failed", ex);
     }
   }
 
-  public byte[] decrypt(byte[] ciphertextWithIv, SecretKey key) {
+  /**
+   * 解密 {@code src} 的剩余字节 (IV || ciphertext || tag)，明文写入 {@code dst}。
+   * {@code dst} 至少需要 {@link #decryptedLength(int)} 字节剩余空间。
+   *
+   * @return 写入 {@code dst} 的字节数
+   */
+  public int decrypt(ByteBuffer src, ByteBuffer dst, SecretKey key) {
+    if (src.remaining() < IV_LENGTH_BYTES + 1) {
+      throw new IllegalArgumentException("Ciphertext too short");
+    }
     try {
-      if (ciphertextWithIv.length < IV_LENGTH_BYTES + 1) {
-        throw new IllegalArgumentException("Ciphertext too short");
-      }
-      ByteBuffer buffer = ByteBuffer.wrap(ciphertextWithIv);
-      byte[] iv = new byte[IV_LENGTH_BYTES];
-      buffer.get(iv);
-      byte[] ciphertext = new byte[buffer.remaining()];
-      buffer.get(ciphertext);
-      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-      return cipher.doFinal(ciphertext);
+      Engine engine = engines.get();
+      src.get(engine.ivBuffer);
+      Cipher cipher = engine.init(Cipher.DECRYPT_MODE, key, engine.ivBuffer, 0);
+      return cipher.doFinal(src, dst);
     } catch (GeneralSecurityException ex) {
       throw new IllegalStateException("AES-GCM decryption failed", ex);
     }
   }
+
+  public static int encryptedLength(int plaintextLength) {
+    return IV_LENGTH_BYTES + plaintextLength + TAG_LENGTH_BYTES;
+  }
+
+  public static int decryptedLength(int ciphertextWithIvLength) {
+    return Math.max(0, ciphertextWithIvLength - IV_LENGTH_BYTES - TAG_LENGTH_BYTES);
+  }
+
+  /**
+   * 线程私有的 Cipher 与 IV 状态
+   */
+  private static final class Engine {
+    private final SecureRandom secureRandom;
+    private final Cipher cipher;
+    private final byte[] iv = new byte[IV_LENGTH_BYTES];
+    private final byte[] ivBuffer = new byte[IV_LENGTH_BYTES];
+    private int counter;
+
+    private Engine(SecureRandom secureRandom) {
+      this.secureRandom = secureRandom;
+      try {
+        this.cipher = Cipher.getInstance(TRANSFORMATION);
+      } catch (GeneralSecurityException ex) {
+        throw new IllegalStateException("AES-GCM is not available", ex);
+      }
+      resetPrefix();
+    }
+
+    /**
+     * 返回本线程的下一个 IV。返回的数组会被下一次调用覆盖，调用方需在此之前用完。
+     */
+    private byte[] nextIv() {
+      int next = ++counter;
+      if (next == 0) {
+        resetPrefix();
+        next = ++counter;
+      }
+      iv[IV_PREFIX_BYTES] = (byte) (next >>> 24);
+      iv[IV_PREFIX_BYTES + 1] = (byte) (next >>> 16);
+      iv[IV_PREFIX_BYTES + 2] = (byte) (next >>> 8);
+      iv[IV_PREFIX_BYTES + 3] = (byte) next;
+      return iv;
+    }
+
+    private void resetPrefix() {
+      byte[] prefix = new byte[IV_PREFIX_BYTES];
+      secureRandom.nextBytes(prefix);
+      System.arraycopy(prefix, 0, iv, 0, IV_PREFIX_BYTES);
+      counter = 0;
+    }
+
+    private Cipher init(int mode, SecretKey key, byte[] ivSource, int offset) throws GeneralSecurityException {
+      cipher.init(mode, key, new GCMParameterSpec(TAG_LENGTH_BITS, ivSource, offset, IV_LENGTH_BYTES));
+      return cipher;
+    }
+  }
 }
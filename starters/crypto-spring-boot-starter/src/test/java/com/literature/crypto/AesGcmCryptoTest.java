@@ -2,6 +2,10 @@ package com.literature.crypto;
 
 import com.literature.crypto.core.AesGcmCrypto;
 import com.literature.crypto.core.KeyGenerator;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
 import javax.crypto.SecretKey;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -20,4 +24,61 @@ public class AesGcmCryptoTest {
 
     Assertions.assertArrayEquals(payload, decrypted);
   }
+
+  @Test
+  void directByteBufferRoundTrip() {
+    AesGcmCrypto crypto = new AesGcmCrypto();
+    SecretKey key = new KeyGenerator().deriveKey("password", "salt");
+
+    byte[] payload = "hello direct".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer src = ByteBuffer.allocateDirect(payload.length);
+    src.put(payload).flip();
+    ByteBuffer encrypted = ByteBuffer.allocateDirect(AesGcmCrypto.encryptedLength(payload.length));
+    int written = crypto.encrypt(src, encrypted, key);
+    Assertions.assertEquals(AesGcmCrypto.encryptedLength(payload.length), written);
+    encrypted.flip();
+
+    ByteBuffer decrypted = ByteBuffer.allocateDirect(AesGcmCrypto.decryptedLength(written));
+    crypto.decrypt(encrypted, decrypted, key);
+    decrypted.flip();
+    byte[] result = new byte[decrypted.remaining()];
+    decrypted.get(result);
+
+    Assertions.assertArrayEquals(payload, result);
+  }
+
+  @Test
+  void byteBufferAndArrayFormatsAreCompatible() {
+    AesGcmCrypto crypto = new AesGcmCrypto();
+    SecretKey key = new KeyGenerator().deriveKey("password", "salt");
+
+    byte[] payload = "interop".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer encrypted = ByteBuffer.allocate(AesGcmCrypto.encryptedLength(payload.length));
+    crypto.encrypt(ByteBuffer.wrap(payload), encrypted, key);
+
+    Assertions.assertArrayEquals(payload, crypto.decrypt(encrypted.array(), key));
+  }
+
+  @Test
+  void ivIsUniquePerMessage() {
+    AesGcmCrypto crypto = new AesGcmCrypto();
+    SecretKey key = new KeyGenerator().deriveKey("password", "salt");
+
+    Set<ByteBuffer> ivs = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      byte[] encrypted = crypto.encrypt(new byte[] {1}, key);
+      Assertions.assertTrue(ivs.add(ByteBuffer.wrap(encrypted, 0, 12).slice()));
+    }
+  }
+
+  @Test
+  void tamperedCiphertextIsRejected() {
+    AesGcmCrypto crypto = new AesGcmCrypto();
+    SecretKey key = new KeyGenerator().deriveKey("password", "salt");
+
+    byte[] encrypted = crypto.encrypt("hello".getBytes(StandardCharsets.UTF_8), key);
+    encrypted[encrypted.length - 1] ^= 1;
+
+    Assertions.assertThrows(IllegalStateException.class, () -> crypto.decrypt(encrypted, key));
+  }
 }